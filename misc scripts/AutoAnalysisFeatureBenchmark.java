@@ -0,0 +1,700 @@
+/*
+Program Description: Compares how fast auto analysis classifies observed and reference event pairs through the original
+                     generateInstance, which rebuilt the attributes and passed every feature through a String, and
+                     through AutoAnalysisFeatures writing into one reused DenseInstance. Each is timed building the
+                     features alone and building them and classifying them with a small random forest trained on
+                     random pairs, standing in for the session's model. Also counts the pairs whose feature values or
+                     predictions differ between the two. Run with the VideoSync classes and weka.jar on the classpath:
+                     java -cp <VideoSync classes>:weka.jar:. AutoAnalysisFeatureBenchmark [pairs] [iterations]
+ */
+
+import VideoSync.objects.c1.C1Event;
+import VideoSync.views.modals.event_logger.autoanalysis.AutoAnalysisFeatures;
+import weka.classifiers.trees.RandomForest;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instances;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class AutoAnalysisFeatureBenchmark
+{
+    static final int WARMUP_ITERATIONS = 3;
+
+    //Size of the stand-in forest and of the pairs it is trained on
+    static final int TREE_COUNT = 20;
+    static final int TRAINING_PAIRS = 5000;
+
+    public static void main(String[] args) throws Exception
+    {
+        int pairCount = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        C1Event[][] pairs = createPairs(pairCount, new Random(1));
+        RandomForest rf = trainForest(createPairs(TRAINING_PAIRS, new Random(2)));
+
+        //Alternate the implementations so they all see the same JIT state
+        long[] originalFeatureTimes = new long[iterations];
+        long[] reusedFeatureTimes = new long[iterations];
+        long[] originalClassifyTimes = new long[iterations];
+        long[] reusedClassifyTimes = new long[iterations];
+        for(int i = -WARMUP_ITERATIONS; i < iterations; i++)
+        {
+            long originalFeatures = timeOriginal(pairs, null);
+            long reusedFeatures = timeReused(pairs, null);
+            long originalClassify = timeOriginal(pairs, rf);
+            long reusedClassify = timeReused(pairs, rf);
+            if(i >= 0)
+            {
+                originalFeatureTimes[i] = originalFeatures;
+                reusedFeatureTimes[i] = reusedFeatures;
+                originalClassifyTimes[i] = originalClassify;
+                reusedClassifyTimes[i] = reusedClassify;
+            }
+        }
+
+        System.out.println(pairCount + " event pairs, " + iterations + " iterations, " + TREE_COUNT + " tree forest");
+        System.out.println("Feature generation only:");
+        report("Original generateInstance", originalFeatureTimes, pairCount);
+        report("Reused feature vector", reusedFeatureTimes, pairCount);
+        System.out.println("Features and classification:");
+        report("Original generateInstance", originalClassifyTimes, pairCount);
+        report("Reused feature vector", reusedClassifyTimes, pairCount);
+        countDifferences(pairs, rf);
+    }
+
+    //Trains the stand-in forest, labelling a pair as a match when its events overlap by more than a third of their union
+    static RandomForest trainForest(C1Event[][] pairs) throws Exception
+    {
+        Instances training = AutoAnalysisFeatures.createDatasetHeader();
+        int unionIndex = training.attribute("perc_intersection_of_union").index();
+        for(int p = 0; p < pairs.length; p++)
+        {
+            C1Event[] e = pairs[p];
+            double[] values = new double[training.numAttributes()];
+            AutoAnalysisFeatures.writeFeatures(values, graphOffset(p), e[0], e[1], e[2], e[3], e[4], e[5]);
+            values[training.classIndex()] = (values[unionIndex] > 0.33) ? 1 : 0;
+            training.add(new DenseInstance(1.0, values));
+        }
+
+        RandomForest rf = new RandomForest();
+        rf.setNumIterations(TREE_COUNT);
+        rf.setSeed(1);
+        rf.buildClassifier(training);
+        return rf;
+    }
+
+    //Creates the previous, current and next observed and reference events of random pairs, some of them with equal
+    //durations and gaps so that features collide the way they do in real data
+    static C1Event[][] createPairs(int count, Random random)
+    {
+        C1Event[][] pairs = new C1Event[count][6];
+        for(int p = 0; p < count; p++)
+        {
+            long base = random.nextInt(3600000);
+            for(int e = 0; e < 6; e++)
+            {
+                long start = base + ((p % 2 == 0) ? random.nextInt(20) * 100 : random.nextInt(5000));
+                long duration = (p % 4 == 0) ? 1000 : 1 + random.nextInt(3000);
+                pairs[p][e] = new C1Event(1, 1, start, start + duration);
+            }
+        }
+        return pairs;
+    }
+
+    static int graphOffset(int pair)
+    {
+        return (pair % 3 == 0) ? 0 : (pair % 2000) - 1000;
+    }
+
+    //Returns the time taken to build the features of every pair, and classify them if a forest is given, in nanoseconds
+    static long timeOriginal(C1Event[][] pairs, RandomForest rf) throws Exception
+    {
+        double checksum = 0;
+        long start = System.nanoTime();
+        for(int p = 0; p < pairs.length; p++)
+        {
+            C1Event[] e = pairs[p];
+            Instances data = generateInstance(graphOffset(p), e[0], e[1], e[2], e[3], e[4], e[5]);
+            checksum += (rf != null) ? rf.classifyInstance(data.firstInstance()) : data.firstInstance().value(0);
+        }
+        long time = System.nanoTime() - start;
+        consume(checksum);
+        return time;
+    }
+
+    static long timeReused(C1Event[][] pairs, RandomForest rf) throws Exception
+    {
+        double checksum = 0;
+        long start = System.nanoTime();
+        Instances header = AutoAnalysisFeatures.createDatasetHeader();
+        double[] values = new double[header.numAttributes()];
+        DenseInstance instance = new DenseInstance(1.0, values);
+        instance.setDataset(header);
+        for(int p = 0; p < pairs.length; p++)
+        {
+            C1Event[] e = pairs[p];
+            AutoAnalysisFeatures.writeFeatures(values, graphOffset(p), e[0], e[1], e[2], e[3], e[4], e[5]);
+            checksum += (rf != null) ? rf.classifyInstance(instance) : instance.value(0);
+        }
+        long time = System.nanoTime() - start;
+        consume(checksum);
+        return time;
+    }
+
+    static void countDifferences(C1Event[][] pairs, RandomForest rf) throws Exception
+    {
+        Instances header = AutoAnalysisFeatures.createDatasetHeader();
+        double[] values = new double[header.numAttributes()];
+        DenseInstance instance = new DenseInstance(1.0, values);
+        instance.setDataset(header);
+
+        int featureDifferences = 0;
+        int predictionDifferences = 0;
+        int matches = 0;
+        for(int p = 0; p < pairs.length; p++)
+        {
+            C1Event[] e = pairs[p];
+            AutoAnalysisFeatures.writeFeatures(values, graphOffset(p), e[0], e[1], e[2], e[3], e[4], e[5]);
+            Instances data = generateInstance(graphOffset(p), e[0], e[1], e[2], e[3], e[4], e[5]);
+
+            if(!Arrays.equals(values, data.firstInstance().toDoubleArray()))
+                featureDifferences++;
+
+            double prediction = rf.classifyInstance(instance);
+            if(prediction != rf.classifyInstance(data.firstInstance()))
+                predictionDifferences++;
+            if(prediction == 1)
+                matches++;
+        }
+
+        System.out.println("Pairs with different feature values: " + featureDifferences + " of " + pairs.length);
+        System.out.println("Pairs with different predictions: " + predictionDifferences + " of " + pairs.length
+                + " (" + matches + " predicted to match)");
+    }
+
+    //Keeps the JIT from discarding the feature values
+    static volatile double sink;
+
+    static void consume(double value)
+    {
+        sink = value;
+    }
+
+    static void report(String name, long[] times, int pairCount)
+    {
+        long min = Long.MAX_VALUE, total = 0;
+        for(long t : times)
+        {
+            min = Math.min(min, t);
+            total += t;
+        }
+        double mean = (double) total / times.length;
+
+        System.out.printf("%-26s mean %.1f ms, best %.1f ms, %.0f pairs/s%n", name, mean / 1e6, min / 1e6, pairCount / (mean / 1e9));
+    }
+
+    //The original AutoAnalysisWorker.generateInstance, taking the graph offset it read from the window
+    static Instances generateInstance(int featureGraphOffset, C1Event previousObservedEvent, C1Event observedEvent, C1Event nextObservedEvent,
+                                     C1Event previousReferenceEvent, C1Event referenceEvent, C1Event nextReferenceEvent)
+    {
+        ArrayList<Attribute> atts;
+        ArrayList<String> attVals;
+        Instances data;
+        double[] vals;
+
+        // 1. set up attributes
+        atts = new ArrayList<>();
+        // - numeric
+        atts.add(new Attribute("observed_event_duration"));
+        atts.add(new Attribute("observed_event_duration_relative_to_reference_duration"));
+        atts.add(new Attribute("observed_event_start_relative_to_reference_start"));
+        atts.add(new Attribute("observed_event_center_relative_to_reference_center"));
+        atts.add(new Attribute("observed_event_end_relative_to_reference_end"));
+        atts.add(new Attribute("reference_event_duration"));
+        atts.add(new Attribute("reference_event_duration_relative_to_observed_duration"));
+        atts.add(new Attribute("reference_event_start_relative_to_observed_start"));
+        atts.add(new Attribute("reference_event_center_relative_to_observed_center"));
+        atts.add(new Attribute("reference_event_end_relative_to_observed_end"));
+//        atts.add(new Attribute("perc_intersection_of_observed"));
+//        atts.add(new Attribute("perc_intersection_of_reference"));
+        atts.add(new Attribute("perc_intersection_of_union"));
+        atts.add(new Attribute("previous_observed_event_duration"));
+        atts.add(new Attribute("previous_observed_event_start_relative_to_observed_start"));
+        atts.add(new Attribute("previous_observed_event_center_relative_to_observed_center"));
+        atts.add(new Attribute("previous_observed_event_end_relative_to_observed_end"));
+        atts.add(new Attribute("previous_observed_event_end_relative_to_observed_start"));
+        atts.add(new Attribute("previous_observed_event_start_relative_to_reference_start"));
+        atts.add(new Attribute("previous_observed_event_center_relative_to_reference_center"));
+        atts.add(new Attribute("previous_observed_event_end_relative_to_reference_end"));
+        atts.add(new Attribute("previous_observed_event_end_relative_to_reference_start"));
+//        atts.add(new Attribute("perc_intersection_of_previous_observed_with_reference"));
+//        atts.add(new Attribute("perc_intersection_of_reference_with_previous_observed"));
+        atts.add(new Attribute("perc_intersection_of_union_of_previous_observed_and_reference"));
+        atts.add(new Attribute("next_observed_event_duration"));
+        atts.add(new Attribute("next_observed_event_start_relative_to_observed_start"));
+        atts.add(new Attribute("next_observed_event_center_relative_to_observed_center"));
+        atts.add(new Attribute("next_observed_event_end_relative_to_observed_end"));
+        atts.add(new Attribute("next_observed_event_start_relative_to_observed_end"));
+        atts.add(new Attribute("next_observed_event_start_relative_to_reference_start"));
+        atts.add(new Attribute("next_observed_event_center_relative_to_reference_center"));
+        atts.add(new Attribute("next_observed_event_end_relative_to_reference_end"));
+        atts.add(new Attribute("next_observed_event_start_relative_to_reference_end"));
+//        atts.add(new Attribute("perc_intersection_of_next_observed_with_reference"));
+//        atts.add(new Attribute("perc_intersection_of_reference_with_next_observed"));
+        atts.add(new Attribute("perc_intersection_of_union_of_next_observed_and_reference"));
+        atts.add(new Attribute("previous_reference_event_duration"));
+        atts.add(new Attribute("previous_reference_event_start_relative_to_reference_start"));
+        atts.add(new Attribute("previous_reference_event_center_relative_to_reference_center"));
+        atts.add(new Attribute("previous_reference_event_end_relative_to_reference_end"));
+        atts.add(new Attribute("previous_reference_event_end_relative_to_reference_start"));
+        atts.add(new Attribute("previous_reference_event_start_relative_to_observed_start"));
+        atts.add(new Attribute("previous_reference_event_center_relative_to_observed_center"));
+        atts.add(new Attribute("previous_reference_event_end_relative_to_observed_end"));
+        atts.add(new Attribute("previous_reference_event_end_relative_to_observed_start"));
+//        atts.add(new Attribute("perc_intersection_of_previous_reference_with_observed"));
+//        atts.add(new Attribute("perc_intersection_of_observed_with_previous_reference"));
+        atts.add(new Attribute("perc_intersection_of_union_of_previous_reference_and_observed"));
+        atts.add(new Attribute("next_reference_event_duration"));
+        atts.add(new Attribute("next_reference_event_start_relative_to_reference_start"));
+        atts.add(new Attribute("next_reference_event_center_relative_to_reference_center"));
+        atts.add(new Attribute("next_reference_event_end_relative_to_reference_end"));
+        atts.add(new Attribute("next_reference_event_start_relative_to_reference_end"));
+        atts.add(new Attribute("next_reference_event_start_relative_to_observed_start"));
+        atts.add(new Attribute("next_reference_event_center_relative_to_observed_center"));
+        atts.add(new Attribute("next_reference_event_end_relative_to_observed_end"));
+        atts.add(new Attribute("next_reference_event_start_relative_to_observed_end"));
+//        atts.add(new Attribute("perc_intersection_of_next_reference_with_observed"));
+//        atts.add(new Attribute("perc_intersection_of_observed_with_next_reference"));
+        atts.add(new Attribute("perc_intersection_of_union_of_next_reference_and_observed"));
+
+        attVals = new ArrayList<>();
+        attVals.add("FALSE");
+        attVals.add("TRUE");
+        atts.add(new Attribute("match", attVals));
+
+        // 2. create Instances object
+        data = new Instances("MyRelation", atts, 0);
+
+        List<String> feat = new ArrayList<>();
+        long tmp;
+        double perc;
+
+        int graphOffset = featureGraphOffset;
+
+        long obsDuration = observedEvent.getDuration();
+        long obsStart = observedEvent.getStartTime();
+        long obsCenter = observedEvent.getHalfwayTime();
+        long obsEnd = observedEvent.getEndTime();
+
+        long prevObsDuration = previousObservedEvent.getDuration();
+        long prevObsStart = previousObservedEvent.getStartTime();
+        long prevObsCenter = previousObservedEvent.getHalfwayTime();
+        long prevObsEnd = previousObservedEvent.getEndTime();
+
+        long nextObsDuration = nextObservedEvent.getDuration();
+        long nextObsStart = nextObservedEvent.getStartTime();
+        long nextObsCenter = nextObservedEvent.getHalfwayTime();
+        long nextObsEnd = nextObservedEvent.getEndTime();
+
+        long refDuration = referenceEvent.getDuration();
+        long refStart = referenceEvent.getStartTime() + graphOffset;
+        long refCenter = referenceEvent.getHalfwayTime() + graphOffset;
+        long refEnd = referenceEvent.getEndTime() + graphOffset;
+
+        long prevRefDuration = previousReferenceEvent.getDuration();
+        long prevRefStart = previousReferenceEvent.getStartTime() + graphOffset;
+        long prevRefCenter = previousReferenceEvent.getHalfwayTime() + graphOffset;
+        long prevRefEnd = previousReferenceEvent.getEndTime() + graphOffset;
+
+        long nextRefDuration = nextReferenceEvent.getDuration();
+        long nextRefStart = nextReferenceEvent.getStartTime() + graphOffset;
+        long nextRefCenter = nextReferenceEvent.getHalfwayTime() + graphOffset;
+        long nextRefEnd = nextReferenceEvent.getEndTime() + graphOffset;
+
+        // observed_event_duration
+        feat.add(Long.toString(obsDuration));
+
+        // observed_event_start
+        //feat.add(Long.toString(obsStart));
+
+        // observed_event_center
+        //feat.add(Long.toString(obsCenter));
+
+        // observed_event_end
+        //feat.add(Long.toString(obsEnd));
+
+        // observed_event_duration_relative_to_reference_duration
+        tmp = obsDuration - refDuration;
+        feat.add(Long.toString(tmp));
+
+        // observed_event_start_relative_to_reference_start
+        tmp = obsStart - refStart;
+        feat.add(Long.toString(tmp));
+
+        // observed_event_center_relative_to_reference_center
+        tmp = obsCenter - refCenter;
+        feat.add(Long.toString(tmp));
+
+        // observed_event_end_relative_to_reference_end
+        tmp = obsEnd - refEnd;
+        feat.add(Long.toString(tmp));
+
+        // reference_event_duration
+        feat.add(Long.toString(refDuration));
+
+        // reference_event_start
+        //feat.add(Long.toString(refStart));
+
+        // reference_event_center
+        //feat.add(Long.toString(refCenter));
+
+        // reference_event_end
+        //feat.add(Long.toString(refEnd));
+
+        // reference_event_duration_relative_to_observed_duration
+        tmp = refDuration - obsDuration;
+        feat.add(Long.toString(tmp));
+
+        // reference_event_start_relative_to_reference_start
+        tmp = refStart - obsStart;
+        feat.add(Long.toString(tmp));
+
+        // reference_event_center_relative_to_reference_center
+        tmp = refCenter - obsCenter;
+        feat.add(Long.toString(tmp));
+
+        // reference_event_end_relative_to_reference_end
+        tmp = referenceEvent.getEndTime() - observedEvent.getEndTime();
+        feat.add(Long.toString(tmp));
+
+//        // perc_intersection_of_observed
+//        if(!(refStart > obsEnd || obsStart > refEnd))
+//            perc = (double) (Math.min(obsEnd, refEnd) - Math.max(obsStart, refStart)) / obsDuration;
+//        else
+//            perc = 0.0;
+//
+//        feat.add(Double.toString(perc));
+//
+//        // perc_intersection_of_reference
+//        if(!(refStart > obsEnd || obsStart > refEnd))
+//            perc = (double) (Math.min(obsEnd, refEnd) - Math.max(obsStart, refStart)) / refDuration;
+//        else
+//            perc = 0.0;
+//
+//        feat.add(Double.toString(perc));
+
+        // perc_intersection_of_union
+        if(!(refStart > obsEnd || obsStart > refEnd))
+            perc = (double) (Math.min(obsEnd, refEnd) - Math.max(obsStart, refStart)) / (Math.max(obsEnd, refEnd) - Math.min(obsStart, refStart));
+        else
+            perc = 0.0;
+
+        feat.add(Double.toString(perc));
+
+        // previous_observed_event_duration
+        feat.add(Long.toString(prevObsDuration));
+
+        // previous_observed_event_start
+        //feat.add(Long.toString(prevObsStart));
+
+        // previous_observed_event_center
+        //feat.add(Long.toString(prevObsCenter));
+
+        // previous_observed_event_end
+        //feat.add(Long.toString(prevObsEnd));
+
+        // previous_observed_event_start_relative_to_observed_start
+        tmp = prevObsStart - obsStart;
+        feat.add(Long.toString(tmp));
+
+        // previous_observed_event_center_relative_to_observed_center
+        tmp = prevObsCenter - obsCenter;
+        feat.add(Long.toString(tmp));
+
+        // previous_observed_event_end_relative_to_observed_end
+        tmp = prevObsEnd - obsEnd;
+        feat.add(Long.toString(tmp));
+
+        // previous_observed_event_end_relative_to_observed_start
+        tmp = prevObsEnd - obsStart;
+        feat.add(Long.toString(tmp));
+
+        // previous_observed_event_start_relative_to_reference_start
+        tmp = prevObsStart - refStart;
+        feat.add(Long.toString(tmp));
+
+        // previous_observed_event_center_relative_to_reference_center
+        tmp = prevObsCenter - refStart;
+        feat.add(Long.toString(tmp));
+
+        // previous_observed_event_end_relative_to_reference_end
+        tmp = prevObsEnd - refEnd;
+        feat.add(Long.toString(tmp));
+
+        // previous_observed_event_end_relative_to_reference_start
+        tmp = prevObsEnd - refStart;
+        feat.add(Long.toString(tmp));
+
+//        // perc_intersection_of_previous_observed_with_reference
+//        if(!(refStart > prevObsEnd || prevObsStart > refEnd))
+//            perc = (double) (Math.min(prevObsEnd, refEnd) - Math.max(prevObsStart, refStart)) / prevObsDuration;
+//        else
+//            perc = 0.0;
+//
+//        feat.add(Double.toString(perc));
+//
+//        // perc_intersection_of_reference_with_previous_observed
+//        if(!(refStart > prevObsEnd || prevObsStart > refEnd))
+//            perc = (double) (Math.min(prevObsEnd, refEnd) - Math.max(prevObsStart, refStart)) / refDuration;
+//        else
+//            perc = 0.0;
+//
+//        feat.add(Double.toString(perc));
+
+        // perc_intersection_of_union_of_previous_observed_and_reference
+        if(!(refStart > prevObsEnd || prevObsStart > refEnd))
+            perc = (double) (Math.min(prevObsEnd, refEnd) - Math.max(prevObsStart, refStart)) / (Math.max(prevObsEnd, refEnd) - Math.min(prevObsStart, refStart));
+        else
+            perc = 0.0;
+
+        feat.add(Double.toString(perc));
+
+        // next_observed_event_duration
+        feat.add(Long.toString(nextObsDuration));
+
+        // next_observed_event_start
+        //feat.add(Long.toString(nextObsStart));
+
+        // next_observed_event_center
+        //feat.add(Long.toString(nextObsCenter));
+
+        // next_observed_event_end
+        //feat.add(Long.toString(nextObsEnd));
+
+        // next_observed_event_start_relative_to_observed_start
+        tmp = nextObsStart - obsStart;
+        feat.add(Long.toString(tmp));
+
+        // next_observed_event_center_relative_to_observed_center
+        tmp = nextObsCenter - obsCenter;
+        feat.add(Long.toString(tmp));
+
+        // next_observed_event_end_relative_to_observed_end
+        tmp = nextObsEnd - obsEnd;
+        feat.add(Long.toString(tmp));
+
+        // next_observed_event_start_relative_to_observed_end
+        tmp = nextObsStart - obsEnd;
+        feat.add(Long.toString(tmp));
+
+        // next_observed_event_start_relative_to_reference_start
+        tmp = nextObsStart - refStart;
+        feat.add(Long.toString(tmp));
+
+        // next_observed_event_center_relative_to_reference_center
+        tmp = nextObsCenter - refCenter;
+        feat.add(Long.toString(tmp));
+
+        // next_observed_event_end_relative_to_reference_end
+        tmp = nextObsEnd - refEnd;
+        feat.add(Long.toString(tmp));
+
+        // next_observed_event_start_relative_to_reference_end
+        tmp = nextObsStart - refEnd;
+        feat.add(Long.toString(tmp));
+
+//        // perc_intersection_of_next_observed_with_reference
+//        if(!(refStart > nextObsEnd || nextObsStart > refEnd))
+//            perc = (double) (Math.min(nextObsEnd, refEnd) - Math.max(nextObsStart, refStart)) / nextObsDuration;
+//        else
+//            perc = 0.0;
+//
+//        feat.add(Double.toString(perc));
+//
+//        // perc_intersection_of_reference_with_next_observed
+//        if(!(refStart > nextObsEnd || nextObsStart > refEnd))
+//            perc = (double) (Math.min(nextObsEnd, refEnd) - Math.max(nextObsStart, refStart)) / refDuration;
+//        else
+//            perc = 0.0;
+//
+//        feat.add(Double.toString(perc));
+
+        // perc_intersection_of_union_of_next_observed_and_reference
+        if(!(refStart > nextObsEnd || nextObsStart > refEnd))
+            perc = (double) (Math.min(nextObsEnd, refEnd) - Math.max(nextObsStart, refStart)) / (Math.max(nextObsEnd, refEnd) - Math.min(nextObsStart, refStart));
+        else
+            perc = 0.0;
+
+        feat.add(Double.toString(perc));
+
+        // previous_reference_event_duration
+        feat.add(Long.toString(prevRefDuration));
+
+        // previous_reference_event_start
+        //feat.add(Long.toString(prevRefStart));
+
+        // previous_reference_event_center
+        //feat.add(Long.toString(prevRefCenter));
+
+        // previous_reference_event_end
+        //feat.add(Long.toString(prevRefEnd));
+
+        // previous_reference_event_start_relative_to_reference_start
+        tmp = prevRefStart - refStart;
+        feat.add(Long.toString(tmp));
+
+        // previous_reference_event_center_relative_to_reference_center
+        tmp = prevRefCenter - refCenter;
+        feat.add(Long.toString(tmp));
+
+        // previous_reference_event_end_relative_to_reference_end
+        tmp = prevRefEnd - refEnd;
+        feat.add(Long.toString(tmp));
+
+        // previous_reference_event_end_relative_to_reference_start
+        tmp = prevRefEnd - refStart;
+        feat.add(Long.toString(tmp));
+
+        // previous_reference_event_start_relative_to_observed_start
+        tmp = prevRefStart - obsStart;
+        feat.add(Long.toString(tmp));
+
+        // previous_reference_event_center_relative_to_observed_center
+        tmp = prevRefCenter - obsCenter;
+        feat.add(Long.toString(tmp));
+
+        // previous_reference_event_end_relative_to_observed_end
+        tmp = prevRefEnd - obsEnd;
+        feat.add(Long.toString(tmp));
+
+        // previous_reference_event_end_relative_to_observed_start
+        tmp = prevRefEnd - obsStart;
+        feat.add(Long.toString(tmp));
+
+//        // perc_intersection_of_previous_reference_with_observed
+//        if(!(obsStart > prevRefEnd || prevRefStart > obsEnd))
+//            perc = (double) (Math.min(prevRefEnd, obsEnd) - Math.max(prevRefStart, obsStart)) / prevRefDuration;
+//        else
+//            perc = 0.0;
+//
+//        feat.add(Double.toString(perc));
+//
+//        // perc_intersection_of_observed_with_previous_reference
+//        if(!(obsStart > prevRefEnd || prevRefStart > obsEnd))
+//            perc = (double) (Math.min(prevRefEnd, obsEnd) - Math.max(prevRefStart, obsStart)) / obsDuration;
+//        else
+//            perc = 0.0;
+//
+//        feat.add(Double.toString(perc));
+
+        // perc_intersection_of_union_of_previous_reference_and_observed
+        if(!(obsStart > prevRefEnd || prevRefStart > obsEnd))
+            perc = (double) (Math.min(prevRefEnd, obsEnd) - Math.max(prevRefStart, obsStart)) / (Math.max(prevRefEnd, obsEnd) - Math.min(prevRefStart, obsStart));
+        else
+            perc = 0.0;
+
+        feat.add(Double.toString(perc));
+
+        // next_reference_event_duration
+        feat.add(Long.toString(nextRefDuration));
+
+        // next_reference_event_start
+        //feat.add(Long.toString(nextRefStart));
+
+        // next_reference_event_center
+        //feat.add(Long.toString(nextRefCenter));
+
+        // next_reference_event_end
+        //feat.add(Long.toString(nextRefEnd));
+
+        // next_reference_event_start_relative_to_reference_start
+        tmp = nextRefStart - refStart;
+        feat.add(Long.toString(tmp));
+
+        // next_reference_event_center_relative_to_reference_center
+        tmp = nextRefCenter - refCenter;
+        feat.add(Long.toString(tmp));
+
+        // next_reference_event_end_relative_to_reference_end
+        tmp = nextRefEnd - refEnd;
+        feat.add(Long.toString(tmp));
+
+        // next_reference_event_start_relative_to_reference_end
+        tmp = nextRefStart - refEnd;
+        feat.add(Long.toString(tmp));
+
+        // next_reference_event_start_relative_to_observed_start
+        tmp = nextRefStart - obsStart;
+        feat.add(Long.toString(tmp));
+
+        // next_reference_event_center_relative_to_observed_center
+        tmp = nextRefCenter - obsCenter;
+        feat.add(Long.toString(tmp));
+
+        // next_reference_event_end_relative_to_observed_end
+        tmp = nextRefEnd - obsEnd;
+        feat.add(Long.toString(tmp));
+
+        // next_reference_event_start_relative_to_observed_end
+        tmp = nextRefStart - obsEnd;
+        feat.add(Long.toString(tmp));
+
+//        // perc_intersection_of_next_reference_with_observed
+//        if(!(obsStart > nextRefEnd || nextRefStart > obsEnd))
+//            perc = (double) (Math.min(nextRefEnd, obsEnd) - Math.max(nextRefStart, obsStart)) / nextRefDuration;
+//        else
+//            perc = 0.0;
+//
+//        feat.add(Double.toString(perc));
+//
+//        // perc_intersection_of_observed_with_next_reference
+//        if(!(obsStart > nextRefEnd || nextRefStart > obsEnd))
+//            perc = (double) (Math.min(nextRefEnd, obsEnd) - Math.max(nextRefStart, obsStart)) / obsDuration;
+//        else
+//            perc = 0.0;
+//
+//        feat.add(Double.toString(perc));
+
+        // perc_intersection_of_union_of_next_reference_and_observed
+        if(!(obsStart > nextRefEnd || nextRefStart > obsEnd))
+            perc = (double) (Math.min(nextRefEnd, obsEnd) - Math.max(nextRefStart, obsStart)) / (Math.max(nextRefEnd, obsEnd) - Math.min(nextRefStart, obsStart));
+        else
+            perc = 0.0;
+
+        feat.add(Double.toString(perc));
+
+        // 3. fill with data
+        vals = new double[data.numAttributes()];
+        // - numeric
+        for(String s : feat)
+        {
+            int idx = feat.indexOf(s);
+            boolean isLong;
+
+            try
+            {
+                vals[idx] = Long.parseLong(s);
+                isLong = true;
+            }
+            catch(NumberFormatException e)
+            {
+                isLong = false;
+            }
+
+            if(!isLong)
+            {
+                vals[idx] = Double.parseDouble(s);
+            }
+        }
+
+        // add
+        data.add(new DenseInstance(1.0, vals));
+        data.setClassIndex(data.numAttributes() - 1);
+
+        return data;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+Program Description: Compares the time C1Analyzer takes to parse a C1 file through the parallel and sequential
+                     memory-mapped parser and through the BufferedReader parser. Run with the VideoSync classes on the classpath:
+                     java -cp <VideoSync classes>:. C1ParserBenchmark <c1 file> [iterations]
+ */
+
+import VideoSync.analyzers.C1Analyzer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+
+public class C1ParserBenchmark
+{
+    static final int WARMUP_ITERATIONS = 3;
+
+    public static void main(String[] args)
+    {
+        if(args.length < 1)
+        {
+            System.out.println("Usage: C1ParserBenchmark <c1 file> [iterations]");
+            return;
+        }
+
+        File file = new File(args[0]);
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        //Alternate the two parsers so both see the same JIT and page cache state
+        long[] parallelTimes = new long[iterations];
+        long[] mappedTimes = new long[iterations];
+        long[] bufferedTimes = new long[iterations];
+        for(int i = -WARMUP_ITERATIONS; i < iterations; i++)
+        {
+            long parallel = parse(file, true, true);
+            long mapped = parse(file, true, false);
+            long buffered = parse(file, false, false);
+            if(i >= 0)
+            {
+                parallelTimes[i] = parallel;
+                mappedTimes[i] = mapped;
+                bufferedTimes[i] = buffered;
+            }
+        }
+
+        System.out.println("File: " + file.getName() + " (" + file.length() + " bytes), " + iterations + " iterations");
+        report("Parallel mapped parser", parallelTimes, file.length());
+        report("Memory-mapped parser", mappedTimes, file.length());
+        report("BufferedReader parser", bufferedTimes, file.length());
+    }
+
+    //Runs a full analysis of the file with the selected parser and returns the parse phase time in milliseconds
+    static long parse(File file, boolean useMappedParser, boolean useParallelParser)
+    {
+        C1Analyzer analyzer = new C1Analyzer();
+        analyzer.setUseMappedParser(useMappedParser);
+        analyzer.setUseParallelParser(useParallelParser);
+
+        //Silence the analysis summary printed by the analyzer
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        try
+        {
+            analyzer.performAnalysis(file);
+        }
+        finally
+        {
+            System.setOut(out);
+        }
+
+        return analyzer.getLoadTimer().getPhaseMillis("parse");
+    }
+
+    static void report(String name, long[] times, long bytes)
+    {
+        long min = Long.MAX_VALUE, total = 0;
+        for(long t : times)
+        {
+            min = Math.min(min, t);
+            total += t;
+        }
+        double mean = (double) total / times.length;
+
+        System.out.printf("%-22s mean %.1f ms, best %d ms, %.1f MB/s%n", name, mean, min, bytes / 1048576.0 / (Math.max(mean, 1) / 1000.0));
+    }
+}
@@ -52,20 +52,26 @@ import java.util.Vector;
 public class C1Analyzer
 {
     /**
-     * Used for keeping track of the start time for the analysis
+     * Used for keeping track of how long each phase of the analysis takes
      */
-    private long sTime;
+    private LoadTimer loadTimer;
 
     /**
-     * Used for storing all of the raw events that are detected during analysis
+     * Used for storing all of the raw transitions that are read during analysis until they are bucketed into channels
      */
-    private Vector<C1Object> c1Objects;
+    private TransitionBuffer transitions;
 
     /**
      * Used for storing all the individual channel information after analysis.
-     * This is what we search through when looking for events
+     * This is what we search through when looking for events. Replaced with a new sorted snapshot as each segment of a
+     * streaming load is read, so it is never modified after it has been published.
      */
-    private Vector<C1Channel> channels;
+    private volatile Vector<C1Channel> channels;
+
+    /**
+     * Used for stopping a streaming load early, e.g. when another project is opened while a file is still loading
+     */
+    private volatile boolean loadCancelled;
 
     /**
      * Used for storing all the graph lines that are to be rendered
@@ -85,18 +91,92 @@ public class C1Analyzer
         LOW_STATES
     }
 
+    /**
+     * Enum used for differentiating between the C1 file formats that can be analyzed.
+     * DATABASE is a CSV export of the C1 database
+     * RAW_HEADER is raw C1 data following a "Pi" header line
+     * RAW_STATES is raw C1 data with no header line
+     */
+    public enum C1Format
+    {
+        DATABASE,
+        RAW_HEADER,
+        RAW_STATES,
+        UNKNOWN
+    }
+
+    /**
+     * Header line of a C1 database CSV export
+     */
+    private static final String C1_DATABASE_HEADER = "data_id,C1_Chip_Num,C1_Reader_Channel,C1_Pin,C1_Reader_State,C1_Reader_Ticks,C1_Reader_Millis,C1_Reader_Unix,C1_Date";
+
+    /**
+     * Pattern matched by a single raw C1 state line
+     */
+    private static final String C1_STATE_REGEX = "([0-9] ([0-9]{1,2}) ([01]) [0-9]*)";
+
+    /**
+     * Used for selecting whether C1 files are read through the memory-mapped parser or a BufferedReader
+     */
+    private boolean useMappedParser = true;
+
+    /**
+     * Used for selecting whether the memory-mapped parser splits the file across the cores of the machine
+     */
+    private boolean useParallelParser = true;
+
     /**
      * Constructor for creating the C1 Analyzer methods
      */
     public C1Analyzer()
     {
-        // Create an array to store all of the individual events
-        c1Objects = new Vector<>();
+        // Create a buffer to store all of the individual transitions
+        transitions = new TransitionBuffer();
 
         // Create an array to store all of the individual channels
         channels = new Vector<>();
     }
 
+    /**
+     * Selects whether C1 files are read through the memory-mapped parser, which decodes each line without creating
+     * Strings, or line by line through a BufferedReader
+     *
+     * @param useMappedParser true to use the memory-mapped parser
+     */
+    public void setUseMappedParser(boolean useMappedParser)
+    {
+        this.useMappedParser = useMappedParser;
+    }
+
+    /**
+     * Selects whether the memory-mapped parser reads line-aligned ranges of the file in parallel. The ranges are
+     * merged in file order, so the result is the same as reading the file sequentially.
+     *
+     * @param useParallelParser true to parse the file in parallel
+     */
+    public void setUseParallelParser(boolean useParallelParser)
+    {
+        this.useParallelParser = useParallelParser;
+    }
+
+    /**
+     * Determines the format of a C1 file from its first non-blank line
+     *
+     * @param line first non-blank line of the file with surrounding whitespace removed
+     * @return format of the file
+     */
+    static C1Format detectFormat(String line)
+    {
+        if(line.equals(C1_DATABASE_HEADER))
+            return C1Format.DATABASE;
+        else if(line.startsWith("Pi"))
+            return C1Format.RAW_HEADER;
+        else if(line.matches(C1_STATE_REGEX))
+            return C1Format.RAW_STATES;
+        else
+            return C1Format.UNKNOWN;
+    }
+
     // -- C1Analyzer Analysis methods
 
     /**
@@ -109,52 +189,192 @@ public class C1Analyzer
         System.out.println("File to load for C1 Analysis: " + file.getPath());
         System.out.println("------------------------------------------------------");
 
-        // Set the sTime to the current time
-        sTime = System.currentTimeMillis();
+        // Start timing the analysis
+        loadTimer = new LoadTimer();
 
         System.out.println("Analyzing C1 File: " + file.getName());
 
-        // Surround everything in a try/catch block for catching any errors with reading the file
+        if(useMappedParser)
+            readC1Mapped(file);
+        else
+            readC1Buffered(file);
+
+        loadTimer.endPhase("parse");
+
+        analyzeLoadedData();
+    }
+
+    /**
+     * Loads the analyzed channels of the C1 file from its binary cache when the cache is still valid. Otherwise
+     * performs the analysis of the file and writes a new cache for the next time the file is opened.
+     *
+     * @param file File object to read C1 data from
+     */
+    public void performCachedAnalysis(File file)
+    {
+        if(loadFromCache(file))
+            return;
+
+        performAnalysis(file);
+        writeCache(file);
+    }
+
+    /**
+     * Loads the analyzed channels of the C1 file from its binary cache
+     *
+     * @param file File object the cache belongs to
+     * @return true if the cache was valid and the channels were loaded from it
+     */
+    public boolean loadFromCache(File file)
+    {
+        C1DataCache cache = new C1DataCache(file);
+
+        loadTimer = new LoadTimer();
+        Vector<C1Channel> cachedChannels = cache.read();
+        loadTimer.endPhase("cache read");
+
+        if(cachedChannels == null)
+            return false;
+
+        channels = cachedChannels;
+        buildPyramids();
+        loadTimer.endPhase("pyramid");
+        System.out.println("Loaded " + channels.size() + " C1 channels from " + cache.getCacheFile().getName() + ": " + loadTimer);
+        System.out.println("------------------------------------------------------");
+        return true;
+    }
+
+    /**
+     * Writes the analyzed channels to the binary cache of the C1 file
+     *
+     * @param file File object the cache belongs to
+     */
+    public void writeCache(File file)
+    {
+        // Don't cache a file that could not be read, so the error is reported again the next time it is opened
+        if(channels.isEmpty() || loadCancelled)
+            return;
+
+        C1DataCache cache = new C1DataCache(file);
+        long start = System.currentTimeMillis();
+        cache.write(channels);
+        System.out.println("Wrote C1 cache " + cache.getCacheFile().getName() + " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * Performs the analysis of the C1 file one time-ordered segment at a time. The channels are published after each
+     * segment, so the start of the data can be graphed while the rest of the file is still being read. The final
+     * channels are the same as those created by performAnalysis.
+     *
+     * @param file     File object to read C1 data from
+     * @param listener receives the progress of the load after each segment and when the load finishes
+     */
+    public void performStreamingAnalysis(File file, C1LoadListener listener)
+    {
+        System.out.println("File to stream for C1 Analysis: " + file.getPath());
+        System.out.println("------------------------------------------------------");
+
+        loadTimer = new LoadTimer();
+        long startNanos = System.nanoTime();
+
+        ChannelBucketer<C1Channel> bucketer = new ChannelBucketer<>(C1Channel::new);
+        long[] transitionsRead = new long[1];
+
         try
         {
-            // Create a buffered reader to read the contents of the C1 File
-            //@SuppressWarnings("resource")
-            BufferedReader fileReader = new BufferedReader(new FileReader(file.getPath()));
-
-            //Read initial line to get header information ignoring any lines without a non-whitespace character
-            String line;
-            do
+            C1MappedParser parser = new C1MappedParser();
+            parser.setParallel(useParallelParser);
+            parser.parseSegments(file, (segment, bytesRead, totalBytes) ->
             {
-                line = fileReader.readLine().trim();
-            }
-            while(line.isEmpty());
+                appendSegment(bucketer, segment);
+                transitionsRead[0] += segment.size();
 
-            //Load the first line to be parsed
-            String c1StateRegex = "([0-9] ([0-9]{1,2}) ([01]) [0-9]*)";
-            if(line.equals("data_id,C1_Chip_Num,C1_Reader_Channel,C1_Pin,C1_Reader_State,C1_Reader_Ticks,C1_Reader_Millis,C1_Reader_Unix,C1_Date"))
-            {
-                readC1Database(fileReader);
-            }
-            else if(line.startsWith("Pi"))
-            {
-                readC1Raw(fileReader, null);
-            }
-            else if(line.matches(c1StateRegex))
-            {
-                readC1Raw(fileReader, line);
-            }
-            else
-            {
+                // Publish a sorted snapshot so readers never see the channel list change underneath them
+                Vector<C1Channel> snapshot = new Vector<>(bucketer.getChannels());
+                Collections.sort(snapshot);
+                channels = snapshot;
+
+                listener.c1LoadProgress(new C1LoadProgress(bytesRead, totalBytes, transitionsRead[0], System.nanoTime() - startNanos, false));
+                return !loadCancelled;
+            });
+
+            if(parser.getFormat() == C1Format.UNKNOWN)
                 System.out.println("Unknown C1 file format.");
-            }
-            fileReader.close();
+            if(parser.getSkippedLines() > 0)
+                System.out.println("Skipped " + parser.getSkippedLines() + " malformed C1 lines.");
         }
         catch(IOException e)
         {
             e.printStackTrace();
         }
 
-        analyzeLoadedData();
+        loadTimer.endPhase("stream");
+
+        // Trim the trailing high states now that the last transition of each channel is known. The element at time 0
+        // is not counted, matching the sequential analysis which trims before inserting it. Readers may be using the
+        // streamed channels, so trimmed copies are published in their place rather than shrinking them.
+        Vector<C1Channel> finished = new Vector<>(channels.size());
+        for(C1Channel c : channels)
+        {
+            int last = c.getStateCount() - 1;
+            finished.add(c.trimmedCopy(c.getState(last) == 1 && last != 1));
+        }
+        channels = finished;
+
+        buildPyramids();
+        loadTimer.endPhase("pyramid");
+
+        reportChannelStorage();
+
+        listener.c1LoadProgress(new C1LoadProgress(file.length(), file.length(), transitionsRead[0], System.nanoTime() - startNanos, true));
+    }
+
+    /**
+     * Stops a streaming load after the segment currently being read
+     */
+    public void cancelLoad()
+    {
+        loadCancelled = true;
+    }
+
+    /**
+     * Returns whether the streaming load has been cancelled
+     *
+     * @return true if cancelLoad has been called
+     */
+    public boolean isLoadCancelled()
+    {
+        return loadCancelled;
+    }
+
+    /**
+     * Appends a segment of transitions to their channels, pairing events as their low states arrive
+     *
+     * @param bucketer used for finding or creating the channel of each transition
+     * @param segment  transitions to append, in file order
+     */
+    private void appendSegment(ChannelBucketer<C1Channel> bucketer, TransitionBuffer segment)
+    {
+        for(int i = 0; i < segment.size(); i++)
+        {
+            C1Channel c = bucketer.getChannel(segment.getKey(i));
+            long time = segment.getMilli(i);
+            int state = segment.getState(i);
+
+            int count = c.getStateCount();
+            if(count == 0)
+            {
+                // Start each channel with an element at time 0 that has the opposite state of its first transition
+                c.addState(0, (state == 0) ? 1 : 0);
+            }
+            else if(state == 0 && count > 1 && c.getState(count - 1) == 1)
+            {
+                // A high state followed by a low state forms an event. The element at time 0 never starts one.
+                c.addC1Event(new C1Event(c.getChip(), c.getPin(), c.getMilli(count - 1), time));
+            }
+
+            c.addState(time, state);
+        }
     }
 
     /**
@@ -164,6 +384,9 @@ public class C1Analyzer
      */
     public void performAnalysis(ResultSet rs)
     {
+        // Start timing the analysis
+        loadTimer = new LoadTimer();
+
         // Initialize the base time to -1.
         long baseTimeValue = -1;
 
@@ -189,7 +412,7 @@ public class C1Analyzer
                     int state = rs.getInt(2);
 
                     //System.out.println("Event Read: " + channel + " " + state);
-                    c1Objects.add(new C1Object(time, state, chip, channel));
+                    addTransition(time, state, chip, channel);
                 }
             }
         }
@@ -198,6 +421,8 @@ public class C1Analyzer
             e.printStackTrace();
         }
 
+        loadTimer.endPhase("parse");
+
         analyzeLoadedData();
     }
 
@@ -206,11 +431,13 @@ public class C1Analyzer
      */
     private void analyzeLoadedData()
     {
-        // Now that we have all the elements extracted, we can create the finalized data structures
-        createChannelArrays();
+        // Assign all of the transitions to individual channels for easier use with the graphing system
+        bucketTransitions();
+        loadTimer.endPhase("bucket");
 
-        // Assign all of the events to individual channels for easier use with the graphing system
+        // Trim the trailing states and pair the high states of each channel into events
         generateChannelData();
+        loadTimer.endPhase("event pairing");
 
         // Insert an element at time 0 that has the opposite state of the first element
         insertStartElement();
@@ -218,6 +445,44 @@ public class C1Analyzer
         // Sort the channel array by channel number
         Collections.sort(channels);
 
+        // Summarize each channel for the overview once its transitions are final
+        buildPyramids();
+        loadTimer.endPhase("pyramid");
+
+        reportChannelStorage();
+    }
+
+    /**
+     * Builds the multi-resolution summary of every channel, all ending at the last transition time of the data so
+     * their buckets line up
+     */
+    private void buildPyramids()
+    {
+        long endTime = getMaxTimeInMillis();
+        long pyramidBytes = 0;
+        for(C1Channel c : channels)
+        {
+            c.buildPyramid(endTime);
+            pyramidBytes += c.getPyramid().getRetainedSize();
+        }
+
+        System.out.println("C1 overview pyramids: " + channels.size() + " channels in " + pyramidBytes + " bytes");
+    }
+
+    /**
+     * Releases the unused capacity of each channel now that loading has finished and prints a summary of the channels
+     */
+    private void reportChannelStorage()
+    {
+        long transitions = 0;
+        long retainedBytes = 0;
+        for(C1Channel c : channels)
+        {
+            c.trimToSize();
+            transitions += c.getStateCount();
+            retainedBytes += c.getRetainedSize();
+        }
+
         // The following only prints out the counts of events for each channel
         System.out.println();
         System.out.println("Total Events By Channel");
@@ -225,73 +490,59 @@ public class C1Analyzer
         // Loop through all of the channels and print out the number of events
         for(C1Channel c : channels)
         {
-            System.out.printf("Chip %d Channel %d: %d events\n", c.getChip(), c.getChannelNumber(), c.getC1Objects().size() / 2);
+            System.out.printf("Chip %d Channel %d: %d events\n", c.getChip(), c.getChannelNumber(), c.getStateCount() / 2);
         }
         System.out.println();
 
-        System.out.println("Finished Generating C1 element records: " + (System.currentTimeMillis() - sTime) + " ms");
+        System.out.printf("C1 channel storage: %d transitions in %d bytes (%.1f bytes/transition)\n",
+                transitions, retainedBytes, transitions > 0 ? (double) retainedBytes / transitions : 0.0);
+
+        System.out.println("Finished Generating C1 element records: " + loadTimer);
         System.out.println("------------------------------------------------------");
     }
 
     /**
-     * Creates the channel arrays an initializes them for use
+     * Adds a transition read from the data source to the transition buffer
+     *
+     * @param time  millisecond value of the transition, relative to the first record
+     * @param state state of the channel after the transition
+     * @param chip  chip associated with the transition
+     * @param pin   pin associated with the transition
      */
-    private void createChannelArrays()
+    private void addTransition(long time, int state, int chip, int pin)
     {
-        // Loop through each event that we found to create the channel data
-        for(C1Object o : c1Objects)
-        {
-            // Create a temporary pin to hold the objects pin number
-            int chip = o.getChip();
-            int pin = o.getPin();
-
-            // Used in determining if we found a valid pin
-            boolean foundChannel = false;
+        transitions.add(time, state, chip, pin);
+    }
 
-            // Loop through all the channel objects we have so far
-            for(C1Channel c : channels)
-            {
-                // If that channel object exists, we change the found flag to true
-                if(c.getPin() == pin && c.getChip() == chip)
-                {
-                    foundChannel = true;
-                    break;
-                }
-            }
+    /**
+     * Adds every buffered transition to its channel's arrays in a single pass, creating each channel the first
+     * time its chip and pin are seen
+     */
+    private void bucketTransitions()
+    {
+        ChannelBucketer<C1Channel> bucketer = new ChannelBucketer<>(C1Channel::new);
 
-            // If the found flag is false, we didn't find that channel anywhere
-            // so we need to add that channel object with the chip and pin it will represent
-            if(!foundChannel)
-            {
-                channels.add(new C1Channel(chip, pin));
-            }
+        for(int i = 0; i < transitions.size(); i++)
+        {
+            bucketer.getChannel(transitions.getKey(i)).addState(transitions.getMilli(i), transitions.getState(i));
         }
+
+        channels = bucketer.getChannels();
+
+        // The raw transitions are no longer needed now that they are stored by channel
+        transitions = new TransitionBuffer();
     }
 
     /**
-     * Adds all of the events to the appropriate channel's event arrays
+     * Removes trailing high states from each channel and pairs the remaining states into events
      */
     private void generateChannelData()
     {
-        // Loop through each C1 event we detected
-        for(C1Object o : c1Objects)
-        {
-            // Loop through each channel we have found
-            for(C1Channel c : channels)
-            {
-                // If the chip and pin parameters match, we can add the event object to the channel's array
-                if(c.getPin() == o.getPin() && c.getChip() == o.getChip())
-                {
-                    c.addC1Object(o);
-                }
-            }
-        }
-
         for(C1Channel c : channels)
         {
-            C1Object lastElement = c.getC1Objects().lastElement();
-            if(lastElement.getState() == 1 && c.getC1Objects().size() != 1)
-                c.getC1Objects().remove(lastElement);
+            int last = c.getStateCount() - 1;
+            if(c.getState(last) == 1 && c.getStateCount() != 1)
+                c.removeLastState();
         }
 
         // Groups C1Objects that form high-state "events" and adds them to their respective channel
@@ -306,14 +557,9 @@ public class C1Analyzer
         // Loop through all of the channel objects
         for(C1Channel c : channels)
         {
-            // Get the Log 170 Object currently at the start
-            C1Object o = c.getC1Objects().elementAt(0);
-
-            // Create  new Log 170 Object at time 0, with the state opposite of the current start element
-            C1Object newObj = new C1Object(0, (o.getState() == 0) ? 1 : 0, o.getChip(), o.getPin());
-
-            // Insert the new element at index 0. This will move all subsequent elements by +1
-            c.getC1Objects().insertElementAt(newObj, 0);
+            // Insert a new state at time 0, with the state opposite of the current start element.
+            // This will move all subsequent elements by +1
+            c.insertState(0, 0, (c.getState(0) == 0) ? 1 : 0);
         }
     }
 
@@ -331,7 +577,6 @@ public class C1Analyzer
      * @param bottom   graph bottom line pixel location
      * @return vector containing line objects to be drawn onto the graph
      */
-    @SuppressWarnings("unchecked")
     public Vector<Line> getGraphLines(int gw, long time, double gSeconds, int chip, int pin, double top, double bottom)
     {
         // This is the number of milliseconds that are being displayed
@@ -352,8 +597,8 @@ public class C1Analyzer
                 boolean isLastData = false;
                 if(c1States.size() > 0)
                 {
-                    int objIndex = c.getC1Objects().indexOf(c1States.firstElement());
-                    isLastData = (objIndex == (c.getC1Objects().size() - 1));
+                    int objIndex = c.getGraphStartIndex();
+                    isLastData = (objIndex == (c.getStateCount() - 1));
                 }
 
                 //If no state data exists, get edge approximation instead so we can draw extended graph line
@@ -368,9 +613,9 @@ public class C1Analyzer
             }
         }
 
+        // createGraphObjects builds a new vector on every call, so it can be handed out without copying it
         if(graphObjectsUpdated)
-            // This cast is safe
-            return (Vector<Line>) graphLines.clone();
+            return graphLines;
         else
             return new Vector<>();
     }
@@ -396,6 +641,10 @@ public class C1Analyzer
         // This gets reassigned as we loop through each of the objects to be drawn.
         long previousTime = max - min;
 
+        // Pixel column of the previous object's transition. Transitions that land in the same column as the one before
+        // them are collapsed into that column's vertical line, so the number of lines is bounded by the graph width.
+        int previousColumn = Integer.MIN_VALUE;
+
         // Loop through all of the objects to be graphed.
         // NOTE: These are listed in reverse order
         for(int i = 0; i < gObjects.size(); i++)
@@ -438,16 +687,25 @@ public class C1Analyzer
             // NOTE: With the java graphics api, point (0, 0) is located in the TOP LEFT of the screen, not bottom Left.
             double horizontal = (o.getState() == 0) ? top : bottom;
 
+            // A transition in the same pixel column as the previous one falls on that column's vertical line, which
+            // already covers its zero-width horizontal line and its own vertical line
+            boolean sameColumn = (int) lineLeftPx == previousColumn;
+
             // Create a new Line object and add it to the array to be return for drawing
-            graphLines.add(new Line((int) lineLeftPx, (int) horizontal, (int) lineRightPx, (int) horizontal));
+            if(!sameColumn || (int) lineLeftPx != (int) lineRightPx)
+            {
+                graphLines.add(new Line((int) lineLeftPx, (int) horizontal, (int) lineRightPx, (int) horizontal));
+            }
 
             // If the current index is not 1 position smaller than the array size, we need to create a vertical line for it
-            if(i != gObjects.size() - 1)
+            if(i != gObjects.size() - 1 && !sameColumn)
             {
                 // Create a new vertical line object and add it to the array
                 graphLines.add(new Line((int) lineLeftPx, (int) bottom, (int) lineLeftPx, (int) top));
             }
 
+            previousColumn = (int) lineLeftPx;
+
             // Re-assign the previous time.
             previousTime = o.getMilli() - min;
         }
@@ -539,6 +797,16 @@ public class C1Analyzer
         }
     }
 
+    /**
+     * Returns the timings of each phase of the last analysis
+     *
+     * @return LoadTimer of the last analysis
+     */
+    public LoadTimer getLoadTimer()
+    {
+        return loadTimer;
+    }
+
     /**
      * Returns an array with all of the channels
      *
@@ -549,6 +817,28 @@ public class C1Analyzer
         return new Vector<>(channels);
     }
 
+    /**
+     * Returns whether a channel is in the high state (inside an event) at the given time, found with a binary search
+     * of the channel's transitions instead of building its graph lines
+     *
+     * @param chip Chip associated with the channel
+     * @param pin  Pin associated with the channel
+     * @param time Time to look up in milliseconds
+     * @return true if the channel is high at the time, false if it is low or there is no such channel
+     */
+    public boolean isChannelHigh(int chip, int pin, long time)
+    {
+        for(C1Channel c : channels)
+        {
+            if(c.getChip() == chip && c.getPin() == pin)
+            {
+                return c.getStateAt(time) == 1;
+            }
+        }
+
+        return false;
+    }
+
     /**
      * Return the maximum time value found from all of the channel elements
      *
@@ -561,13 +851,13 @@ public class C1Analyzer
         // Loop through each channel element
         for(C1Channel c : channels)
         {
-            // Retrieve the last object in the channel's event array
-            C1Object o = c.getC1Objects().lastElement();
+            // Retrieve the time of the last transition in the channel's arrays
+            long lastMilli = c.getMilli(c.getStateCount() - 1);
 
-            // If the Log 170 Object's time is greater than the max found already, then update the max time.
-            if(o.getMilli() > max)
+            // If the transition's time is greater than the max found already, then update the max time.
+            if(lastMilli > max)
             {
-                max = (int) o.getMilli();
+                max = (int) lastMilli;
             }
         }
 
@@ -595,17 +885,17 @@ public class C1Analyzer
             if(c.getChip() == chip && c.getPin() == pin)
             {
                 // We found the correct channel. Now lets get the index and determine its state
-                C1Object o = c.getC1Objects().elementAt(c.getCurrentJumpElementIndex());
+                int currentState = c.getState(c.getCurrentJumpElementIndex());
 
                 // If the object state is the same as we are looking for, then we need to jump back by two states
                 // Otherwise we only need to jump back by one position
-                if(o.getState() == state)
+                if(currentState == state)
                 {
-                    time = c.getC1Objects().elementAt(c.getCurrentJumpElementIndex() + 2).getMilli();
+                    time = c.getMilli(c.getCurrentJumpElementIndex() + 2);
                 }
                 else
                 {
-                    time = c.getC1Objects().elementAt(c.getCurrentJumpElementIndex() + 1).getMilli();
+                    time = c.getMilli(c.getCurrentJumpElementIndex() + 1);
                 }
 
                 // Since we found an event, then we can break out of the loop as there is no reason to continue searching.
@@ -637,11 +927,11 @@ public class C1Analyzer
             {
                 int index;
                 // We found the correct channel. Now lets get the index and determine its state
-                C1Object o = c.getC1Objects().elementAt(c.getCurrentJumpElementIndex());
+                int currentState = c.getState(c.getCurrentJumpElementIndex());
 
                 // If the object state is the same as we are looking for, then we need to jump back by two states
                 // Otherwise we only need to jump back by one position
-                if(o.getState() == state)
+                if(currentState == state)
                 {
                     index = c.getCurrentJumpElementIndex() - 2;
                 }
@@ -655,7 +945,7 @@ public class C1Analyzer
                     index = 1;
                 }
 
-                time = c.getC1Objects().elementAt(index).getMilli();
+                time = c.getMilli(index);
 
                 // Since we found an event, then we can break out of the loop as there is no reason to continue searching.
                 break;
@@ -666,6 +956,77 @@ public class C1Analyzer
         return time;
     }
 
+    /**
+     * Reads the C1 file line by line through a BufferedReader
+     *
+     * @param file File object to read C1 data from
+     */
+    private void readC1Buffered(File file)
+    {
+        // Surround everything in a try/catch block for catching any errors with reading the file
+        try
+        {
+            // Create a buffered reader to read the contents of the C1 File
+            //@SuppressWarnings("resource")
+            BufferedReader fileReader = new BufferedReader(new FileReader(file.getPath()));
+
+            //Read initial line to get header information ignoring any lines without a non-whitespace character
+            String line;
+            do
+            {
+                line = fileReader.readLine().trim();
+            }
+            while(line.isEmpty());
+
+            //Load the first line to be parsed
+            switch(detectFormat(line))
+            {
+                case DATABASE:
+                    readC1Database(fileReader);
+                    break;
+                case RAW_HEADER:
+                    readC1Raw(fileReader, null);
+                    break;
+                case RAW_STATES:
+                    readC1Raw(fileReader, line);
+                    break;
+                default:
+                    System.out.println("Unknown C1 file format.");
+            }
+            fileReader.close();
+        }
+        catch(IOException e)
+        {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Reads the C1 file through the memory-mapped parser
+     *
+     * @param file File object to read C1 data from
+     */
+    private void readC1Mapped(File file)
+    {
+        try
+        {
+            C1MappedParser parser = new C1MappedParser();
+            parser.setParallel(useParallelParser);
+            transitions = parser.parse(file);
+
+            if(parser.getFormat() == C1Format.UNKNOWN)
+                System.out.println("Unknown C1 file format.");
+            if(parser.getChunkCount() > 1)
+                System.out.println("Parsed C1 file in " + parser.getChunkCount() + " parallel chunks.");
+            if(parser.getSkippedLines() > 0)
+                System.out.println("Skipped " + parser.getSkippedLines() + " malformed C1 lines.");
+        }
+        catch(IOException e)
+        {
+            e.printStackTrace();
+        }
+    }
+
     //TODO: This method needs to be refactored or deleted. The channel assignment is not consistent with the channel assignment of the readC1Raw method. This method hardly gets used so deletion may be considered...
     private void readC1Database(BufferedReader fileReader)
     {
@@ -695,7 +1056,7 @@ public class C1Analyzer
                 int pin = Integer.parseInt(line.split(separator)[3]);
                 int state = Integer.parseInt(line.split(separator)[4]);
                 //System.out.println("Event Read: " + channel + " " + state);
-                c1Objects.add(new C1Object(time, state, chip, pin));
+                addTransition(time, state, chip, pin);
                 line = fileReader.readLine();
             }
         }
@@ -734,7 +1095,7 @@ public class C1Analyzer
                     int pin = Integer.parseInt(line.split(" ")[1]);
                     int state = Integer.parseInt(line.split(" ")[2]);
                     //System.out.println("Event Read: " + channel + " " + state);
-                    c1Objects.add(new C1Object(time, state, chip, pin));
+                    addTransition(time, state, chip, pin);
                 }
                 line = fileReader.readLine();
             }
@@ -749,21 +1110,19 @@ public class C1Analyzer
     {
         for(C1Channel c : channels)
         {
-            Vector<C1Object> objs = c.getC1Objects();
+            int count = c.getStateCount();
 
-            for(int x = 0; x < objs.size(); )
+            for(int x = 0; x < count; )
             {
-                C1Object tmp = objs.get(x);
-                if(tmp.getState() == 0)
+                if(c.getState(x) == 0 || x + 1 == count)
                 {
                     x += 1;
                 }
                 else
                 {
-                    C1Object tmp2 = objs.get(x+1);
-                    if(tmp2.getState() == 0)
+                    if(c.getState(x + 1) == 0)
                     {
-                        c.addC1Event(new C1Event(tmp.getChip(), tmp.getPin(), tmp, tmp2));
+                        c.addC1Event(new C1Event(c.getChip(), c.getPin(), c.getMilli(x), c.getMilli(x + 1)));
                         x += 2;
                     }
                     else
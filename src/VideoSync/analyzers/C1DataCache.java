@@ -0,0 +1,358 @@
+package VideoSync.analyzers;
+
+import VideoSync.objects.c1.C1Channel;
+import VideoSync.objects.c1.C1Event;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Vector;
+import java.util.zip.CRC32;
+
+/**
+ * Binary sidecar holding the analyzed channels of a C1 file, so a project can be reopened without parsing and
+ * analyzing the text file again. The cache is written next to the C1 file and is only used while the size,
+ * modification time and a hash of the start and end of the C1 file still match the values recorded in it.
+ * <p>
+ * Layout (big-endian): magic, version, source size, source modification time, source hash, channel count, then for
+ * each channel its chip, pin, transition count, transition times, transition states, event count and the start and
+ * end time of each event, followed by an end marker.
+ */
+public class C1DataCache
+{
+    /**
+     * Extension appended to the name of the C1 file to get the name of its cache
+     */
+    public static final String EXTENSION = ".c1cache";
+
+    /**
+     * Marks the start of a cache file ("C1CD")
+     */
+    private static final int MAGIC = 0x43314344;
+
+    /**
+     * Marks the end of a complete cache file, so a truncated cache is rejected
+     */
+    private static final int END_MARKER = 0x454E4443;
+
+    /**
+     * Version of the cache layout and of the analysis it stores. Must be increased whenever either changes so that
+     * caches written by older versions are rebuilt.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Number of bytes at each end of the C1 file that are hashed when validating the cache
+     */
+    private static final int HASH_SAMPLE_SIZE = 64 * 1024;
+
+    /**
+     * Size of the magic, version, source size, source modification time, source hash and channel count
+     */
+    private static final int HEADER_SIZE = 36;
+
+    /**
+     * Size of the buffer the channels are read through
+     */
+    private static final int READ_BUFFER_SIZE = 1 << 20;
+
+    /**
+     * C1 file the cache belongs to
+     */
+    private final File sourceFile;
+
+    /**
+     * Cache file stored next to the C1 file
+     */
+    private final File cacheFile;
+
+    /**
+     * Constructs the cache for the given C1 file
+     *
+     * @param sourceFile C1 file the cache belongs to
+     */
+    public C1DataCache(File sourceFile)
+    {
+        this.sourceFile = sourceFile;
+        this.cacheFile = new File(sourceFile.getPath() + EXTENSION);
+    }
+
+    /**
+     * Returns the cache file stored next to the C1 file
+     *
+     * @return cache file
+     */
+    public File getCacheFile()
+    {
+        return cacheFile;
+    }
+
+    /**
+     * Reads the analyzed channels from the cache
+     *
+     * @return channels stored in the cache, or null if there is no cache or it does not match the C1 file
+     */
+    public Vector<C1Channel> read()
+    {
+        if(!cacheFile.isFile())
+            return null;
+
+        // The cache is read rather than mapped: a mapping can't exceed 2 GB, which the cache of a large C1 file can,
+        // and a file that is still mapped can't be replaced on Windows when a stale cache is rebuilt
+        try(FileChannel fileChannel = FileChannel.open(cacheFile.toPath(), StandardOpenOption.READ))
+        {
+            // Validate the header before reading any of the channels
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while(header.hasRemaining())
+            {
+                if(fileChannel.read(header, header.position()) < 0)
+                    return null;
+            }
+            header.flip();
+
+            if(header.getInt() != MAGIC || header.getInt() != VERSION)
+                return null;
+
+            if(header.getLong() != sourceFile.length() || header.getLong() != sourceFile.lastModified() || header.getLong() != hashSource())
+                return null;
+
+            int channelCount = header.getInt();
+            CacheReader reader = new CacheReader(fileChannel, HEADER_SIZE);
+            Vector<C1Channel> channels = new Vector<>(Math.max(channelCount, 0));
+            for(int c = 0; c < channelCount; c++)
+            {
+                int chip = reader.getInt();
+                int pin = reader.getInt();
+
+                // Check the count against what is left so a corrupt cache cannot request a huge array
+                int stateCount = reader.getInt();
+                if(stateCount < 0 || stateCount > reader.remaining() / 9)
+                    return null;
+
+                long[] millis = new long[stateCount];
+                reader.getLongs(millis);
+
+                byte[] states = new byte[stateCount];
+                reader.getBytes(states);
+
+                C1Channel channel = new C1Channel(chip, pin);
+                channel.setStates(millis, states);
+
+                int eventCount = reader.getInt();
+                if(eventCount < 0 || eventCount > reader.remaining() / 16)
+                    return null;
+
+                for(int e = 0; e < eventCount; e++)
+                {
+                    long startTime = reader.getLong();
+                    long endTime = reader.getLong();
+                    channel.addC1Event(new C1Event(chip, pin, startTime, endTime));
+                }
+
+                channels.add(channel);
+            }
+
+            if(reader.getInt() != END_MARKER)
+                return null;
+
+            return channels;
+        }
+        catch(IOException | RuntimeException e)
+        {
+            System.out.println("Ignoring unreadable C1 cache " + cacheFile.getName() + ": " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the analyzed channels to the cache, replacing any existing cache. The cache is written to a temporary
+     * file first so an interrupted write never leaves a partial cache behind.
+     *
+     * @param channels analyzed channels of the C1 file
+     */
+    public void write(Vector<C1Channel> channels)
+    {
+        File tempFile = new File(cacheFile.getPath() + ".tmp");
+        try
+        {
+            try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile), 1 << 16)))
+            {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(sourceFile.length());
+                out.writeLong(sourceFile.lastModified());
+                out.writeLong(hashSource());
+
+                out.writeInt(channels.size());
+                for(C1Channel channel : channels)
+                {
+                    out.writeInt(channel.getChip());
+                    out.writeInt(channel.getPin());
+
+                    int stateCount = channel.getStateCount();
+                    out.writeInt(stateCount);
+                    for(int i = 0; i < stateCount; i++)
+                        out.writeLong(channel.getMilli(i));
+                    for(int i = 0; i < stateCount; i++)
+                        out.writeByte(channel.getState(i));
+
+                    int eventCount = channel.getEventCount();
+                    out.writeInt(eventCount);
+                    for(int i = 0; i < eventCount; i++)
+                    {
+                        C1Event event = channel.getEvent(i);
+                        out.writeLong(event.getStartTime());
+                        out.writeLong(event.getEndTime());
+                    }
+                }
+
+                out.writeInt(END_MARKER);
+            }
+
+            try
+            {
+                Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch(AtomicMoveNotSupportedException e)
+            {
+                Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        catch(IOException e)
+        {
+            // The cache is only an optimization, so the project still opens without it
+            System.out.println("Unable to write C1 cache " + cacheFile.getName() + ": " + e);
+            tempFile.delete();
+        }
+    }
+
+    /**
+     * Hashes the first and last bytes of the C1 file. Together with the size and modification time this detects a
+     * replaced or edited file without reading all of it.
+     *
+     * @return CRC32 of the start and end of the C1 file
+     * @throws IOException if the C1 file cannot be read
+     */
+    private long hashSource() throws IOException
+    {
+        CRC32 crc = new CRC32();
+        try(FileChannel fileChannel = FileChannel.open(sourceFile.toPath(), StandardOpenOption.READ))
+        {
+            long size = fileChannel.size();
+            ByteBuffer buffer = ByteBuffer.allocate(HASH_SAMPLE_SIZE);
+
+            fileChannel.read(buffer, 0);
+            buffer.flip();
+            crc.update(buffer);
+
+            if(size > HASH_SAMPLE_SIZE)
+            {
+                buffer.clear();
+                fileChannel.read(buffer, Math.max(HASH_SAMPLE_SIZE, size - HASH_SAMPLE_SIZE));
+                buffer.flip();
+                crc.update(buffer);
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Reads the channels of a cache sequentially through a fixed size buffer, copying the transition arrays in bulk
+     */
+    private static class CacheReader
+    {
+        private final FileChannel fileChannel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+
+        /**
+         * Offset in the file of the next byte to read into the buffer
+         */
+        private long filePosition;
+
+        CacheReader(FileChannel fileChannel, long filePosition)
+        {
+            this.fileChannel = fileChannel;
+            this.filePosition = filePosition;
+            buffer.limit(0);
+        }
+
+        /**
+         * Returns the number of bytes of the cache that have not been read yet
+         *
+         * @return bytes left in the buffer and the file
+         * @throws IOException if the size of the file cannot be read
+         */
+        long remaining() throws IOException
+        {
+            return buffer.remaining() + fileChannel.size() - filePosition;
+        }
+
+        int getInt() throws IOException
+        {
+            require(4);
+            return buffer.getInt();
+        }
+
+        long getLong() throws IOException
+        {
+            require(8);
+            return buffer.getLong();
+        }
+
+        void getLongs(long[] values) throws IOException
+        {
+            int offset = 0;
+            while(offset < values.length)
+            {
+                require(8);
+                int count = Math.min(buffer.remaining() / 8, values.length - offset);
+                buffer.asLongBuffer().get(values, offset, count);
+                buffer.position(buffer.position() + 8 * count);
+                offset += count;
+            }
+        }
+
+        void getBytes(byte[] values) throws IOException
+        {
+            int offset = 0;
+            while(offset < values.length)
+            {
+                require(1);
+                int count = Math.min(buffer.remaining(), values.length - offset);
+                buffer.get(values, offset, count);
+                offset += count;
+            }
+        }
+
+        /**
+         * Refills the buffer from the file until at least the given number of bytes can be read from it
+         *
+         * @param bytes number of bytes needed
+         * @throws IOException if the file ends first
+         */
+        private void require(int bytes) throws IOException
+        {
+            if(buffer.remaining() >= bytes)
+                return;
+
+            buffer.compact();
+            while(buffer.position() < bytes)
+            {
+                int read = fileChannel.read(buffer, filePosition);
+                if(read < 0)
+                    throw new EOFException("Truncated cache");
+                filePosition += read;
+            }
+            buffer.flip();
+        }
+    }
+}
@@ -4,6 +4,7 @@ import VideoSync.models.DataModelProxy;
 import VideoSync.objects.Pair;
 import VideoSync.objects.c1.C1Channel;
 import VideoSync.objects.c1.C1Event;
+import VideoSync.objects.c1.C1EventIndex;
 import VideoSync.objects.c1.C1Group;
 import VideoSync.objects.c1.C1GroupIdentifier;
 import VideoSync.views.modals.c1_viewer.C1Viewer;
@@ -1245,21 +1246,27 @@ public class C1DataCollector implements Serializable
             int refPin = rel.referenceChipPin.y;
 
             C1Channel observedChannel = getCorrespondingChannel(c1Viewer.getObservedEventChannels(), obsChip, obsPin);
-            if(observedChannel != null)
+            C1Channel referenceChannel = getCorrespondingChannel(c1Viewer.getReferenceEventChannels(), refChip, refPin);
+            if(observedChannel != null && referenceChannel != null)
             {
                 Vector<C1Event> observedC1Events = observedChannel.getEvents(Long.MIN_VALUE, Long.MAX_VALUE);
                 Collections.sort(observedC1Events);
-                for(C1Event observedEvent : observedC1Events)
+
+                // Index the reference events once for the whole relationship rather than fetching and sorting them
+                // again for every grouped event
+                C1EventIndex referenceIndex = new C1EventIndex(referenceChannel.getEvents(Long.MIN_VALUE, Long.MAX_VALUE));
+
+                // The first and last events have no previous or next event for the features, so they are skipped
+                for(int idxObserved = 1; idxObserved < observedC1Events.size() - 1; idxObserved++)
                 {
+                    C1Event observedEvent = observedC1Events.get(idxObserved);
+
                     // Skip all events except those in groups
                     if(isEventInGroup(observedEvent, rel))
                     {
-                        // Get the event's index and nearby events for the previous and next features
-                        int idxObserved = observedC1Events.indexOf(observedEvent);
-                        C1Event previousObservedEvent = (idxObserved != 0) ? observedC1Events.get(idxObserved - 1) : null;
-                        C1Event nextObservedEvent = (idxObserved != observedC1Events.size() - 1) ? observedC1Events.get(idxObserved + 1) : null;
-                        if(previousObservedEvent == null || nextObservedEvent == null)
-                            continue;
+                        // Get nearby events for the previous and next features
+                        C1Event previousObservedEvent = observedC1Events.get(idxObserved - 1);
+                        C1Event nextObservedEvent = observedC1Events.get(idxObserved + 1);
 
                         // Here we need to fetch n/2 events before the first reference group event and n/2 events after
                         // the last reference group event and add it together into a sorted list including the
@@ -1273,23 +1280,22 @@ public class C1DataCollector implements Serializable
                             long firstTime = referenceGroupEvents.get(0).getStartTime();
                             long lastTime = referenceGroupEvents.get(referenceGroupEvents.size() - 1).getEndTime();
 
-                            C1Channel referenceChannel = getCorrespondingChannel(c1Viewer.getReferenceEventChannels(), refChip, refPin);
-                            Vector<C1Event> allPreviousReferenceEvents = referenceChannel.getEvents(Long.MIN_VALUE, firstTime - 1);
-                            Vector<C1Event> allNextReferenceEvents = referenceChannel.getEvents(lastTime + 1, Long.MAX_VALUE);
-                            Collections.sort(allPreviousReferenceEvents);
-                            Collections.sort(allNextReferenceEvents);
-
+                            // Only n/2 events either side of the group are compared, so one more either side is
+                            // enough to give each of them its previous and next event
                             int num = n / 2;
+                            List<C1Event> previousReferenceEvents = referenceIndex.getEventsBefore(firstTime, num + 1);
+                            List<C1Event> nextReferenceEvents = referenceIndex.getEventsAfter(lastTime, num + 1);
+
                             Vector<C1Event> referenceEventsSubset = new Vector<>();
-                            referenceEventsSubset.addAll(allPreviousReferenceEvents.subList(Math.max(allPreviousReferenceEvents.size() - num, 0), allPreviousReferenceEvents.size()));
+                            referenceEventsSubset.addAll(previousReferenceEvents.subList(Math.max(previousReferenceEvents.size() - num, 0), previousReferenceEvents.size()));
                             referenceEventsSubset.addAll(referenceGroupEvents);
-                            referenceEventsSubset.addAll(allNextReferenceEvents.subList(0, Math.min(num, allNextReferenceEvents.size())));
+                            referenceEventsSubset.addAll(nextReferenceEvents.subList(0, Math.min(num, nextReferenceEvents.size())));
                             Collections.sort(referenceEventsSubset);
 
                             Vector<C1Event> referenceC1Events = new Vector<>();
-                            referenceC1Events.addAll(allPreviousReferenceEvents);
+                            referenceC1Events.addAll(previousReferenceEvents);
                             referenceC1Events.addAll(referenceGroupEvents);
-                            referenceC1Events.addAll(allNextReferenceEvents);
+                            referenceC1Events.addAll(nextReferenceEvents);
                             Collections.sort(referenceC1Events);
 
                             for(C1Event referenceEvent : referenceEventsSubset)
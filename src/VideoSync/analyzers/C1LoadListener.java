@@ -0,0 +1,14 @@
+package VideoSync.analyzers;
+
+/**
+ * Receives progress updates from a streaming C1 load. Called on the thread performing the load.
+ */
+public interface C1LoadListener
+{
+    /**
+     * Called after each segment of the file has been added to the channels, and once more when the load finishes
+     *
+     * @param progress progress of the load
+     */
+    void c1LoadProgress(C1LoadProgress progress);
+}
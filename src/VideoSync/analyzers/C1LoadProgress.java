@@ -0,0 +1,88 @@
+package VideoSync.analyzers;
+
+/**
+ * Snapshot of how far a streaming C1 load has progressed, including its read rates
+ */
+public class C1LoadProgress
+{
+    private final long bytesRead;
+    private final long totalBytes;
+    private final long transitionsRead;
+    private final long elapsedNanos;
+    private final boolean finished;
+
+    /**
+     * Constructs a progress snapshot
+     *
+     * @param bytesRead       number of bytes of the file read so far
+     * @param totalBytes      size of the file in bytes
+     * @param transitionsRead number of transitions read so far
+     * @param elapsedNanos    time since the load started in nanoseconds
+     * @param finished        true if the load has finished
+     */
+    public C1LoadProgress(long bytesRead, long totalBytes, long transitionsRead, long elapsedNanos, boolean finished)
+    {
+        this.bytesRead = bytesRead;
+        this.totalBytes = totalBytes;
+        this.transitionsRead = transitionsRead;
+        this.elapsedNanos = elapsedNanos;
+        this.finished = finished;
+    }
+
+    public long getBytesRead()
+    {
+        return bytesRead;
+    }
+
+    public long getTotalBytes()
+    {
+        return totalBytes;
+    }
+
+    public long getTransitionsRead()
+    {
+        return transitionsRead;
+    }
+
+    public boolean isFinished()
+    {
+        return finished;
+    }
+
+    /**
+     * Returns the fraction of the file read so far
+     *
+     * @return value from 0 to 1
+     */
+    public double getFraction()
+    {
+        return totalBytes > 0 ? Math.min(1.0, (double) bytesRead / totalBytes) : 1.0;
+    }
+
+    /**
+     * Returns the average read rate of the load so far
+     *
+     * @return bytes read per second
+     */
+    public double getBytesPerSecond()
+    {
+        return elapsedNanos > 0 ? bytesRead * 1e9 / elapsedNanos : 0.0;
+    }
+
+    /**
+     * Returns the average rate transitions have been read so far
+     *
+     * @return transitions read per second
+     */
+    public double getTransitionsPerSecond()
+    {
+        return elapsedNanos > 0 ? transitionsRead * 1e9 / elapsedNanos : 0.0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s C1 data: %.0f%% (%.1f MB/s, %.2fM transitions/s)", finished ? "Loaded" : "Loading",
+                getFraction() * 100, getBytesPerSecond() / (1024 * 1024), getTransitionsPerSecond() / 1e6);
+    }
+}
@@ -0,0 +1,720 @@
+package VideoSync.analyzers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Reads C1 transitions straight from a memory-mapped file, decoding the chip, pin, state and timestamp of each line
+ * from its bytes without creating a String per line or per field. Handles the same three formats as the
+ * BufferedReader path in C1Analyzer: raw files with a "Pi" header, raw files of bare state lines, and database CSV
+ * exports.
+ * <p>
+ * The data lines are split into line-aligned byte ranges that are decoded independently, in parallel on the common
+ * fork/join pool unless parallel parsing is turned off. The ranges are merged back in file order and the base time is
+ * applied after the merge, so the result is identical to reading the file sequentially.
+ */
+public class C1MappedParser
+{
+    /**
+     * Largest byte range that is decoded as one chunk. Ranges are extended to the end of their last line, so this
+     * leaves room below the 2 GB mapping limit.
+     */
+    private static final int MAX_CHUNK_SIZE = 1 << 29;
+
+    /**
+     * Smallest byte range worth handing to another thread
+     */
+    private static final int MIN_CHUNK_SIZE = 1 << 23;
+
+    /**
+     * Average number of bytes in a C1 line, used for sizing the buffer of each chunk up front
+     */
+    private static final int ESTIMATED_LINE_LENGTH = 20;
+
+    /**
+     * Size of the segments handed to the segment handler when a file is streamed
+     */
+    private static final int STREAM_SEGMENT_SIZE = 1 << 23;
+
+    /**
+     * Receives the segments of a file as it is streamed
+     */
+    public interface SegmentHandler
+    {
+        /**
+         * Called with each segment of the file in file order
+         *
+         * @param transitions transitions in the segment, with times relative to the first transition in the file
+         * @param bytesRead   number of bytes of the file read so far
+         * @param totalBytes  size of the file in bytes
+         * @return true to keep reading, false to stop
+         */
+        boolean segmentParsed(TransitionBuffer transitions, long bytesRead, long totalBytes);
+    }
+
+    /**
+     * Used for selecting whether the chunks are decoded in parallel
+     */
+    private boolean parallel = true;
+
+    /**
+     * Format detected from the first non-blank line of the file
+     */
+    private C1Analyzer.C1Format format = C1Analyzer.C1Format.UNKNOWN;
+
+    /**
+     * Number of lines that could not be decoded and were skipped
+     */
+    private int skippedLines;
+
+    /**
+     * Number of chunks the data lines were split into
+     */
+    private int chunkCount;
+
+    /**
+     * Selects whether the file is decoded in parallel across the cores of the machine
+     *
+     * @param parallel true to decode the chunks of the file in parallel
+     */
+    public void setParallel(boolean parallel)
+    {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Returns the format detected in the last parsed file
+     *
+     * @return detected C1 file format
+     */
+    public C1Analyzer.C1Format getFormat()
+    {
+        return format;
+    }
+
+    /**
+     * Returns the number of lines that were skipped because they could not be decoded
+     *
+     * @return number of skipped lines
+     */
+    public int getSkippedLines()
+    {
+        return skippedLines;
+    }
+
+    /**
+     * Returns the number of chunks the data lines of the last parsed file were split into
+     *
+     * @return number of chunks
+     */
+    public int getChunkCount()
+    {
+        return chunkCount;
+    }
+
+    /**
+     * Reads every transition from the given file, with times relative to the first transition in the file
+     *
+     * @param file C1 file to read
+     * @return buffer containing the transitions in file order
+     * @throws IOException if the file cannot be mapped or contains a line longer than the chunk size
+     */
+    public TransitionBuffer parse(File file) throws IOException
+    {
+        try(FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            long fileSize = fileChannel.size();
+
+            long dataStart = readHeader(fileChannel, fileSize);
+            if(format == C1Analyzer.C1Format.UNKNOWN)
+                return new TransitionBuffer();
+
+            long[] boundaries = findChunkBoundaries(fileChannel, dataStart, fileSize, getParseChunkCount(fileSize - dataStart));
+            chunkCount = boundaries.length - 1;
+
+            ChunkReader[] chunks = new ChunkReader[chunkCount];
+            for(int i = 0; i < chunkCount; i++)
+                chunks[i] = new ChunkReader(fileChannel, boundaries[i], boundaries[i + 1], format);
+
+            readChunks(chunks);
+
+            return mergeChunks(chunks);
+        }
+    }
+
+    /**
+     * Reads the file as a series of time-ordered segments, handing each one to the handler as soon as it and every
+     * segment before it have been read. Times are relative to the first transition in the file, as with parse. When
+     * parallel parsing is on, a batch of segments is decoded at once and then handed over in file order.
+     *
+     * @param file    C1 file to read
+     * @param handler receives each segment in file order
+     * @throws IOException if the file cannot be mapped or contains a line longer than the chunk size
+     */
+    public void parseSegments(File file, SegmentHandler handler) throws IOException
+    {
+        try(FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            long fileSize = fileChannel.size();
+
+            long dataStart = readHeader(fileChannel, fileSize);
+            if(format == C1Analyzer.C1Format.UNKNOWN)
+                return;
+
+            long dataSize = fileSize - dataStart;
+            int segmentCount = (int) Math.max(1, (dataSize + STREAM_SEGMENT_SIZE - 1) / STREAM_SEGMENT_SIZE);
+            long[] boundaries = findChunkBoundaries(fileChannel, dataStart, fileSize, segmentCount);
+            chunkCount = boundaries.length - 1;
+
+            int batchSize = parallel ? Math.max(1, ForkJoinPool.getCommonPoolParallelism()) : 1;
+            long baseTimeValue = 0;
+            boolean baseFound = false;
+            for(int first = 0; first < chunkCount; first += batchSize)
+            {
+                ChunkReader[] batch = new ChunkReader[Math.min(batchSize, chunkCount - first)];
+                for(int i = 0; i < batch.length; i++)
+                    batch[i] = new ChunkReader(fileChannel, boundaries[first + i], boundaries[first + i + 1], format);
+
+                readChunks(batch);
+
+                for(ChunkReader segment : batch)
+                {
+                    skippedLines += segment.skippedLines;
+
+                    // The first record of the file is used as time 0, making the time values small and more manageable
+                    if(!baseFound && segment.transitions.size() > 0)
+                    {
+                        baseTimeValue = segment.transitions.getMilli(0);
+                        baseFound = true;
+                    }
+                    segment.transitions.shiftTimes(-baseTimeValue);
+
+                    if(!handler.segmentParsed(segment.transitions, segment.end, fileSize))
+                        return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the given chunks, in parallel on the common fork/join pool if parallel parsing is on
+     *
+     * @param chunks chunks to read
+     * @throws IOException if a chunk cannot be mapped
+     */
+    private void readChunks(ChunkReader[] chunks) throws IOException
+    {
+        if(parallel && chunks.length > 1)
+        {
+            try
+            {
+                ForkJoinPool.commonPool().invoke(new ChunkReadAction(chunks, 0, chunks.length));
+            }
+            catch(UncheckedIOException e)
+            {
+                throw e.getCause();
+            }
+        }
+        else
+        {
+            for(ChunkReader chunk : chunks)
+                chunk.read();
+        }
+    }
+
+    /**
+     * Detects the format of the file from its first non-blank line
+     *
+     * @param fileChannel channel of the file being read
+     * @param fileSize    size of the file in bytes
+     * @return position of the first data line
+     * @throws IOException if the file cannot be mapped
+     */
+    private long readHeader(FileChannel fileChannel, long fileSize) throws IOException
+    {
+        int windowSize = (int) Math.min(MAX_CHUNK_SIZE, fileSize);
+        MappedByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, windowSize);
+
+        int lineStart = 0;
+        while(lineStart < windowSize)
+        {
+            int lineEnd = findLineEnd(buffer, lineStart, windowSize);
+            if(!isBlank(buffer, lineStart, lineEnd))
+            {
+                // Only the first line is decoded into a String so the format is detected exactly as the
+                // BufferedReader path detects it
+                format = C1Analyzer.detectFormat(decodeLine(buffer, lineStart, lineEnd).trim());
+
+                // Bare state files have no header, so their first line is also the first data line
+                return format == C1Analyzer.C1Format.RAW_STATES ? lineStart : lineEnd;
+            }
+            lineStart = lineEnd + 1;
+        }
+
+        format = C1Analyzer.C1Format.UNKNOWN;
+        return fileSize;
+    }
+
+    /**
+     * Returns the number of chunks to split the data lines into when parsing the whole file at once
+     *
+     * @param dataSize number of bytes of data lines
+     * @return number of chunks
+     */
+    private int getParseChunkCount(long dataSize)
+    {
+        int count = (int) ((dataSize + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE);
+        if(parallel)
+        {
+            long useful = (dataSize + MIN_CHUNK_SIZE - 1) / MIN_CHUNK_SIZE;
+            count = (int) Math.max(count, Math.min(useful, ForkJoinPool.getCommonPoolParallelism() * 4L));
+        }
+        return Math.max(count, 1);
+    }
+
+    /**
+     * Splits the data lines of the file into byte ranges that each start at the beginning of a line
+     *
+     * @param fileChannel channel of the file being read
+     * @param dataStart   position of the first data line
+     * @param fileSize    size of the file in bytes
+     * @param count       number of ranges to aim for
+     * @return start of each range followed by the end of the last range
+     * @throws IOException if the file cannot be read
+     */
+    private static long[] findChunkBoundaries(FileChannel fileChannel, long dataStart, long fileSize, int count) throws IOException
+    {
+        long dataSize = fileSize - dataStart;
+
+        long[] boundaries = new long[count + 1];
+        int found = 1;
+        boundaries[0] = dataStart;
+        for(int i = 1; i < count; i++)
+        {
+            long boundary = findLineStart(fileChannel, dataStart + dataSize * i / count, fileSize);
+
+            // A long line can swallow a whole range, leaving nothing for the next one
+            if(boundary > boundaries[found - 1] && boundary < fileSize)
+                boundaries[found++] = boundary;
+        }
+        boundaries[found++] = fileSize;
+
+        for(int i = 1; i < found; i++)
+        {
+            if(boundaries[i] - boundaries[i - 1] > Integer.MAX_VALUE)
+                throw new IOException("C1 line longer than " + Integer.MAX_VALUE + " bytes");
+        }
+
+        long[] result = new long[found];
+        System.arraycopy(boundaries, 0, result, 0, found);
+        return result;
+    }
+
+    /**
+     * Finds the start of the first line that begins at or after the given position
+     *
+     * @param fileChannel channel of the file being read
+     * @param position    position to start searching from
+     * @param fileSize    size of the file in bytes
+     * @return position of the start of the line, or the file size if no line starts after the position
+     * @throws IOException if the file cannot be read
+     */
+    private static long findLineStart(FileChannel fileChannel, long position, long fileSize) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+        // A line starts at the position if the byte before it ends a line
+        long searchPosition = position - 1;
+        while(searchPosition < fileSize)
+        {
+            buffer.clear();
+            int read = fileChannel.read(buffer, searchPosition);
+            if(read <= 0)
+                break;
+
+            for(int i = 0; i < read; i++)
+            {
+                byte b = buffer.get(i);
+                if(b == '\n' || b == '\r')
+                    return searchPosition + i + 1;
+            }
+            searchPosition += read;
+        }
+        return fileSize;
+    }
+
+    /**
+     * Merges the transitions of every chunk in file order, making each time relative to the first transition
+     *
+     * @param chunks chunks that have been read
+     * @return buffer containing every transition of the file
+     */
+    private TransitionBuffer mergeChunks(ChunkReader[] chunks)
+    {
+        long baseTimeValue = 0;
+        int total = 0;
+        boolean baseFound = false;
+        for(ChunkReader chunk : chunks)
+        {
+            skippedLines += chunk.skippedLines;
+            total += chunk.transitions.size();
+
+            // The first record of the file is used as time 0, making the time values small and more manageable
+            if(!baseFound && chunk.transitions.size() > 0)
+            {
+                baseTimeValue = chunk.transitions.getMilli(0);
+                baseFound = true;
+            }
+        }
+
+        if(chunks.length == 1)
+        {
+            chunks[0].transitions.shiftTimes(-baseTimeValue);
+            return chunks[0].transitions;
+        }
+
+        TransitionBuffer merged = new TransitionBuffer(total);
+        for(ChunkReader chunk : chunks)
+        {
+            merged.addAll(chunk.transitions, -baseTimeValue);
+
+            // Release each chunk as soon as it has been copied
+            chunk.transitions = null;
+        }
+        return merged;
+    }
+
+    /**
+     * Finds the end of the line starting at the given index
+     *
+     * @param buffer    mapped range containing the line
+     * @param lineStart index of the first byte of the line
+     * @param limit     index one past the last byte of the range
+     * @return index of the line terminator, or the limit if the range ends first
+     */
+    private static int findLineEnd(ByteBuffer buffer, int lineStart, int limit)
+    {
+        int lineEnd = lineStart;
+        while(lineEnd < limit)
+        {
+            byte b = buffer.get(lineEnd);
+            if(b == '\n' || b == '\r')
+                break;
+            lineEnd++;
+        }
+        return lineEnd;
+    }
+
+    /**
+     * Checks whether a byte is whitespace in the sense of String.trim
+     *
+     * @param b byte to check
+     * @return true if the byte is a control character or space
+     */
+    private static boolean isWhitespace(byte b)
+    {
+        return (b & 0xFF) <= ' ';
+    }
+
+    /**
+     * Checks whether a line contains only whitespace
+     *
+     * @param buffer    mapped range containing the line
+     * @param lineStart index of the first byte of the line
+     * @param lineEnd   index one past the last byte of the line
+     * @return true if the line has no non-whitespace bytes
+     */
+    private static boolean isBlank(ByteBuffer buffer, int lineStart, int lineEnd)
+    {
+        for(int i = lineStart; i < lineEnd; i++)
+        {
+            if(!isWhitespace(buffer.get(i)))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Decodes a single line of the file into a String
+     *
+     * @param buffer    mapped range containing the line
+     * @param lineStart index of the first byte of the line
+     * @param lineEnd   index one past the last byte of the line
+     * @return contents of the line
+     */
+    private static String decodeLine(ByteBuffer buffer, int lineStart, int lineEnd)
+    {
+        byte[] bytes = new byte[lineEnd - lineStart];
+        for(int i = 0; i < bytes.length; i++)
+            bytes[i] = buffer.get(lineStart + i);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Fork/join action that reads a range of chunks by splitting it in half until a single chunk remains
+     */
+    private static class ChunkReadAction extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final ChunkReader[] chunks;
+        private final int from;
+        private final int to;
+
+        ChunkReadAction(ChunkReader[] chunks, int from, int to)
+        {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if(to - from == 1)
+            {
+                try
+                {
+                    chunks[from].read();
+                }
+                catch(IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new ChunkReadAction(chunks, from, middle), new ChunkReadAction(chunks, middle, to));
+        }
+    }
+
+    /**
+     * Decodes the data lines of one byte range of the file into its own buffer, keeping the times as they appear in
+     * the file so the base time can be applied once every range has been read
+     */
+    private static class ChunkReader
+    {
+        private final FileChannel fileChannel;
+        private final long start;
+        private final long end;
+        private final C1Analyzer.C1Format format;
+
+        /**
+         * Transitions decoded from the range
+         */
+        private TransitionBuffer transitions;
+
+        /**
+         * Number of lines in the range that could not be decoded
+         */
+        private int skippedLines;
+
+        /**
+         * Position of the next unread byte of the line currently being decoded
+         */
+        private int cursor;
+
+        /**
+         * Set when a field of the line currently being decoded is not a valid number
+         */
+        private boolean malformed;
+
+        ChunkReader(FileChannel fileChannel, long start, long end, C1Analyzer.C1Format format)
+        {
+            this.fileChannel = fileChannel;
+            this.start = start;
+            this.end = end;
+            this.format = format;
+        }
+
+        /**
+         * Maps the range and decodes every line in it
+         *
+         * @throws IOException if the range cannot be mapped
+         */
+        void read() throws IOException
+        {
+            int size = (int) (end - start);
+            transitions = new TransitionBuffer(size / ESTIMATED_LINE_LENGTH);
+
+            MappedByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, start, size);
+
+            int lineStart = 0;
+            while(lineStart < size)
+            {
+                int lineEnd = findLineEnd(buffer, lineStart, size);
+                if(!isBlank(buffer, lineStart, lineEnd))
+                {
+                    if(format == C1Analyzer.C1Format.DATABASE)
+                        readDatabaseLine(buffer, lineStart, lineEnd);
+                    else
+                        readRawLine(buffer, lineStart, lineEnd);
+                }
+                lineStart = lineEnd + 1;
+            }
+        }
+
+        /**
+         * Decodes a raw line of the form "chip pin state time"
+         *
+         * @param buffer    mapped range containing the line
+         * @param lineStart index of the first byte of the line
+         * @param lineEnd   index one past the last byte of the line
+         */
+        private void readRawLine(MappedByteBuffer buffer, int lineStart, int lineEnd)
+        {
+            cursor = lineStart;
+            malformed = false;
+
+            int chip = (int) readToken(buffer, lineEnd);
+            int pin = (int) readToken(buffer, lineEnd);
+            int state = (int) readToken(buffer, lineEnd);
+            long time = readToken(buffer, lineEnd);
+
+            addTransition(time, state, chip, pin);
+        }
+
+        /**
+         * Decodes a line of the database CSV export, reading the chip, pin, state and millisecond columns
+         *
+         * @param buffer    mapped range containing the line
+         * @param lineStart index of the first byte of the line
+         * @param lineEnd   index one past the last byte of the line
+         */
+        private void readDatabaseLine(MappedByteBuffer buffer, int lineStart, int lineEnd)
+        {
+            cursor = lineStart;
+            malformed = false;
+
+            // data_id,C1_Chip_Num,C1_Reader_Channel,C1_Pin,C1_Reader_State,C1_Reader_Ticks,C1_Reader_Millis,...
+            skipCsvField(buffer, lineEnd);
+            int chip = (int) readCsvField(buffer, lineEnd);
+            skipCsvField(buffer, lineEnd);
+            int pin = (int) readCsvField(buffer, lineEnd);
+            int state = (int) readCsvField(buffer, lineEnd);
+            skipCsvField(buffer, lineEnd);
+            long time = readCsvField(buffer, lineEnd);
+
+            addTransition(time, state, chip, pin);
+        }
+
+        /**
+         * Adds a decoded transition to the buffer, or counts the line as skipped if any of its fields were malformed
+         *
+         * @param time  millisecond value read from the line
+         * @param state state read from the line
+         * @param chip  chip read from the line
+         * @param pin   pin read from the line
+         */
+        private void addTransition(long time, int state, int chip, int pin)
+        {
+            if(malformed)
+                skippedLines++;
+            else
+                transitions.add(time, state, chip, pin);
+        }
+
+        /**
+         * Reads the next whitespace separated number from the line and moves the cursor past it
+         *
+         * @param buffer  mapped range containing the line
+         * @param lineEnd index one past the last byte of the line
+         * @return value of the number, or 0 if the line is malformed
+         */
+        private long readToken(MappedByteBuffer buffer, int lineEnd)
+        {
+            while(cursor < lineEnd && isWhitespace(buffer.get(cursor)))
+                cursor++;
+
+            long value = readNumber(buffer, lineEnd);
+
+            // The number must be followed by whitespace or the end of the line
+            if(cursor < lineEnd && !isWhitespace(buffer.get(cursor)))
+                malformed = true;
+
+            return value;
+        }
+
+        /**
+         * Reads the number in the next comma separated field of the line and moves the cursor past the field
+         *
+         * @param buffer  mapped range containing the line
+         * @param lineEnd index one past the last byte of the line
+         * @return value of the field, or 0 if the line is malformed
+         */
+        private long readCsvField(MappedByteBuffer buffer, int lineEnd)
+        {
+            long value = readNumber(buffer, lineEnd);
+
+            // The number must fill the field
+            if(cursor < lineEnd && buffer.get(cursor) != ',')
+                malformed = true;
+
+            cursor++;
+            return value;
+        }
+
+        /**
+         * Moves the cursor past the next comma separated field of the line
+         *
+         * @param buffer  mapped range containing the line
+         * @param lineEnd index one past the last byte of the line
+         */
+        private void skipCsvField(MappedByteBuffer buffer, int lineEnd)
+        {
+            while(cursor < lineEnd && buffer.get(cursor) != ',')
+                cursor++;
+
+            if(cursor >= lineEnd)
+                malformed = true;
+
+            cursor++;
+        }
+
+        /**
+         * Reads an optionally signed decimal number starting at the cursor and moves the cursor past its digits
+         *
+         * @param buffer  mapped range containing the line
+         * @param lineEnd index one past the last byte of the line
+         * @return value of the number, or 0 if there are no digits at the cursor
+         */
+        private long readNumber(MappedByteBuffer buffer, int lineEnd)
+        {
+            boolean negative = false;
+            if(cursor < lineEnd && buffer.get(cursor) == '-')
+            {
+                negative = true;
+                cursor++;
+            }
+
+            long value = 0;
+            int digits = 0;
+            while(cursor < lineEnd)
+            {
+                int digit = buffer.get(cursor) - '0';
+                if(digit < 0 || digit > 9)
+                    break;
+
+                value = value * 10 + digit;
+                digits++;
+                cursor++;
+            }
+
+            // Anything past 18 digits may have overflowed a long
+            if(digits == 0 || digits > 18)
+                malformed = true;
+
+            return negative ? -value : value;
+        }
+    }
+}
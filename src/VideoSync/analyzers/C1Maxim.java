@@ -25,14 +25,14 @@ import java.util.Vector;
 public class C1Maxim
 {
     /**
-     * Used for keeping track of the start time for the analysis
+     * Used for keeping track of how long each phase of the analysis takes
      */
-    long sTime;
+    private LoadTimer loadTimer;
 
     /**
      * Used for storing all of the raw events that are detected during analysis
      */
-    private Vector<C1Object> events;
+    private TransitionBuffer events;
 
     /**
      * Used for storing all the individual channel information after analysis.
@@ -54,8 +54,8 @@ public class C1Maxim
      */
     public C1Maxim()
     {
-        // Create an array to store all of the individual events
-        events = new Vector<>();
+        // Create a buffer to store all of the individual events
+        events = new TransitionBuffer();
 
         // Create an array to store all of the individual channels
         channels = new Vector<>();
@@ -76,8 +76,8 @@ public class C1Maxim
         System.out.println("File to load for C1 Analysis: " + file.getAbsolutePath());
         System.out.println("------------------------------------------------------");
 
-        // Set the sTime to the current time
-        sTime = System.currentTimeMillis();
+        // Start timing the analysis
+        loadTimer = new LoadTimer();
 
         System.out.println("Analyzing C1 File: " + file.getName());
 
@@ -121,7 +121,7 @@ public class C1Maxim
                 int state = Integer.parseInt(binary.substring(4, 7));
                 int channel = Integer.parseInt(binary.substring(7), 2) + (chip * 24);
 
-                events.add(new C1Object(time, state, chip, channel));
+                events.add(time, state, chip, channel);
             }
         }
         catch(IOException e)
@@ -129,11 +129,11 @@ public class C1Maxim
             e.printStackTrace();
         }
 
-        // Now that we have all the elements extracted, we can create the finalized data structures
-        createChannelArrays();
+        loadTimer.endPhase("parse");
 
         // Assign all of the events to individual channels for easier use with the graphing system
-        generateChannelData();
+        bucketEvents();
+        loadTimer.endPhase("bucket");
 
         // Insert an element at time 0 that has the opposite state of the first element
         insertStartElement();
@@ -148,67 +148,31 @@ public class C1Maxim
         // Loop through all of the channels and print out the number of events
         for(C1Channel c : channels)
         {
-            System.out.printf("Chip %d Channel %d: %d events\n", c.getChip(), c.getPin(), c.getC1Objects().size() / 2);
+            System.out.printf("Chip %d Channel %d: %d events\n", c.getChip(), c.getPin(), c.getStateCount() / 2);
         }
         System.out.println();
 
-        System.out.println("Finished Generating C1 element records: " + (System.currentTimeMillis() - sTime) + " ms");
+        System.out.println("Finished Generating C1 element records: " + loadTimer);
         System.out.println("------------------------------------------------------");
     }
 
     /**
-     * Creates the channel arrays an initializes them for use
+     * Adds all of the events to the appropriate channel's arrays in a single pass, creating each channel the first
+     * time its chip and pin are seen
      */
-    private void createChannelArrays()
+    private void bucketEvents()
     {
-        // Loop through each event that we found to create the channel data
-        for(C1Object o : events)
-        {
-            // Create a temporary pin to hold the objects pin number
-            int chip = o.getChip();
-            int pin = o.getPin();
-
-            // Used in determining if we found a valid pin
-            boolean foundChannel = false;
+        ChannelBucketer<C1Channel> bucketer = new ChannelBucketer<>(C1Channel::new);
 
-            // Loop through all the channel objects we have so far
-            for(C1Channel c : channels)
-            {
-                // If that channel object exists, we change the found flag to true
-                if(c.getPin() == pin && c.getChip() == chip)
-                {
-                    foundChannel = true;
-                    break;
-                }
-            }
-
-            // If the found flag is false, we didn't find that pin anywhere
-            // so we need to add that channel object with the pin it will represent
-            if(!foundChannel)
-            {
-                channels.add(new C1Channel(chip, pin));
-            }
-        }
-    }
-
-    /**
-     * Adds all of the events to the appropriate channel's event arrays
-     */
-    private void generateChannelData()
-    {
-        // Loop through each Log 170 event we detected
-        for(C1Object o : events)
+        for(int i = 0; i < events.size(); i++)
         {
-            // Loop through each channel we have found
-            for(C1Channel c : channels)
-            {
-                // If the chip and pin parameters match, we can add the event object to the channel's array
-                if(c.getPin() == o.getPin() && c.getChip() == o.getChip())
-                {
-                    c.addC1Object(o);
-                }
-            }
+            bucketer.getChannel(events.getKey(i)).addState(events.getMilli(i), events.getState(i));
         }
+
+        channels = bucketer.getChannels();
+
+        // The raw events are no longer needed now that they are stored by channel
+        events = new TransitionBuffer();
     }
 
     /**
@@ -219,14 +183,9 @@ public class C1Maxim
         // Loop through all of the channel objects
         for(C1Channel c : channels)
         {
-            // Get the Log 170 Object currently at the start
-            C1Object o = c.getC1Objects().elementAt(0);
-
-            // Create  new Log 170 Object at time 0, with the state opposite of the current start element
-            C1Object newObj = new C1Object(0, (o.getState() == 0) ? 1 : 0, o.getChip(), o.getPin());
-
-            // Insert the new element at index 0. This will move all subsequent elements by +1
-            c.getC1Objects().insertElementAt(newObj, 0);
+            // Insert a new state at time 0, with the state opposite of the current start element.
+            // This will move all subsequent elements by +1
+            c.insertState(0, 0, (c.getState(0) == 0) ? 1 : 0);
         }
     }
 
@@ -265,9 +224,9 @@ public class C1Maxim
                 boolean isLastData = false;
                 if(c1States.size() > 0)
                 {
-                    int objIndex = c.getC1Objects().indexOf(c1States.firstElement());
+                    int objIndex = c.getGraphStartIndex();
                     //TODO - find reason behind need for -2 instead of -1.
-                    isLastData = (objIndex == (c.getC1Objects().size() - 2));
+                    isLastData = (objIndex == (c.getStateCount() - 2));
                 }
                 //If no state data exists, get edge approximation instead so we can draw extended graph line
                 if(c1States.size() == 0)
@@ -304,6 +263,10 @@ public class C1Maxim
         // This gets reassigned as we loop through each of the objects to be drawn.
         long previousTime = max - min;
 
+        // Pixel column of the previous object's transition. Transitions that land in the same column as the one before
+        // them are collapsed into that column's vertical line, so the number of lines is bounded by the graph width.
+        int previousColumn = Integer.MIN_VALUE;
+
         // Loop through all of the objects to be graphed.
         // NOTE: These are listed in reverse order
         for(int i = 0; i < gObjects.size(); i++)
@@ -346,16 +309,25 @@ public class C1Maxim
             // NOTE: With the java graphics api, point (0, 0) is located in the TOP LEFT of the screen, not bottom Left.
             double horizontal = (o.getState() == 0) ? top : bottom;
 
+            // A transition in the same pixel column as the previous one falls on that column's vertical line, which
+            // already covers its zero-width horizontal line and its own vertical line
+            boolean sameColumn = (int) lineLeftPx == previousColumn;
+
             // Create a new Line object and add it to the array to be return for drawing
-            graphLines.add(new Line((int) lineLeftPx, (int) horizontal, (int) lineRightPx, (int) horizontal));
+            if(!sameColumn || (int) lineLeftPx != (int) lineRightPx)
+            {
+                graphLines.add(new Line((int) lineLeftPx, (int) horizontal, (int) lineRightPx, (int) horizontal));
+            }
 
             // If the current index is not 1 position smaller than the array size, we need to create a vertical line for it
-            if(i != gObjects.size() - 1)
+            if(i != gObjects.size() - 1 && !sameColumn)
             {
                 // Create a new vertical line object and add it to the array
                 graphLines.add(new Line((int) lineLeftPx, (int) bottom, (int) lineLeftPx, (int) top));
             }
 
+            previousColumn = (int) lineLeftPx;
+
             // Re-assign the previous time.
             previousTime = o.getMilli() - min;
         }
@@ -371,6 +343,28 @@ public class C1Maxim
         return new Vector<>(channels);
     }
 
+    /**
+     * Returns whether a channel is in the high state (inside an event) at the given time, found with a binary search
+     * of the channel's transitions instead of building its graph lines
+     *
+     * @param chip    Chip associated with the channel
+     * @param channel Channel number, matched the same way as getGraphEvents
+     * @param time    Time to look up in milliseconds
+     * @return true if the channel is high at the time, false if it is low or there is no such channel
+     */
+    public boolean isChannelHigh(int chip, int channel, long time)
+    {
+        for(C1Channel c : channels)
+        {
+            if(c.getChannelNumber() == channel && c.getChip() == chip)
+            {
+                return c.getStateAt(time) == 1;
+            }
+        }
+
+        return false;
+    }
+
     /**
      * Return the maximum time value found from all of the channel elements
      *
@@ -383,13 +377,13 @@ public class C1Maxim
         // Loop through each channel element
         for(C1Channel c : channels)
         {
-            // Retrieve the last object in the channel's event array
-            C1Object o = c.getC1Objects().lastElement();
+            // Retrieve the time of the last transition in the channel's arrays
+            long lastMilli = c.getMilli(c.getStateCount() - 1);
 
-            // If the Log 170 Object's time is greater than the max found already, then update the max time.
-            if(o.getMilli() > max)
+            // If the transition's time is greater than the max found already, then update the max time.
+            if(lastMilli > max)
             {
-                max = (int) o.getMilli();
+                max = (int) lastMilli;
             }
         }
 
@@ -420,17 +414,17 @@ public class C1Maxim
             if(c.getChannelNumber() == channel && c.getChip() == chip)
             {
                 // We found the correct channel. Now lets get the index and determine its state
-                C1Object o = c.getC1Objects().elementAt(c.getCurrentJumpElementIndex());
+                int currentState = c.getState(c.getCurrentJumpElementIndex());
 
                 // If the object state is the same as we are looking for, then we need to jump back by two states
                 // Otherwise we only need to jump back by one position
-                if(o.getState() == state)
+                if(currentState == state)
                 {
-                    time = c.getC1Objects().elementAt(c.getCurrentJumpElementIndex() + 2).getMilli();
+                    time = c.getMilli(c.getCurrentJumpElementIndex() + 2);
                 }
                 else
                 {
-                    time = c.getC1Objects().elementAt(c.getCurrentJumpElementIndex() + 1).getMilli();
+                    time = c.getMilli(c.getCurrentJumpElementIndex() + 1);
                 }
 
                 // Since we found an event, then we can break out of the loop as there is no reason to continue searching.
@@ -461,17 +455,17 @@ public class C1Maxim
             if(c.getChannelNumber() == channel && c.getChip() == chip)
             {
                 // We found the correct channel. Now lets get the index and determine its state
-                C1Object o = c.getC1Objects().elementAt(c.getCurrentJumpElementIndex());
+                int currentState = c.getState(c.getCurrentJumpElementIndex());
 
                 // If the object state is the same as we are looking for, then we need to jump back by two states
                 // Otherwise we only need to jump back by one position
-                if(o.getState() == state)
+                if(currentState == state)
                 {
-                    time = c.getC1Objects().elementAt(c.getCurrentJumpElementIndex() - 2).getMilli();
+                    time = c.getMilli(c.getCurrentJumpElementIndex() - 2);
                 }
                 else
                 {
-                    time = c.getC1Objects().elementAt(c.getCurrentJumpElementIndex() - 1).getMilli();
+                    time = c.getMilli(c.getCurrentJumpElementIndex() - 1);
                 }
 
                 // Since we found an event, then we can break out of the loop as there is no reason to continue searching.
@@ -0,0 +1,198 @@
+package VideoSync.analyzers;
+
+import java.util.Arrays;
+import java.util.Vector;
+
+/**
+ * Shared loader stage used by the analyzers to bucket transitions into their channels in a single pass. Channels are
+ * found through a hash table keyed by a packed chip/pin int instead of scanning every channel for each transition.
+ *
+ * @param <C> channel type
+ */
+public class ChannelBucketer<C>
+{
+    /**
+     * Creates the channel object for a chip and pin the first time a transition for it is bucketed
+     *
+     * @param <C> channel type
+     */
+    public interface ChannelFactory<C>
+    {
+        C createChannel(int chip, int pin);
+    }
+
+    /**
+     * Marks an empty slot in the key table. Not a valid packed key since chips are never negative.
+     */
+    private static final int EMPTY_KEY = -1;
+
+    /**
+     * Used for creating new channels
+     */
+    private final ChannelFactory<C> factory;
+
+    /**
+     * Open addressing hash table of packed chip/pin keys, parallel to channelTable
+     */
+    private int[] keyTable;
+
+    /**
+     * Channels stored at the same slot as their key in keyTable
+     */
+    private Object[] channelTable;
+
+    /**
+     * Stores the channels in the order they were first seen
+     */
+    private final Vector<C> channels = new Vector<>();
+
+    /**
+     * Key and channel of the last lookup, since consecutive transitions frequently belong to the same channel
+     */
+    private int lastKey = EMPTY_KEY;
+    private C lastChannel;
+
+    /**
+     * Constructs a bucketer that creates its channels through the given factory
+     *
+     * @param factory creates the channel object for a new chip and pin
+     */
+    public ChannelBucketer(ChannelFactory<C> factory)
+    {
+        this.factory = factory;
+        this.keyTable = new int[256];
+        this.channelTable = new Object[256];
+        Arrays.fill(keyTable, EMPTY_KEY);
+    }
+
+    /**
+     * Packs a chip and pin into a single int key
+     *
+     * @param chip chip number
+     * @param pin  pin number
+     * @return packed key
+     */
+    public static int packKey(int chip, int pin)
+    {
+        return (chip << 16) | (pin & 0xFFFF);
+    }
+
+    /**
+     * Returns the chip number from a packed key
+     *
+     * @param key key created with packKey
+     * @return chip number
+     */
+    public static int chipOf(int key)
+    {
+        return key >>> 16;
+    }
+
+    /**
+     * Returns the pin number from a packed key
+     *
+     * @param key key created with packKey
+     * @return pin number
+     */
+    public static int pinOf(int key)
+    {
+        return key & 0xFFFF;
+    }
+
+    /**
+     * Returns the channel for a chip and pin, creating it if this is the first time it has been seen
+     *
+     * @param chip chip number
+     * @param pin  pin number
+     * @return channel for the chip and pin
+     */
+    public C getChannel(int chip, int pin)
+    {
+        return getChannel(packKey(chip, pin));
+    }
+
+    /**
+     * Returns the channel for a packed chip/pin key, creating it if this is the first time it has been seen
+     *
+     * @param key key created with packKey
+     * @return channel for the key
+     */
+    @SuppressWarnings("unchecked")
+    public C getChannel(int key)
+    {
+        if(key == lastKey)
+            return lastChannel;
+
+        int mask = keyTable.length - 1;
+        int slot = mix(key) & mask;
+
+        // Linear probe until we either find the key or an empty slot for it
+        while(keyTable[slot] != EMPTY_KEY)
+        {
+            if(keyTable[slot] == key)
+            {
+                lastKey = key;
+                lastChannel = (C) channelTable[slot];
+                return lastChannel;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        C channel = factory.createChannel(chipOf(key), pinOf(key));
+        keyTable[slot] = key;
+        channelTable[slot] = channel;
+        channels.add(channel);
+
+        // Keep the table at most half full so probe sequences stay short
+        if(channels.size() * 2 > keyTable.length)
+            resize();
+
+        lastKey = key;
+        lastChannel = channel;
+        return channel;
+    }
+
+    /**
+     * Returns all of the channels in the order they were first seen
+     *
+     * @return Vector of channels
+     */
+    public Vector<C> getChannels()
+    {
+        return channels;
+    }
+
+    private void resize()
+    {
+        int[] oldKeys = keyTable;
+        Object[] oldChannels = channelTable;
+
+        keyTable = new int[oldKeys.length * 2];
+        channelTable = new Object[oldKeys.length * 2];
+        Arrays.fill(keyTable, EMPTY_KEY);
+
+        int mask = keyTable.length - 1;
+        for(int i = 0; i < oldKeys.length; i++)
+        {
+            if(oldKeys[i] != EMPTY_KEY)
+            {
+                int slot = mix(oldKeys[i]) & mask;
+                while(keyTable[slot] != EMPTY_KEY)
+                    slot = (slot + 1) & mask;
+
+                keyTable[slot] = oldKeys[i];
+                channelTable[slot] = oldChannels[i];
+            }
+        }
+    }
+
+    /**
+     * Spreads the chip bits into the low bits used to index the table
+     */
+    private static int mix(int key)
+    {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -31,9 +31,9 @@ public class L170Analyzer
     final int dataStartIndex = 7;
 
     /**
-     * Used in determining how long it takes to perform the analysis of the file.
+     * Used in determining how long each phase of the analysis of the file takes.
      */
-    long sTime;
+    private LoadTimer loadTimer;
 
     /**
      * Used for keeping track of every event that was found in the data file.
@@ -81,7 +81,7 @@ public class L170Analyzer
         boolean wantFirstLine = true;
         System.out.println("------------------------------------------------------");
 
-        sTime = System.currentTimeMillis();
+        loadTimer = new LoadTimer();
         System.out.println("Loading Log 170 File: " + file.getName());
 
         String line = null;
@@ -190,11 +190,11 @@ public class L170Analyzer
             e.printStackTrace();
         }
 
-        // Now that we have all the elements extracted, we can create the finalized data structures
-        createChannelArrays();
+        loadTimer.endPhase("parse");
 
         // Assign all of the events to individual channels for easier use with the graphing system
-        generateChannelData();
+        bucketEvents();
+        loadTimer.endPhase("bucket");
 
         // Insert an element at time 0 that has the opposite state of the first element
         insertStartElement();
@@ -213,63 +213,29 @@ public class L170Analyzer
 
         System.out.println();
 
-        System.out.println("Finished Generating element records: " + (System.currentTimeMillis() - sTime) + " ms");
+        System.out.println("Finished Generating element records: " + loadTimer);
         System.out.println("------------------------------------------------------");
 
     }
 
     /**
-     * Creates the channel array so we can sort all of our events by channels.
+     * Adds all of the events found in the analysis to each channel individually in a single pass, creating each
+     * channel the first time its channel number is seen
      */
-    private void createChannelArrays()
+    private void bucketEvents()
     {
-        // Loop through each event that we found to create the channel data
-        for(L170Object o : events)
-        {
-            // Create a temporary variable to hold the objects channel number
-            int channelNumber = o.getChannelNumber();
-
-            // Used in determining if we found a valid pin
-            boolean foundChannel = false;
-
-            // Loop through all the channel objects we have so far
-            for(L170Channel c : channels)
-            {
-                // If that channel object exists, we change the found flag to true
-                if(c.getChannelNumber() == channelNumber)
-                {
-                    foundChannel = true;
-                    break;
-                }
-            }
+        // Log 170 channels only have a channel number, so it is used as the pin with a chip of 0
+        ChannelBucketer<L170Channel> bucketer = new ChannelBucketer<>((chip, channelNumber) -> new L170Channel(channelNumber));
 
-            // If the found flag is false, we didn't find that channel number anywhere
-            // so we need to add that channel object with the channel number it will represent
-            if(!foundChannel)
-            {
-                channels.add(new L170Channel(channelNumber));
-            }
-        }
-    }
-
-    /**
-     * Adds all of the events found in the analysis to each channel individually
-     */
-    private void generateChannelData()
-    {
-        // Loop through each Log 170 event we detected
         for(L170Object o : events)
         {
-            // Loop through each channel we have found
-            for(L170Channel c : channels)
-            {
-                // If the channel number parameter matches, we can add the event object to the channel's array
-                if(c.getChannelNumber() == o.getChannelNumber())
-                {
-                    c.addObject(o);
-                }
-            }
+            bucketer.getChannel(0, o.getChannelNumber()).addObject(o);
         }
+
+        channels = bucketer.getChannels();
+
+        // The raw events are no longer needed now that they are stored by channel
+        events = new Vector<>();
     }
 
     /**
@@ -0,0 +1,89 @@
+package VideoSync.analyzers;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records how long each phase of loading a data file takes so the analyzers can report where the load time went.
+ */
+public class LoadTimer
+{
+    /**
+     * Time the timer was created
+     */
+    private final long startTime;
+
+    /**
+     * Time the current phase started
+     */
+    private long phaseStartTime;
+
+    /**
+     * Elapsed nanoseconds for each phase, in the order the phases finished
+     */
+    private final Map<String, Long> phaseTimes = new LinkedHashMap<>();
+
+    /**
+     * Creates a timer and starts the first phase
+     */
+    public LoadTimer()
+    {
+        startTime = System.nanoTime();
+        phaseStartTime = startTime;
+    }
+
+    /**
+     * Ends the current phase, recording its time under the given name, and starts the next one
+     *
+     * @param phase name of the phase that just finished
+     */
+    public void endPhase(String phase)
+    {
+        long now = System.nanoTime();
+        phaseTimes.merge(phase, now - phaseStartTime, Long::sum);
+        phaseStartTime = now;
+    }
+
+    /**
+     * Returns the time spent in a phase
+     *
+     * @param phase name of the phase
+     * @return milliseconds spent in the phase, or 0 if it was never recorded
+     */
+    public long getPhaseMillis(String phase)
+    {
+        return phaseTimes.getOrDefault(phase, 0L) / 1000000;
+    }
+
+    /**
+     * Returns the time since the timer was created
+     *
+     * @return elapsed milliseconds
+     */
+    public long getTotalMillis()
+    {
+        return (System.nanoTime() - startTime) / 1000000;
+    }
+
+    /**
+     * Returns the total time followed by the time of each phase, e.g. "250 ms (parse 200 ms, bucket 40 ms)"
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder();
+        builder.append(getTotalMillis()).append(" ms");
+
+        String separator = " (";
+        for(Map.Entry<String, Long> phase : phaseTimes.entrySet())
+        {
+            builder.append(separator).append(phase.getKey()).append(' ').append(phase.getValue() / 1000000).append(" ms");
+            separator = ", ";
+        }
+
+        if(!phaseTimes.isEmpty())
+            builder.append(')');
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,156 @@
+package VideoSync.analyzers;
+
+import java.util.Arrays;
+
+/**
+ * Growable columnar buffer of the raw transitions read from a data file, kept in file order until they are bucketed
+ * into channels. Each transition takes a long, an int and a byte instead of a full object.
+ */
+public class TransitionBuffer
+{
+    /**
+     * Used for storing the millisecond value of each transition
+     */
+    private long[] millis;
+
+    /**
+     * Used for storing the packed chip/pin key of each transition
+     */
+    private int[] keys;
+
+    /**
+     * Used for storing the state of each transition
+     */
+    private byte[] states;
+
+    /**
+     * Number of transitions in the buffer
+     */
+    private int size;
+
+    /**
+     * Constructs an empty transition buffer
+     */
+    public TransitionBuffer()
+    {
+        this(1024);
+    }
+
+    /**
+     * Constructs an empty transition buffer with room for the given number of transitions
+     *
+     * @param capacity number of transitions the buffer can hold before growing
+     */
+    public TransitionBuffer(int capacity)
+    {
+        capacity = Math.max(capacity, 16);
+        millis = new long[capacity];
+        keys = new int[capacity];
+        states = new byte[capacity];
+    }
+
+    /**
+     * Adds a transition to the end of the buffer
+     *
+     * @param time  millisecond value of the transition
+     * @param state state of the channel after the transition
+     * @param chip  chip number of the transition
+     * @param pin   pin number of the transition
+     */
+    public void add(long time, int state, int chip, int pin)
+    {
+        if(size == millis.length)
+            ensureCapacity(size + (size >> 1));
+
+        millis[size] = time;
+        keys[size] = ChannelBucketer.packKey(chip, pin);
+        states[size] = (byte) state;
+        size++;
+    }
+
+    /**
+     * Adds every transition of another buffer to the end of this buffer, offsetting each of their times
+     *
+     * @param source     buffer to copy the transitions from
+     * @param timeOffset value added to the millisecond value of each copied transition
+     */
+    public void addAll(TransitionBuffer source, long timeOffset)
+    {
+        ensureCapacity(size + source.size);
+
+        for(int i = 0; i < source.size; i++)
+            millis[size + i] = source.millis[i] + timeOffset;
+        System.arraycopy(source.keys, 0, keys, size, source.size);
+        System.arraycopy(source.states, 0, states, size, source.size);
+        size += source.size;
+    }
+
+    /**
+     * Adds an offset to the millisecond value of every transition in the buffer
+     *
+     * @param timeOffset value added to the millisecond value of each transition
+     */
+    public void shiftTimes(long timeOffset)
+    {
+        for(int i = 0; i < size; i++)
+            millis[i] += timeOffset;
+    }
+
+    /**
+     * Grows the buffer so it can hold at least the given number of transitions
+     *
+     * @param capacity number of transitions the buffer must be able to hold
+     */
+    private void ensureCapacity(int capacity)
+    {
+        if(capacity <= millis.length)
+            return;
+
+        millis = Arrays.copyOf(millis, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+        states = Arrays.copyOf(states, capacity);
+    }
+
+    /**
+     * Returns the number of transitions in the buffer
+     *
+     * @return number of transitions
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the millisecond value of the transition at the given index
+     *
+     * @param index index of the transition
+     * @return millisecond value of the transition
+     */
+    public long getMilli(int index)
+    {
+        return millis[index];
+    }
+
+    /**
+     * Returns the packed chip/pin key of the transition at the given index
+     *
+     * @param index index of the transition
+     * @return packed chip/pin key of the transition
+     */
+    public int getKey(int index)
+    {
+        return keys[index];
+    }
+
+    /**
+     * Returns the state of the transition at the given index
+     *
+     * @param index index of the transition
+     * @return state of the channel after the transition
+     */
+    public int getState(int index)
+    {
+        return states[index];
+    }
+}
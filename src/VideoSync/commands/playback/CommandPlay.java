@@ -14,14 +14,18 @@ package VideoSync.commands.playback;
 import VideoSync.models.DataModel;
 
 import javax.swing.*;
+import java.awt.*;
 import java.awt.event.ActionEvent;
-import java.util.Observable;
-import java.util.Observer;
 
-public class CommandPlay extends AbstractAction implements Observer
+public class CommandPlay extends AbstractAction
 {
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Refresh rate used when the display's refresh rate can't be determined
+     */
+    private static final int DEFAULT_REFRESH_RATE = 60;
+
     /**
      * Sets the base timing rate to play the graphs at 1/30th of a second.
      */
@@ -37,18 +41,14 @@ public class CommandPlay extends AbstractAction implements Observer
      */
     private final Timer playTimer;
 
-    /**
-     * Sets the initial timer speed to the same as the base rate.
-     */
-    private double timerSpeed = baseRate;
-
     /**
      * Create the Command Play Object
      */
     public CommandPlay()
     {
-        // Create the new Timer Instance and set its duration and caller
-        playTimer = new Timer((int) timerSpeed, this);
+        // Create the new Timer Instance and set it to move the graphs once per refresh of the display.
+        // The position itself comes from the data model's media clock, so the timer's accuracy doesn't matter.
+        playTimer = new Timer(1000 / getRefreshRate(), this);
 
         // Immediately pause the timer so that it isn't running upon startup
         playTimer.stop();
@@ -63,9 +63,28 @@ public class CommandPlay extends AbstractAction implements Observer
     {
         // Set the data model to the one passed
         this.dm = dm;
+    }
 
-        // Add the Command Play object as an observer to the data model
-        this.dm.addObserver(this);
+    /**
+     * Returns the refresh rate of the main display
+     *
+     * @return Refresh rate in Hz
+     */
+    private static int getRefreshRate()
+    {
+        try
+        {
+            int refreshRate = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDisplayMode().getRefreshRate();
+            if(refreshRate != DisplayMode.REFRESH_RATE_UNKNOWN)
+            {
+                return refreshRate;
+            }
+        }
+        catch(HeadlessException e)
+        {
+            // No display to match
+        }
+        return DEFAULT_REFRESH_RATE;
     }
 
     /**
@@ -99,38 +118,16 @@ public class CommandPlay extends AbstractAction implements Observer
         {
             if(this.dm.getCurrentPosition() < this.dm.getMaxVideoLength())
             {
-                // Get the last time value of the graph data
-                long lastPos = this.dm.getCurrentPosition();
-
-                // Calculate a new time value based on the last time value and the value of the timer speed.
-                long newPos = lastPos + (int) timerSpeed;
-
-                // Update the current position of the graph window to the one we have calculated.
-                this.dm.setCurrentPosition(newPos, false);
+                // Move the graph window to the time of the media clock, which is interpolated between the
+                // time reports of the master video.
+                this.dm.advanceToMediaClock();
             }
             else
             {
                 this.dm.setPlaying(false);
-                long newPos = (int) timerSpeed;
+                long newPos = (int) baseRate;
                 this.dm.setCurrentPosition(newPos, true);
             }
         }
     }
-
-    /**
-     * Updates the Command Play via a notification from the data model.
-     *
-     * @param arg0 Observable that triggered this update
-     * @param arg1 Argument passed to update
-     */
-    public void update(Observable arg0, Object arg1)
-    {
-        // If the argument passed is a type Double, then we can proceed with updating variables.
-        // Otherwise we can just ignore it.
-        if(arg1 instanceof Double)
-        {
-            // Update the timer speed based on the base time value and the parameter passed.
-            timerSpeed = baseRate * (Double) arg1;
-        }
-    }
 }
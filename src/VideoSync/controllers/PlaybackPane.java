@@ -19,11 +19,12 @@
 
 package VideoSync.controllers;
 
+import VideoSync.analyzers.C1LoadProgress;
 import VideoSync.commands.playback.CommandFrameForward;
 import VideoSync.commands.playback.CommandFrameReverse;
 import VideoSync.commands.playback.CommandPlay;
 import VideoSync.models.DataModelProxy;
-import VideoSync.threads.ThreadSkip;
+import VideoSync.threads.ContinuousSkip;
 
 import javax.swing.*;
 import javax.swing.border.BevelBorder;
@@ -82,6 +83,11 @@ public class PlaybackPane extends JPanel implements Observer, MouseListener, Cha
      */
     private final JSlider slider_MovieSpeed;
 
+    /**
+     * Title of the pane, which shows the progress of a C1 file while it is streamed in
+     */
+    private final JLabel lblPlaybackControls;
+
     /**
      * Used for indicating the current time for the data.
      */
@@ -93,9 +99,9 @@ public class PlaybackPane extends JPanel implements Observer, MouseListener, Cha
     private final JLabel label_MaxPosition;
 
     /**
-     * Used for skipping the data back and forth
+     * Used for skipping the data back and forth while the rewind or fast forward button is held
      */
-    private ThreadSkip ts;
+    private ContinuousSkip skip;
 
     /**
      * Used to keep track of whether a video was playing or not before the movie slider was grabbed.
@@ -114,7 +120,7 @@ public class PlaybackPane extends JPanel implements Observer, MouseListener, Cha
         setSize(new Dimension(435, 128));
         setLayout(new BorderLayout(0, 0));
 
-        JLabel lblPlaybackControls = new JLabel("Playback Controls");
+        lblPlaybackControls = new JLabel("Playback Controls");
         add(lblPlaybackControls, BorderLayout.NORTH);
         lblPlaybackControls.setHorizontalAlignment(SwingConstants.CENTER);
 
@@ -293,6 +299,26 @@ public class PlaybackPane extends JPanel implements Observer, MouseListener, Cha
     }
 
 
+    /**
+     * Shows the progress of a C1 file being streamed in as the title of the pane. Once the load has finished the
+     * title is restored and the final read rates are kept in its tooltip.
+     *
+     * @param progress progress of the C1 load, or null if no file has been streamed
+     */
+    private void updateLoadProgress(C1LoadProgress progress)
+    {
+        if(progress == null || progress.isFinished())
+        {
+            lblPlaybackControls.setText("Playback Controls");
+            lblPlaybackControls.setToolTipText(progress == null ? null : progress.toString());
+        }
+        else
+        {
+            lblPlaybackControls.setText(progress.toString());
+            lblPlaybackControls.setToolTipText(null);
+        }
+    }
+
     /**
      * Convert the millisecond time value to HH:MM:SS.millis that is more human readable
      *
@@ -388,6 +414,7 @@ public class PlaybackPane extends JPanel implements Observer, MouseListener, Cha
 
                 // Update all of the Labels
                 updateLabels();
+                updateLoadProgress(dmp.getC1LoadProgress());
 
                 // Set the current position of the slider's position to the value in the data model
                 slider_MoviePosition.setValue((int) dmp.getCurrentPosition());
@@ -453,7 +480,8 @@ public class PlaybackPane extends JPanel implements Observer, MouseListener, Cha
         }
         else if(slider == slider_MoviePosition && slider.getValueIsAdjusting())
         {
-            dmp.setSliderPosition(slider.getValue());
+            // Show thumbnails while dragging, the videos are seeked when the slider is released
+            dmp.setScrubPosition(slider.getValue());
 
         }
 
@@ -469,34 +497,31 @@ public class PlaybackPane extends JPanel implements Observer, MouseListener, Cha
         // skipping the video backwards.
         if(e.getSource() == button_Rewind)
         {
-            // If the ThreadSkip object is null, stop the old
-            // thread and create a new thread skip object.
-            if(ts != null)
+            // If a skip is still running, stop it before starting a new one.
+            if(skip != null)
             {
-                ts.stopThread();
+                skip.stop();
             }
-            // Create the thread skip with the dmp and direction values.
+            // Create the skip with the dmp and direction values.
             // Direction parameter of -1 means backwards
-            ts = new ThreadSkip(this.dmp, -1);
+            skip = new ContinuousSkip(this.dmp, -1);
             // Start skipping the data
-            ts.start();
+            skip.start();
         }
         // If the source of the event is the fast forward button, then start
         // skipping the video backwards.
         else if(e.getSource() == button_FastForward)
         {
-            // If the ThreadSkip object is null, stop the old
-            // thread and create a new thread skip object.
-            if(ts != null)
+            // If a skip is still running, stop it before starting a new one.
+            if(skip != null)
             {
-                ts.stopThread();
-
+                skip.stop();
             }
-            // Create the thread skip with the dmp and direction values.
+            // Create the skip with the dmp and direction values.
             // Direction parameter of 1 means forwards
-            ts = new ThreadSkip(this.dmp, 1);
+            skip = new ContinuousSkip(this.dmp, 1);
             // Start skipping the data
-            ts.start();
+            skip.start();
         }
         else if(e.getSource() == slider_MoviePosition)
         {
@@ -512,11 +537,14 @@ public class PlaybackPane extends JPanel implements Observer, MouseListener, Cha
     public void mouseReleased(MouseEvent e)
     {
         // If the source of our event is either the rewind or fast forward buttons,
-        // we can stop the thread skip.
+        // we can stop the skip.
         if(e.getSource() == button_Rewind || e.getSource() == button_FastForward)
         {
             // Stop skipping the data
-            ts.stopThread();
+            if(skip != null)
+            {
+                skip.stop();
+            }
         }
         // Otherwise we have a slider event and can tell the data model to update
         // all observers with the value of the slider
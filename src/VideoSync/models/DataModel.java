@@ -27,6 +27,7 @@
 package VideoSync.models;
 
 import VideoSync.analyzers.C1Analyzer;
+import VideoSync.analyzers.C1LoadProgress;
 import VideoSync.analyzers.C1Maxim;
 import VideoSync.analyzers.L170Analyzer;
 import VideoSync.analyzers.VBM;
@@ -34,7 +35,6 @@ import VideoSync.objects.DeviceInputMap;
 import VideoSync.objects.EDeviceType;
 import VideoSync.objects.InputMappingFile;
 import VideoSync.objects.c1.C1Channel;
-import VideoSync.objects.c1.C1Object;
 import VideoSync.objects.event_logger.ChannelCount;
 import VideoSync.objects.event_logger.ChannelCountProxy;
 import VideoSync.objects.event_logger.Event;
@@ -61,6 +61,7 @@ import java.sql.*;
 import java.util.List;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 // TODO: Singleton pattern for DataModel?
 
@@ -98,11 +99,21 @@ public class DataModel extends Observable
      */
     private final DataModelProxy proxy = new DataModelProxy(this);
 
+    /**
+     * Coalesces position changes and delivers them to the observers on the event dispatch thread
+     */
+    private final PositionChangeBus positionBus = new PositionChangeBus(this, proxy);
+
     /**
      * Used for keeping track of the playback rate
      */
     private float playbackRate = 1;
 
+    /**
+     * Used to print the media clock drift and position update timings each time playback stops
+     */
+    final private boolean playback_debug = false;
+
     /**
      * Used to indicate if we are currently playing the data
      */
@@ -137,6 +148,37 @@ public class DataModel extends Observable
      */
     private C1Analyzer c1Analyzer;
 
+    /**
+     * Progress of the C1 file currently being streamed in, or null if no file has been streamed
+     */
+    private volatile C1LoadProgress c1LoadProgress;
+
+    /**
+     * Set while a refresh of the observers for newly streamed C1 data is waiting to run on the EDT, so a fast load
+     * doesn't queue up a refresh for every segment
+     */
+    private final AtomicBoolean c1RefreshPending = new AtomicBoolean();
+
+    /**
+     * Graph lines already computed for the current position, graph offset and graph width, so the graphs, video
+     * regions and C1 Viewer asking for the same channel in the same frame share one computation. Also used as the
+     * lock that serializes the analyzers' graph line generation.
+     */
+    private final Map<GraphLineKey, Vector<Line>> graphLineCache = new HashMap<>();
+
+    /**
+     * Position, graph offset and graph width the cached graph lines were computed for
+     */
+    private long graphLineCachePosition;
+    private int graphLineCacheOffset;
+    private double graphLineCacheSeconds;
+
+    /**
+     * True if the C1 input map was generated from the loaded channels rather than read from a mapping file, in which
+     * case channels first seen later in a streaming load are added to it
+     */
+    private boolean c1InputMapFromData;
+
     /**
      * Stores a reference to the c1 analyzer
      */
@@ -201,7 +243,12 @@ public class DataModel extends Observable
     /**
      * Stores the current time position of all the data elements
      */
-    private long currentPosition = 0;
+    private volatile long currentPosition = 0;
+
+    /**
+     * Interpolates the position between the time reports of the master video while playing
+     */
+    private final MediaClock mediaClock = new MediaClock();
 
     /**
      * Contains the channel count collection by chip number in Event Logger
@@ -357,11 +404,17 @@ public class DataModel extends Observable
             vp.performShutdown(false);
         }
 
+        // Stop reading any C1 file that is still being streamed in
+        if(c1Analyzer != null)
+            c1Analyzer.cancelLoad();
+        c1LoadProgress = null;
+
         // Reinitialize all of the array objects that contain data to be used
         videoPlayers = new Vector<>();
         c1Data = new Vector<>();
         l170Data = new Vector<>();
         c1InputMap = new Vector<>();
+        c1InputMapFromData = false;
         l170InputMap = new Vector<>();
         inputMappingFiles = new Vector<>();
         deviceFiles = new Vector<>();
@@ -474,6 +527,8 @@ public class DataModel extends Observable
                     c1InputMap = new Vector<>();
                 }
 
+                c1InputMapFromData = false;
+
                 // Temporary variable to loop through the object input stream contents
                 DeviceInputMap dim;
 
@@ -519,6 +574,46 @@ public class DataModel extends Observable
                 c1InputMap.add(new DeviceInputMap(channel.getChip(), channel.getPin(), channel.getChannelNumber()));
 
             }
+            c1InputMapFromData = true;
+        }
+    }
+
+    /**
+     * Adds any channels that are missing from a C1 input map generated from the loaded channels, and rewrites the
+     * generated mapping file if it has already been written.
+     */
+    private void addMissingC1Inputs()
+    {
+        if(!c1InputMapFromData)
+            return;
+
+        boolean added = false;
+        for(C1Channel channel : c1Analyzer.getC1Channels())
+        {
+            boolean mapped = false;
+            for(DeviceInputMap dim : c1InputMap)
+            {
+                if(dim.getChipNumber() == channel.getChip() && dim.getPinNumber() == channel.getPin())
+                {
+                    mapped = true;
+                    break;
+                }
+            }
+
+            if(!mapped)
+            {
+                c1InputMap.add(new DeviceInputMap(channel.getChip(), channel.getPin(), channel.getChannelNumber()));
+                added = true;
+            }
+        }
+
+        if(added)
+        {
+            for(InputMappingFile mappingFile : inputMappingFiles)
+            {
+                if(mappingFile.getDeviceInputMapVector() == c1InputMap)
+                    mappingFile.writeFile();
+            }
         }
     }
 
@@ -567,6 +662,7 @@ public class DataModel extends Observable
     {
         // Update the input map data
         this.c1InputMap = updated;
+        this.c1InputMapFromData = false;
 
         // Notify all the observers of a change
         this.setChanged();
@@ -693,14 +789,23 @@ public class DataModel extends Observable
             c1Data = null;
         }
 
+        // Stop reading any C1 file that is still being streamed in
+        if(c1Analyzer != null)
+            c1Analyzer.cancelLoad();
+
         // Initialize the C1 Analyzer
         c1Analyzer = new C1Analyzer();
 
         //Add reference to C1 file in device files vector for future use.
         deviceFiles.add(c1File);
 
-        // Analyze the contents of the new file
-        c1Analyzer.performAnalysis(c1File);
+        // Load the analysis from the file's cache if the file hasn't changed. Otherwise stream the file in, which
+        // returns as soon as the first segment is available and reads the rest in the background.
+        if(!c1Analyzer.loadFromCache(c1File))
+            streamC1Data(c1Analyzer, c1File);
+
+        // Drop any lines graphed from the previous data
+        invalidateGraphLineCache();
 
         // Indicate that we loaded some data
         dataLoaded = true;
@@ -727,6 +832,101 @@ public class DataModel extends Observable
         notifyObservers();
     }
 
+    /**
+     * Streams a C1 file into the analyzer on a background thread, returning once the first segment of the file has
+     * been added to the channels. The observers are refreshed as more of the file is read and once more when the
+     * load finishes, at which point the analysis is written to the file's cache.
+     *
+     * @param analyzer analyzer to load the file into
+     * @param c1File   C1 file to load
+     */
+    private void streamC1Data(C1Analyzer analyzer, File c1File)
+    {
+        CountDownLatch firstSegment = new CountDownLatch(1);
+
+        Thread loader = new Thread(() ->
+        {
+            analyzer.performStreamingAnalysis(c1File, progress ->
+            {
+                firstSegment.countDown();
+                if(analyzer.isLoadCancelled())
+                    return;
+
+                c1LoadProgress = progress;
+                if(!progress.isFinished())
+                    requestC1LoadRefresh(analyzer);
+            });
+
+            // Release setC1Data even if the file had no data to read
+            firstSegment.countDown();
+
+            analyzer.writeCache(c1File);
+            SwingUtilities.invokeLater(() -> c1LoadFinished(analyzer));
+        }, "C1 Loader");
+        loader.setDaemon(true);
+        loader.start();
+
+        try
+        {
+            firstSegment.await();
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Refreshes the observers on the EDT so newly streamed C1 data is drawn, unless a refresh is already waiting
+     *
+     * @param analyzer analyzer the data was streamed into
+     */
+    private void requestC1LoadRefresh(C1Analyzer analyzer)
+    {
+        if(!c1RefreshPending.compareAndSet(false, true))
+            return;
+
+        SwingUtilities.invokeLater(() ->
+        {
+            c1RefreshPending.set(false);
+            if(analyzer == c1Analyzer && !analyzer.isLoadCancelled())
+            {
+                // The channels have grown since the cached lines were computed
+                invalidateGraphLineCache();
+                notifyObservers();
+            }
+        });
+    }
+
+    /**
+     * Called on the EDT when a streaming C1 load has finished
+     *
+     * @param analyzer analyzer the data was streamed into
+     */
+    private void c1LoadFinished(C1Analyzer analyzer)
+    {
+        // Ignore a load that was cancelled or replaced by another file while it was streaming
+        if(analyzer != c1Analyzer || analyzer.isLoadCancelled())
+            return;
+
+        addMissingC1Inputs();
+        invalidateGraphLineCache();
+
+        setChanged();
+        notifyObservers("Input");
+        notifyObservers();
+    }
+
+    /**
+     * Returns the progress of the C1 file currently being streamed in
+     *
+     * @return progress of the load, or null if no file has been streamed
+     */
+    public C1LoadProgress getC1LoadProgress()
+    {
+        return c1LoadProgress;
+    }
+
     /**
      * Set the C1 data file and run the analysis on it.
      *
@@ -746,6 +946,9 @@ public class DataModel extends Observable
         // Analyze the contents of the new file
         c1Analyzer.performAnalysis(rs);
 
+        // Drop any lines graphed from the previous data
+        invalidateGraphLineCache();
+
         // Indicate that we loaded some data
         dataLoaded = true;
 
@@ -794,6 +997,9 @@ public class DataModel extends Observable
         // Analyze the contents of the new file
         c1MaximAnalyzer.performAnalysis(c1MaximFile);
 
+        // Drop any lines graphed from the previous data
+        invalidateGraphLineCache();
+
         // Indicate that we loaded some data
         dataLoaded = true;
 
@@ -1065,7 +1271,8 @@ public class DataModel extends Observable
     /**
      * Reverse all data graphs and video by a 'frame'
      *
-     * NOTE: Due to VLC's implementation, there is no "frame back', so the data will jump back by ~500milliseconds
+     * NOTE: VLC has no "frame back", so videos with a frame index step back to the exact previous frame by seeking
+     * to its time, while videos without one jump back by about two frames
      */
     public void reverseFrame()
     {
@@ -1141,6 +1348,23 @@ public class DataModel extends Observable
         // Set our isPlaying flag to the one passed
         this.isPlaying = isPlaying;
 
+        // Start or stop the clock that moves the graphs while playing
+        if(this.isPlaying)
+        {
+            mediaClock.start(getCurrentPosition(), playbackRate);
+        }
+        else
+        {
+            mediaClock.stop();
+            if(playback_debug)
+            {
+                System.out.printf("Media clock: %d time reports, mean drift %.1f ms, max drift %d ms, %d jumps\n",
+                        mediaClock.getReportCount(), mediaClock.getMeanAbsoluteDrift(), mediaClock.getMaxAbsoluteDrift(),
+                        mediaClock.getSnapCount());
+                System.out.print(positionBus.getTimingReport());
+            }
+        }
+
         // Loop through all of the video players
         for(VideoPlayer vp : videoPlayers)
         {
@@ -1186,6 +1410,7 @@ public class DataModel extends Observable
     {
         // Update the Data Model's Playback rate to the one passed.
         this.playbackRate = rate;
+        mediaClock.setRate(rate);
 
         // Loop through all of the video players and update their playback rate.
         for(VideoPlayer vp : videoPlayers)
@@ -1238,9 +1463,94 @@ public class DataModel extends Observable
      * @param updateVideoPlayers Whether to update video players or just DataModel and its observers
      */
     public synchronized void setCurrentPosition(long currentPosition, boolean updateVideoPlayers)
+    {
+        // The position was moved by something other than the media clock, so the clock moves with it
+        mediaClock.seek(currentPosition);
+
+        applyCurrentPosition(currentPosition, updateVideoPlayers);
+    }
+
+    /**
+     * Moves the graphs to a position while the playback slider is being dragged. Video players show the nearest
+     * thumbnail instead of seeking, and only seek if they have no thumbnail for the position. The videos are seeked
+     * properly when the slider is released.
+     *
+     * @param currentPosition Long value representing the position the slider was dragged to
+     */
+    public void scrubTo(long currentPosition)
+    {
+        if(videoPlayers != null)
+        {
+            for(VideoPlayer vp : videoPlayers)
+            {
+                if(!vp.showThumbnail(currentPosition))
+                {
+                    vp.jumpToTime(currentPosition);
+                }
+            }
+        }
+
+        setCurrentPosition(currentPosition, false);
+    }
+
+    /**
+     * Moves the current position to the time of the media clock. Called at the display's refresh rate while playing.
+     */
+    public synchronized void advanceToMediaClock()
+    {
+        applyCurrentPosition(mediaClock.getTime(), false);
+    }
+
+    /**
+     * Passes on a time reported by the master video. While playing the media clock is re-anchored to it, otherwise the
+     * current position is moved straight to it.
+     *
+     * @param time Video time in milliseconds
+     */
+    public void reportMediaTime(long time)
+    {
+        if(isPlaying && mediaClock.isRunning())
+        {
+            mediaClock.report(time);
+        }
+        else
+        {
+            setCurrentPosition(time, false);
+        }
+    }
+
+    /**
+     * Returns the clock used to move the position while playing, which also keeps drift statistics
+     *
+     * @return MediaClock of the data model
+     */
+    public MediaClock getMediaClock()
+    {
+        return mediaClock;
+    }
+
+    /**
+     * Returns how many position changes were posted and delivered to the observers, and how long each observer took
+     * to handle them, slowest first
+     *
+     * @return multi-line report of the position update timings
+     */
+    public String getPositionTimingReport()
+    {
+        return positionBus.getTimingReport();
+    }
+
+    /**
+     * Sets the current position and notifies observers without touching the media clock.
+     *
+     * @param currentPosition    Long value representing the current position of the graph data and video
+     * @param updateVideoPlayers Whether to update video players or just DataModel and its observers
+     */
+    private void applyCurrentPosition(long currentPosition, boolean updateVideoPlayers)
     {
         // Update the current position based on the new time value.
         this.currentPosition = currentPosition;
+        invalidateGraphLineCache();
 
         // If updateVideoPlayers is true, we also need to update the video players to the correct position.
         if(updateVideoPlayers)
@@ -1256,10 +1566,9 @@ public class DataModel extends Observable
             }
         }
 
-        setChanged();
-
-        // Call the local method to notify all observers of changes.
-        notifyObservers();
+        // Tell the observers on the event dispatch thread. Changes made before they are told are coalesced, so a
+        // burst of changes only makes them redraw once for the latest position.
+        positionBus.post();
     }
 
     /**
@@ -1279,6 +1588,9 @@ public class DataModel extends Observable
      *
      * NOTE: This can be updated in the future with more devices and allow for expandability.
      *
+     * The lines are computed once per position, graph offset and graph width and then shared by every caller asking
+     * for the same channel at the same size, so the returned vector must not be modified.
+     *
      * @param device EDeviceType object to determine what analyzer to use (C1Analyzer or C1Maxim)
      * @param chip   Chip associated with channel to be retrieved
      * @param pin    Pin associated with channel to be retrieved
@@ -1288,6 +1600,45 @@ public class DataModel extends Observable
      * @return Vector containing Line objects to be drawn onto the graph
      */
     public Vector<Line> getStateDataForDevice(EDeviceType device, int chip, int pin, int width, int bottom, int height)
+    {
+        synchronized(graphLineCache)
+        {
+            // Drop the cached lines if the position or graph changed without going through one of the setters
+            if(graphLineCachePosition != currentPosition || graphLineCacheOffset != graphOffset || graphLineCacheSeconds != gSeconds)
+            {
+                graphLineCache.clear();
+                graphLineCachePosition = currentPosition;
+                graphLineCacheOffset = graphOffset;
+                graphLineCacheSeconds = gSeconds;
+            }
+
+            GraphLineKey key = new GraphLineKey(device, chip, pin, width, bottom, height);
+            Vector<Line> lines = graphLineCache.get(key);
+            if(lines == null && !graphLineCache.containsKey(key))
+            {
+                lines = computeStateDataForDevice(device, chip, pin, width, bottom, height);
+                graphLineCache.put(key, lines);
+            }
+            return lines;
+        }
+    }
+
+    /**
+     * Clears the graph lines cached for the previous position, graph offset, graph width or data
+     */
+    private void invalidateGraphLineCache()
+    {
+        synchronized(graphLineCache)
+        {
+            graphLineCache.clear();
+        }
+    }
+
+    /**
+     * Computes the state information for a specific device for graphing. Called by getStateDataForDevice when the
+     * lines aren't cached yet.
+     */
+    private Vector<Line> computeStateDataForDevice(EDeviceType device, int chip, int pin, int width, int bottom, int height)
     {
         Vector<Line> toReturn = null;
 
@@ -1320,6 +1671,29 @@ public class DataModel extends Observable
         return toReturn;
     }
 
+    /**
+     * Returns whether a channel is in the high state at the given time
+     *
+     * @param device EDeviceType object to determine what analyzer to use (C1Analyzer or C1Maxim)
+     * @param chip   Chip associated with channel to be checked
+     * @param pin    Pin associated with channel to be checked
+     * @param time   Time to check in milliseconds
+     * @return true if the channel is high, false if it is low, or null if the device has no state data
+     */
+    public Boolean isChannelHigh(EDeviceType device, int chip, int pin, long time)
+    {
+        if(device == EDeviceType.DEVICE_C1 && c1Analyzer != null)
+        {
+            return c1Analyzer.isChannelHigh(chip, pin, time);
+        }
+        else if(device == EDeviceType.DEVICE_C1_MAXIM && c1MaximAnalyzer != null)
+        {
+            return c1MaximAnalyzer.isChannelHigh(chip, pin, time);
+        }
+
+        return null;
+    }
+
     /**
      * Returns variance data for a specific device for graphing
      *
@@ -1350,6 +1724,7 @@ public class DataModel extends Observable
     {
         // Set the graph width
         this.gSeconds = d;
+        invalidateGraphLineCache();
 
         // Notify all observers of the changes
         notifyObservers();
@@ -1376,6 +1751,7 @@ public class DataModel extends Observable
     {
         // Set the graph offset amount to the parameter
         graphOffset = offset;
+        invalidateGraphLineCache();
 
         // Notify all observers that we have changes
         notifyObservers();
@@ -1390,6 +1766,7 @@ public class DataModel extends Observable
     {
         // Set the graph offset amount to the parameter
         graphOffset += offset;
+        invalidateGraphLineCache();
 
         // Notify all observers that we have changes
         setChanged();
@@ -1430,6 +1807,30 @@ public class DataModel extends Observable
 
     // -- Data Model: Observer Methods
 
+    /**
+     * Adds an observer, which is also told about position changes through the position bus.
+     */
+    @Override
+    public synchronized void addObserver(Observer o)
+    {
+        super.addObserver(o);
+        positionBus.addObserver(o);
+    }
+
+    @Override
+    public synchronized void deleteObserver(Observer o)
+    {
+        super.deleteObserver(o);
+        positionBus.removeObserver(o);
+    }
+
+    @Override
+    public synchronized void deleteObservers()
+    {
+        super.deleteObservers();
+        positionBus.removeAllObservers();
+    }
+
     /**
      * Notify all observers that we have changes to make.
      */
@@ -2977,6 +3378,49 @@ public class DataModel extends Observable
         }
     }
 
+    /**
+     * Adds a set of events to the channels associated with their chips and pins, notifying observers once after all
+     * of them have been added instead of once per event. Events for channels without a channel count are skipped, as
+     * they are by addEvent.
+     *
+     * @param events events to add, using the chip, pin, timestamp, offset, tag, comment and omission flag of each
+     * @return number of events added
+     */
+    public int addEvents(List<EventProxy> events)
+    {
+        Set<ChannelCount> updatedChannels = new LinkedHashSet<>();
+        int added = 0;
+
+        for(EventProxy event : events)
+        {
+            //Acquire the channel count associated to the chip and pin numbers, if any
+            Map<Integer, ChannelCount> pinMaps = channelCountCollection.get(event.getChip());
+            ChannelCount updated = (pinMaps != null) ? pinMaps.get(event.getPin()) : null;
+
+            if(updated != null)
+            {
+                updated.addEvent(event.getTimestamp(), event.getOffset(), event.getEventTag(), event.getComment(), event.isOmitted());
+                updatedChannels.add(updated);
+                added++;
+            }
+        }
+
+        //Print each updated channel once rather than after every event
+        for(ChannelCount updated : updatedChannels)
+        {
+            System.out.println(updated);
+        }
+
+        if(added > 0)
+        {
+            //Notify observers once that the events have been added
+            setChanged();
+            notifyObservers("Add Event");
+        }
+
+        return added;
+    }
+
     /**
      * Removes an event associated to a channel
      *
@@ -4475,15 +4919,55 @@ public class DataModel extends Observable
             // If the channel we want matches the current channel, generate the graph objects for it
             if(c.getChip() == chip && c.getPin() == pin)
             {
-//              Vector<C1Object> c1States = c.getC1Objects();
-                for (C1Object o : c.getC1Objects()) {
+                for (int i = 0; i < c.getStateCount(); i++) {
                     //TODO 0 is high state
-                    if (o.getState() == 0) {
-                        highStates.add(o.getMilli());
+                    if (c.getState(i) == 0) {
+                        highStates.add(c.getMilli(i));
                     }
                 }
             }
         }
         return highStates;
     }
+
+    /**
+     * Identifies the graph lines requested for a channel at a particular size. The position, graph offset and graph
+     * width aren't part of the key since the cache only ever holds lines for the current ones.
+     */
+    private static final class GraphLineKey
+    {
+        private final EDeviceType device;
+        private final int chip;
+        private final int pin;
+        private final int width;
+        private final int bottom;
+        private final int height;
+
+        GraphLineKey(EDeviceType device, int chip, int pin, int width, int bottom, int height)
+        {
+            this.device = device;
+            this.chip = chip;
+            this.pin = pin;
+            this.width = width;
+            this.bottom = bottom;
+            this.height = height;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if(!(o instanceof GraphLineKey))
+                return false;
+
+            GraphLineKey other = (GraphLineKey) o;
+            return device == other.device && chip == other.chip && pin == other.pin
+                    && width == other.width && bottom == other.bottom && height == other.height;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(device, chip, pin, width, bottom, height);
+        }
+    }
 }
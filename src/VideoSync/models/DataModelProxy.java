@@ -22,6 +22,7 @@
 package VideoSync.models;
 
 import VideoSync.analyzers.C1Analyzer;
+import VideoSync.analyzers.C1LoadProgress;
 import VideoSync.objects.DeviceInputMap;
 import VideoSync.objects.EDeviceType;
 import VideoSync.objects.InputMappingFile;
@@ -168,6 +169,27 @@ public class DataModelProxy
         dm.setCurrentPosition(time, false);
     }
 
+    /**
+     * Set the current position while the position slider is being dragged, showing video thumbnails instead of
+     * seeking the videos where possible
+     *
+     * @param position Integer value representing the position of the slider
+     */
+    public void setScrubPosition(int position)
+    {
+        this.dm.scrubTo(position);
+    }
+
+    /**
+     * Report the time of the master video so the media clock can stay in sync with it
+     *
+     * @param time Long value representing the time of the master video
+     */
+    public void reportMediaTime(long time)
+    {
+        dm.reportMediaTime(time);
+    }
+
     /**
      * Set the current position based on a slider's value and update video players
      *
@@ -258,6 +280,34 @@ public class DataModelProxy
         return this.dm.getStateDataForDevice(device, chip, pin, width, base, height);
     }
 
+    /**
+     * Returns whether a channel is in the high state at the current position of the graphs, which is the time at the
+     * middle of the graph
+     *
+     * @param device EDeviceType object to determine what analyzer to use (C1Analyzer or C1Maxim)
+     * @param chip   Chip associated with channel to be checked
+     * @param pin    Pin associated with channel to be checked
+     * @return true if the channel is high, false if it is low, or null if the device has no state data
+     */
+    public Boolean isChannelHigh(EDeviceType device, int chip, int pin)
+    {
+        return this.dm.isChannelHigh(device, chip, pin, this.dm.getCurrentPosition() + this.dm.getGraphOffset());
+    }
+
+    /**
+     * Returns whether a channel is in the high state at the given time
+     *
+     * @param device EDeviceType object to determine what analyzer to use (C1Analyzer or C1Maxim)
+     * @param chip   Chip associated with channel to be checked
+     * @param pin    Pin associated with channel to be checked
+     * @param time   Time to check in milliseconds, including the graph offset
+     * @return true if the channel is high, false if it is low, or null if the device has no state data
+     */
+    public Boolean isChannelHigh(EDeviceType device, int chip, int pin, long time)
+    {
+        return this.dm.isChannelHigh(device, chip, pin, time);
+    }
+
     /**
      * Returns variance data for a specific device for graphing
      *
@@ -299,6 +349,16 @@ public class DataModelProxy
         return this.dm.getCurrentPosition();
     }
 
+    /**
+     * Return the progress of the C1 file currently being streamed in
+     *
+     * @return progress of the load, or null if no file has been streamed
+     */
+    public C1LoadProgress getC1LoadProgress()
+    {
+        return this.dm.getC1LoadProgress();
+    }
+
     /**
      * Return the max value to set the slider to.
      *
@@ -0,0 +1,220 @@
+package VideoSync.models;
+
+/**
+ * Master playback clock used to move the graphs and regions smoothly while the videos play. VLC only reports the
+ * time of a video every few hundred milliseconds, so between reports the clock advances on its own from
+ * System.nanoTime() at the playback rate.
+ * <p>
+ * Each report from the master video re-anchors the clock. The difference between the reported time and the time the
+ * clock had reached is recorded as drift. Small drift is spread over the following SLEW_MILLIS so the position doesn't
+ * jump or run backwards. Drift larger than SNAP_MILLIS, such as after a seek or a slow start, is applied at once.
+ */
+public class MediaClock
+{
+    /**
+     * Time over which a small correction is spread, in milliseconds
+     */
+    private static final long SLEW_MILLIS = 500;
+
+    /**
+     * Drift above which the clock jumps straight to the reported time, in milliseconds
+     */
+    private static final long SNAP_MILLIS = 400;
+
+    /**
+     * Media time at the anchor, in milliseconds
+     */
+    private long anchorTime;
+
+    /**
+     * System.nanoTime() at the anchor
+     */
+    private long anchorNanos;
+
+    /**
+     * Difference between the clock's time and the reported time at the anchor, removed gradually over SLEW_MILLIS
+     */
+    private long correction;
+
+    private float rate = 1;
+    private boolean running;
+
+    // Drift statistics since the clock was last started
+    private int reportCount;
+    private long lastDrift;
+    private long totalAbsoluteDrift;
+    private long maxAbsoluteDrift;
+    private int snapCount;
+
+    /**
+     * Starts the clock from the given time, clearing the drift statistics
+     *
+     * @param time media time to start from in milliseconds
+     * @param rate playback rate, where 1 is normal speed
+     */
+    public synchronized void start(long time, float rate)
+    {
+        this.rate = rate;
+        running = true;
+        setAnchor(time, 0);
+
+        reportCount = 0;
+        lastDrift = 0;
+        totalAbsoluteDrift = 0;
+        maxAbsoluteDrift = 0;
+        snapCount = 0;
+    }
+
+    /**
+     * Stops the clock at its current time
+     */
+    public synchronized void stop()
+    {
+        if(running)
+        {
+            setAnchor(getTime(), 0);
+            running = false;
+        }
+    }
+
+    /**
+     * Moves the clock to the given time without counting it as drift, for jumps made by the user
+     *
+     * @param time media time in milliseconds
+     */
+    public synchronized void seek(long time)
+    {
+        setAnchor(time, 0);
+    }
+
+    /**
+     * Changes the playback rate from the current time onwards
+     *
+     * @param rate playback rate, where 1 is normal speed
+     */
+    public synchronized void setRate(float rate)
+    {
+        long now = System.nanoTime();
+        setAnchor(timeAt(now), 0, now);
+        this.rate = rate;
+    }
+
+    /**
+     * Re-anchors the clock to a time reported by the master video and records how far the clock had drifted from it
+     *
+     * @param reportedTime media time reported by VLC in milliseconds
+     */
+    public synchronized void report(long reportedTime)
+    {
+        long now = System.nanoTime();
+        long clockTime = timeAt(now);
+        long drift = clockTime - reportedTime;
+
+        reportCount++;
+        lastDrift = drift;
+        totalAbsoluteDrift += Math.abs(drift);
+        maxAbsoluteDrift = Math.max(maxAbsoluteDrift, Math.abs(drift));
+
+        // A clock too far ahead to slew back within SLEW_MILLIS at this rate would have to run backwards, so it jumps
+        if(!running || Math.abs(drift) > SNAP_MILLIS || drift > rate * SLEW_MILLIS)
+        {
+            snapCount++;
+            setAnchor(reportedTime, 0, now);
+        }
+        else
+        {
+            // Keep showing the clock's time now and reach the reported timeline by the end of the slew
+            setAnchor(reportedTime, drift, now);
+        }
+    }
+
+    /**
+     * Returns the interpolated media time
+     *
+     * @return media time in milliseconds
+     */
+    public synchronized long getTime()
+    {
+        return timeAt(System.nanoTime());
+    }
+
+    public synchronized boolean isRunning()
+    {
+        return running;
+    }
+
+    /**
+     * Returns the number of times VLC reported the time since the clock was started
+     *
+     * @return number of reports
+     */
+    public synchronized int getReportCount()
+    {
+        return reportCount;
+    }
+
+    /**
+     * Returns how far the clock was ahead of the last reported time. Negative values mean the clock was behind.
+     *
+     * @return drift in milliseconds
+     */
+    public synchronized long getLastDrift()
+    {
+        return lastDrift;
+    }
+
+    /**
+     * Returns the average distance between the clock and the reported times
+     *
+     * @return mean absolute drift in milliseconds
+     */
+    public synchronized double getMeanAbsoluteDrift()
+    {
+        return reportCount == 0 ? 0 : (double) totalAbsoluteDrift / reportCount;
+    }
+
+    /**
+     * Returns the largest distance between the clock and a reported time
+     *
+     * @return maximum absolute drift in milliseconds
+     */
+    public synchronized long getMaxAbsoluteDrift()
+    {
+        return maxAbsoluteDrift;
+    }
+
+    /**
+     * Returns the number of reports that were too far from the clock to slew to and were jumped to instead
+     *
+     * @return number of snaps
+     */
+    public synchronized int getSnapCount()
+    {
+        return snapCount;
+    }
+
+    private void setAnchor(long time, long correction)
+    {
+        setAnchor(time, correction, System.nanoTime());
+    }
+
+    private void setAnchor(long time, long correction, long nanos)
+    {
+        anchorTime = time;
+        anchorNanos = nanos;
+        this.correction = correction;
+    }
+
+    /**
+     * Returns the clock's time at the given System.nanoTime()
+     */
+    private long timeAt(long nanos)
+    {
+        if(!running)
+            return anchorTime + correction;
+
+        double elapsedMillis = (nanos - anchorNanos) / 1_000_000.0;
+        double remainingCorrection = correction * Math.max(0, 1 - elapsedMillis / SLEW_MILLIS);
+        return anchorTime + (long) (elapsedMillis * rate + remainingCorrection);
+    }
+}
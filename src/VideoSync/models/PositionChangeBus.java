@@ -0,0 +1,182 @@
+package VideoSync.models;
+
+import javax.swing.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Observable;
+import java.util.Observer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers changes of the current position to the observers of the DataModel. Positions can be set from any thread,
+ * including VLC's event thread, and often far faster than they can be drawn, so changes are coalesced: observers are
+ * notified at most once per frame on the event dispatch thread and read the latest position when they are.
+ * <p>
+ * The time each observer takes to handle a position change is recorded so slow observers can be found.
+ */
+class PositionChangeBus implements ActionListener
+{
+    /**
+     * Highest rate observers are notified at, however often the position changes
+     */
+    private static final int MAX_DISPATCH_RATE = 60;
+    private static final long MIN_DISPATCH_INTERVAL_NANOS = 1_000_000_000L / MAX_DISPATCH_RATE;
+
+    /**
+     * Observable and argument passed to the observers, the same as a notification from the DataModel
+     */
+    private final Observable source;
+    private final Object argument;
+
+    /**
+     * Observers of the DataModel, newest first to match the order Observable notifies them in
+     */
+    private final List<Observer> observers = new CopyOnWriteArrayList<>();
+
+    private final Map<Observer, ListenerTiming> timings = new ConcurrentHashMap<>();
+
+    /**
+     * Set while a dispatch is waiting to run, so further changes are coalesced into it
+     */
+    private final AtomicBoolean dispatchRequested = new AtomicBoolean();
+
+    /**
+     * Delays a dispatch that would otherwise exceed MAX_DISPATCH_RATE
+     */
+    private final Timer dispatchTimer;
+
+    private volatile long lastDispatchNanos;
+    private final AtomicLong postCount = new AtomicLong();
+    private final AtomicLong dispatchCount = new AtomicLong();
+
+    /**
+     * Creates the bus for an Observable
+     *
+     * @param source   Observable passed to the observers
+     * @param argument argument passed to the observers
+     */
+    PositionChangeBus(Observable source, Object argument)
+    {
+        this.source = source;
+        this.argument = argument;
+
+        dispatchTimer = new Timer(0, this);
+        dispatchTimer.setRepeats(false);
+    }
+
+    void addObserver(Observer o)
+    {
+        if(!observers.contains(o))
+        {
+            observers.add(0, o);
+        }
+    }
+
+    void removeObserver(Observer o)
+    {
+        observers.remove(o);
+        timings.remove(o);
+    }
+
+    void removeAllObservers()
+    {
+        observers.clear();
+        timings.clear();
+    }
+
+    /**
+     * Requests that observers be told the position changed. Can be called from any thread.
+     */
+    void post()
+    {
+        postCount.incrementAndGet();
+        if(!dispatchRequested.compareAndSet(false, true))
+        {
+            return;
+        }
+
+        long waitMillis = (lastDispatchNanos + MIN_DISPATCH_INTERVAL_NANOS - System.nanoTime()) / 1_000_000;
+        if(waitMillis <= 0)
+        {
+            SwingUtilities.invokeLater(this::dispatch);
+        }
+        else
+        {
+            dispatchTimer.setInitialDelay((int) waitMillis);
+            dispatchTimer.restart();
+        }
+    }
+
+    /**
+     * Invoked by the dispatch timer
+     */
+    @Override
+    public void actionPerformed(ActionEvent e)
+    {
+        dispatch();
+    }
+
+    /**
+     * Notifies every observer of the latest position on the event dispatch thread
+     */
+    private void dispatch()
+    {
+        //Clear the request first so changes made by the observers request another dispatch.
+        dispatchRequested.set(false);
+        lastDispatchNanos = System.nanoTime();
+        dispatchCount.incrementAndGet();
+
+        for(Observer o : observers)
+        {
+            long start = System.nanoTime();
+            o.update(source, argument);
+            timings.computeIfAbsent(o, k -> new ListenerTiming()).record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns the number of position changes posted and the number of times observers were notified, followed by
+     * the handling time of each observer, slowest first
+     *
+     * @return multi-line report
+     */
+    String getTimingReport()
+    {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Position updates: %d posted, %d dispatched%n", postCount.get(), dispatchCount.get()));
+
+        List<Map.Entry<Observer, ListenerTiming>> entries = new ArrayList<>(timings.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue().totalNanos, a.getValue().totalNanos));
+        for(Map.Entry<Observer, ListenerTiming> entry : entries)
+        {
+            ListenerTiming timing = entry.getValue();
+            report.append(String.format(" - %s: %d updates, average %.3f ms, longest %.3f ms%n",
+                    entry.getKey().getClass().getSimpleName(), timing.count, timing.totalNanos / 1e6 / Math.max(timing.count, 1),
+                    timing.maxNanos / 1e6));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Handling time of one observer
+     */
+    private static class ListenerTiming
+    {
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+
+        private void record(long nanos)
+        {
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+    }
+}
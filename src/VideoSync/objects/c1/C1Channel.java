@@ -2,6 +2,10 @@ package VideoSync.objects.c1;
 
 import VideoSync.objects.Pair;
 
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
 import java.util.Vector;
 
 public class C1Channel implements Comparable<C1Channel>
@@ -28,19 +32,63 @@ public class C1Channel implements Comparable<C1Channel>
     private int currentJumpElementIndex;
 
     /**
-     * Stores all of the elements for the specific channel in chronological order
+     * Initial capacity of the transition arrays before they start growing
      */
-    private final Vector<C1Object> c1Objects;
+    private static final int INITIAL_STATE_CAPACITY = 64;
+
+    /**
+     * Stores the millisecond value of every transition for the specific channel in chronological order.
+     * Only the first stateCount elements are valid.
+     */
+    private long[] millis;
+
+    /**
+     * Stores the state of every transition, parallel to the millis array
+     */
+    private byte[] states;
+
+    /**
+     * Number of transitions currently stored in the millis and states arrays. Volatile so that while a streaming load
+     * appends transitions, other threads always see arrays holding at least this many elements.
+     */
+    private volatile int stateCount;
+
+    /**
+     * True as long as every transition was added in chronological order, which allows window queries to binary
+     * search the millis array. Falls back to a linear scan otherwise.
+     */
+    private boolean statesOrdered = true;
+
+    /**
+     * Read-only view of the transition arrays as C1Objects
+     */
+    private final List<C1Object> c1ObjectsView;
 
     /**
      * Returns a subset of the states that are to be graphed
      */
     private Vector<C1Object> graphC1Objects;
 
+    /**
+     * Index of the first (latest) state returned by the last call to getStates
+     */
+    private int graphStartIndex = -1;
+
     private Vector<C1Event> c1EventObjects;
 
     private Vector<C1Event> graphC1EventObjects;
 
+    /**
+     * True as long as events were added in chronological order without overlapping, meaning both their start and
+     * end times are sorted and window queries can binary search them. Falls back to a linear scan otherwise.
+     */
+    private boolean eventsOrdered = true;
+
+    /**
+     * Multi-resolution summary of the transitions, built once loading has finished. Null until then.
+     */
+    private volatile C1Pyramid pyramid;
+
     // -- C1Channel Constructor
 
     /**
@@ -54,7 +102,9 @@ public class C1Channel implements Comparable<C1Channel>
         this.pin = pin;
         this.chip = chip;
         this.channelNumber = c1PinFinder(chip, pin);
-        c1Objects = new Vector<>();
+        millis = new long[INITIAL_STATE_CAPACITY];
+        states = new byte[INITIAL_STATE_CAPACITY];
+        c1ObjectsView = new C1ObjectView();
         c1EventObjects = new Vector<>();
     }
 
@@ -96,30 +146,275 @@ public class C1Channel implements Comparable<C1Channel>
     }
 
     /**
-     * Return the array with all of this channel's objects
+     * Return a read-only view of all of this channel's transitions. C1Objects are created on access,
+     * so prefer getMilli/getState when iterating over a large channel.
      *
      * @return collection of C1Objects
      */
-    public Vector<C1Object> getC1Objects()
+    public List<C1Object> getC1Objects()
     {
-        return this.c1Objects;
+        return this.c1ObjectsView;
     }
 
     /**
-     * Add a C1 Object to the objects array
+     * Add a C1 Object to the end of the transition arrays
      *
      * @param object C1Object to add to list of objects
      */
     public void addC1Object(C1Object object)
     {
-        c1Objects.add(object);
+        addState(object.getMilli(), object.getState());
+    }
+
+    /**
+     * Add a transition to the end of the transition arrays
+     *
+     * @param time  millisecond value of the transition
+     * @param state state of the channel after the transition
+     */
+    public void addState(long time, int state)
+    {
+        ensureCapacity(stateCount + 1);
+
+        if(stateCount > 0 && time < millis[stateCount - 1])
+            statesOrdered = false;
+
+        millis[stateCount] = time;
+        states[stateCount] = (byte) state;
+        stateCount++;
+    }
+
+    /**
+     * Replaces all of this channel's transitions with the given arrays, which are used directly rather than copied
+     *
+     * @param millis millisecond value of every transition
+     * @param states state of every transition, parallel to millis
+     */
+    public void setStates(long[] millis, byte[] states)
+    {
+        if(millis.length != states.length)
+            throw new IllegalArgumentException("Transition arrays differ in length: " + millis.length + ", " + states.length);
+
+        this.millis = millis;
+        this.states = states;
+        this.stateCount = millis.length;
+
+        statesOrdered = true;
+        for(int i = 1; i < stateCount && statesOrdered; i++)
+        {
+            if(millis[i] < millis[i - 1])
+                statesOrdered = false;
+        }
+    }
+
+    /**
+     * Insert a transition at the given index, moving all subsequent transitions by +1
+     *
+     * @param index index to insert the transition at
+     * @param time  millisecond value of the transition
+     * @param state state of the channel after the transition
+     */
+    public void insertState(int index, long time, int state)
+    {
+        if(index < 0 || index > stateCount)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + stateCount);
+
+        ensureCapacity(stateCount + 1);
+
+        if((index > 0 && time < millis[index - 1]) || (index < stateCount && time > millis[index]))
+            statesOrdered = false;
+
+        System.arraycopy(millis, index, millis, index + 1, stateCount - index);
+        System.arraycopy(states, index, states, index + 1, stateCount - index);
+
+        millis[index] = time;
+        states[index] = (byte) state;
+        stateCount++;
+    }
+
+    /**
+     * Remove the latest transition from the transition arrays
+     */
+    public void removeLastState()
+    {
+        if(stateCount > 0)
+            stateCount--;
+    }
+
+    /**
+     * Returns the number of transitions stored for this channel
+     *
+     * @return number of transitions
+     */
+    public int getStateCount()
+    {
+        return stateCount;
+    }
+
+    /**
+     * Returns the millisecond value of the transition at the given index
+     *
+     * @param index index of the transition
+     * @return millisecond value of the transition
+     */
+    public long getMilli(int index)
+    {
+        checkStateIndex(index);
+        return millis[index];
+    }
+
+    /**
+     * Returns the state of the transition at the given index
+     *
+     * @param index index of the transition
+     * @return state of the channel after the transition
+     */
+    public int getState(int index)
+    {
+        checkStateIndex(index);
+        return states[index];
+    }
+
+    /**
+     * Creates a C1Object representing the transition at the given index
+     *
+     * @param index index of the transition
+     * @return new C1Object for the transition
+     */
+    public C1Object getC1Object(int index)
+    {
+        checkStateIndex(index);
+        return new C1Object(millis[index], states[index], chip, pin);
+    }
+
+    /**
+     * Releases any unused capacity in the transition and event arrays. Called once loading has finished.
+     */
+    public void trimToSize()
+    {
+        if(millis.length != stateCount)
+        {
+            millis = Arrays.copyOf(millis, stateCount);
+            states = Arrays.copyOf(states, stateCount);
+        }
+
+        c1EventObjects.trimToSize();
+    }
+
+    /**
+     * Returns a copy of this channel with no unused capacity in its transition and event arrays. Used to finish a
+     * channel that readers may already be using, whose arrays must never shrink underneath them.
+     *
+     * @param dropLastState true to leave the latest transition out of the copy
+     * @return new channel holding the same transitions and events
+     */
+    public C1Channel trimmedCopy(boolean dropLastState)
+    {
+        int count = stateCount;
+        if(dropLastState && count > 0)
+            count--;
+
+        C1Channel copy = new C1Channel(chip, pin);
+        copy.setStates(Arrays.copyOf(millis, count), Arrays.copyOf(states, count));
+        copy.currentJumpElementIndex = Math.min(currentJumpElementIndex, Math.max(count - 1, 0));
+
+        copy.c1EventObjects = new Vector<>(c1EventObjects.size());
+        for(C1Event event : c1EventObjects)
+        {
+            copy.addC1Event(event);
+        }
+
+        return copy;
+    }
+
+    /**
+     * Returns the number of bytes retained by this channel's transitions and events, based on the capacity of the
+     * backing arrays and a 64-bit JVM with compressed references (12 byte object headers, 4 byte references).
+     *
+     * @return approximate number of bytes used to store the channel data
+     */
+    public long getRetainedSize()
+    {
+        // Array header (16 bytes, padded) plus the elements of each of the transition arrays
+        long size = align(16 + 8L * millis.length) + align(16 + (long) states.length);
+
+        // Vector object, its element array, and each event (two longs, two ints)
+        size += align(24) + align(16 + 4L * c1EventObjects.capacity());
+        size += align(12 + 8 + 8 + 4 + 4) * (long) c1EventObjects.size();
+
+        return size;
+    }
+
+    /**
+     * Builds the multi-resolution summary of the channel's transitions used to draw overviews of the data
+     *
+     * @param endTime time the summary ends at, normally the last transition time of all channels
+     */
+    public void buildPyramid(long endTime)
+    {
+        pyramid = new C1Pyramid(this, endTime);
+    }
+
+    /**
+     * Returns the multi-resolution summary of the channel's transitions
+     *
+     * @return summary of the channel, or null if it hasn't been built yet
+     */
+    public C1Pyramid getPyramid()
+    {
+        return pyramid;
+    }
+
+    private static long align(long size)
+    {
+        return (size + 7) & ~7L;
+    }
+
+    private void ensureCapacity(int capacity)
+    {
+        if(capacity > millis.length)
+        {
+            int newCapacity = Math.max(capacity, millis.length + (millis.length >> 1) + 1);
+            millis = Arrays.copyOf(millis, newCapacity);
+            states = Arrays.copyOf(states, newCapacity);
+        }
+    }
+
+    private void checkStateIndex(int index)
+    {
+        if(index < 0 || index >= stateCount)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + stateCount);
     }
 
     public void addC1Event(C1Event event)
     {
+        if(!c1EventObjects.isEmpty() && event.getStartTime() < c1EventObjects.lastElement().getEndTime())
+            eventsOrdered = false;
+
         c1EventObjects.add(event);
     }
 
+    /**
+     * Returns the number of events stored for this channel
+     *
+     * @return number of events
+     */
+    public int getEventCount()
+    {
+        return c1EventObjects.size();
+    }
+
+    /**
+     * Returns the event at the given index, in the order the events were added
+     *
+     * @param index index of the event
+     * @return event at the index
+     */
+    public C1Event getEvent(int index)
+    {
+        return c1EventObjects.get(index);
+    }
+
     // -- C1 Object Comparison
 
     /**
@@ -144,49 +439,80 @@ public class C1Channel implements Comparable<C1Channel>
     {
         // Assign/Re-assign the graph objects for storing the objects to be graphed
         graphC1Objects = new Vector<>();
+        graphStartIndex = -1;
 
-        // Start at the beginning of the array and work towards the end searching for any objects
-        for(int i = 0; i < c1Objects.size(); i++)
+        if(stateCount == 0)
         {
-            // Assign a C1 object to be checked against
-            C1Object o1 = c1Objects.elementAt(i);
-
-            // Check to see if right is less than the object
-            // If we reach the end, use all elements to avoid graph dropping off at end of data.
-            // Still need to do search to keep performance up.
-            // TODO: These conditions are super confusing...should be cleaned up
-            if(maxTime < o1.getMilli() || (i == c1Objects.size() - 1))
-            {
-                if(i == c1Objects.size() - 1 && o1.getMilli() > minTime)
-                {
-                    graphC1Objects.add(o1);
-                }
+            return graphC1Objects;
+        }
 
-                // As long as we are not looking at the element at index 0, we can find all previous elements
-                if(i > 0 && o1.getMilli() > minTime)
-                {
-                    // Get all previous elements starting at index i, and ones that are greater than left
-                    getPreviousElements(i, currentTime, minTime);
-                }
+        // Find the first object past the right edge of the window.
+        // If we reach the end, use all elements to avoid graph dropping off at end of data.
+        // TODO: These conditions are super confusing...should be cleaned up
+        int i = Math.min(findFirstStateAfter(maxTime), stateCount - 1);
 
-                break;
-            }
+        if(i == stateCount - 1 && millis[i] > minTime)
+        {
+            graphC1Objects.add(getC1Object(i));
+            graphStartIndex = i;
+        }
+
+        // As long as we are not looking at the element at index 0, we can find all previous elements
+        if(i > 0 && millis[i] > minTime)
+        {
+            // Get all previous elements starting at index i, and ones that are greater than left
+            getPreviousElements(i, currentTime, minTime);
         }
 
         return graphC1Objects;
     }
 
+    /**
+     * Returns the index of the first state returned by the last call to getStates, which is the latest state in
+     * the window since states are returned in reverse order.
+     *
+     * @return index of the first graphed state, or -1 if no states were returned
+     */
+    public int getGraphStartIndex()
+    {
+        return graphStartIndex;
+    }
+
+    /**
+     * Returns all of the events that overlap the window between the min and max time, in chronological order.
+     *
+     * @param minTime earliest time to fetch events from
+     * @param maxTime latest time to fetch events from
+     * @return collection of C1Events that end at or after minTime and start at or before maxTime
+     */
     public Vector<C1Event> getEvents(long minTime, long maxTime)
     {
         // Assign/Re-assign the graph objects for storing the objects to be graphed
         graphC1EventObjects = new Vector<>();
 
-        for(C1Event e : c1EventObjects)
+        if(!eventsOrdered)
+        {
+            for(C1Event e : c1EventObjects)
+            {
+                if(e.getStartTime() <= maxTime && e.getEndTime() >= minTime)
+                {
+                    graphC1EventObjects.add(e);
+                }
+            }
+
+            return graphC1EventObjects;
+        }
+
+        // Start at the first event still going on at minTime and stop at the first event starting after maxTime
+        for(int i = findFirstEventEndingAtOrAfter(minTime); i < c1EventObjects.size(); i++)
         {
-            if(e.getStartTime() <= maxTime && e.getEndTime() >= minTime)
+            C1Event e = c1EventObjects.get(i);
+            if(e.getStartTime() > maxTime)
             {
-                graphC1EventObjects.add(e);
+                break;
             }
+
+            graphC1EventObjects.add(e);
         }
 
         return graphC1EventObjects;
@@ -197,23 +523,131 @@ public class C1Channel implements Comparable<C1Channel>
         Vector<C1Event> collectedEvents = new Vector<>();
 
         // Find event closest to centerTime
-        C1Event closest = c1EventObjects.firstElement();
-        for(C1Event e : c1EventObjects)
+        int objIdx = findClosestEvent(centerTime);
+
+        for(int i = Math.max(objIdx - n, 0); i <= Math.min(objIdx + n, c1EventObjects.size()-1); i++)
+        {
+            collectedEvents.add(c1EventObjects.get(i));
+        }
+
+        return collectedEvents;
+    }
+
+    /**
+     * Returns the index of the event whose halfway time is closest to centerTime, preferring the earlier event on ties
+     *
+     * @param centerTime time to compare event halfway times against
+     * @return index of the closest event
+     */
+    private int findClosestEvent(long centerTime)
+    {
+        if(!eventsOrdered)
         {
-            if(Math.abs(e.getHalfwayTime() - centerTime) < Math.abs(closest.getHalfwayTime() - centerTime))
+            int closest = 0;
+            for(int i = 1; i < c1EventObjects.size(); i++)
             {
-                closest = e;
+                if(Math.abs(c1EventObjects.get(i).getHalfwayTime() - centerTime) < Math.abs(c1EventObjects.get(closest).getHalfwayTime() - centerTime))
+                {
+                    closest = i;
+                }
             }
+
+            return closest;
         }
 
-        int objIdx = c1EventObjects.indexOf(closest);
+        // Binary search for the first event whose halfway time is at or after centerTime
+        int low = 0;
+        int high = c1EventObjects.size();
+        while(low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if(c1EventObjects.get(mid).getHalfwayTime() < centerTime)
+                low = mid + 1;
+            else
+                high = mid;
+        }
 
-        for(int i = Math.max(objIdx - n, 0); i <= Math.min(objIdx + n, c1EventObjects.size()-1); i++)
+        // The closest event is either that one or the one right before it
+        if(low == c1EventObjects.size())
+            return low - 1;
+
+        if(low > 0 && Math.abs(c1EventObjects.get(low - 1).getHalfwayTime() - centerTime) <= Math.abs(c1EventObjects.get(low).getHalfwayTime() - centerTime))
+            return low - 1;
+
+        return low;
+    }
+
+    /**
+     * Returns the index of the first event that ends at or after the given time, or the number of events if there
+     * is none. Requires the events to be ordered.
+     *
+     * @param time time to search for
+     * @return index of the first event ending at or after time
+     */
+    private int findFirstEventEndingAtOrAfter(long time)
+    {
+        int low = 0;
+        int high = c1EventObjects.size();
+        while(low < high)
         {
-            collectedEvents.add(c1EventObjects.get(i));
+            int mid = (low + high) >>> 1;
+            if(c1EventObjects.get(mid).getEndTime() < time)
+                low = mid + 1;
+            else
+                high = mid;
         }
 
-        return collectedEvents;
+        return low;
+    }
+
+    /**
+     * Returns the state of the channel at the given time, which is the state of the last transition at or before it.
+     * Times before the first transition take the first state, matching how the graph is extended past the data.
+     *
+     * @param time time to look up in milliseconds
+     * @return state at the time, or -1 if the channel has no transitions
+     */
+    public int getStateAt(long time)
+    {
+        if(stateCount == 0)
+        {
+            return -1;
+        }
+
+        return states[Math.max(findFirstStateAfter(time) - 1, 0)];
+    }
+
+    /**
+     * Returns the index of the first transition that happens after the given time, or stateCount if there is none
+     *
+     * @param time time to search for
+     * @return index of the first transition after time
+     */
+    private int findFirstStateAfter(long time)
+    {
+        if(!statesOrdered)
+        {
+            for(int i = 0; i < stateCount; i++)
+            {
+                if(millis[i] > time)
+                    return i;
+            }
+
+            return stateCount;
+        }
+
+        int low = 0;
+        int high = stateCount;
+        while(low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if(millis[mid] <= time)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+
+        return low;
     }
 
     /**
@@ -229,8 +663,8 @@ public class C1Channel implements Comparable<C1Channel>
     {
         //Get the first and last C1 states and figure out which is closer to the current timestamp
         //This assumes that the objects vector is already sorted by timestamp
-        C1Object first = c1Objects.firstElement();
-        C1Object last = c1Objects.lastElement();
+        C1Object first = getC1Object(0);
+        C1Object last = getC1Object(stateCount - 1);
         C1Object edgeApproximation;
         if((currentTime - first.getMilli()) < (last.getMilli() - currentTime))
         {
@@ -269,11 +703,16 @@ public class C1Channel implements Comparable<C1Channel>
             if(newIndex >= 0)
             {
                 // Assign a C1 object from the selected index
-                C1Object o = c1Objects.elementAt(newIndex);
+                C1Object o = getC1Object(newIndex);
 
                 // Add the C1 object to the graphObjects array
                 graphC1Objects.add(o);
 
+                if(graphStartIndex == -1)
+                {
+                    graphStartIndex = newIndex;
+                }
+
                 if(setJumpIndex && o.getMilli() <= currentTime)
                 {
                     currentJumpElementIndex = newIndex;
@@ -371,4 +810,22 @@ public class C1Channel implements Comparable<C1Channel>
 
         return channel;
     }
+
+    /**
+     * Read-only list view over the transition arrays. Elements are created on access.
+     */
+    private class C1ObjectView extends AbstractList<C1Object> implements RandomAccess
+    {
+        @Override
+        public C1Object get(int index)
+        {
+            return getC1Object(index);
+        }
+
+        @Override
+        public int size()
+        {
+            return stateCount;
+        }
+    }
 }
@@ -1,33 +1,65 @@
 package VideoSync.objects.c1;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.Objects;
 
 public class C1Event implements Serializable, Comparable<C1Event>
 {
-    private final C1Object startObject;
-    private final C1Object endObject;
+    /**
+     * Matches the version of the class that stored its start and end as C1Objects so that saved sessions still load
+     */
+    private static final long serialVersionUID = 4674599619771266565L;
+
+    /**
+     * Events are still written as a start and end C1Object to keep the serialized form unchanged
+     */
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("startObject", C1Object.class),
+            new ObjectStreamField("endObject", C1Object.class),
+            new ObjectStreamField("chip", int.class),
+            new ObjectStreamField("pin", int.class)
+    };
+
+    /**
+     * Used to keep track of the time the event started (rising edge)
+     */
+    private long startTime;
+
+    /**
+     * Used to keep track of the time the event ended (falling edge)
+     */
+    private long endTime;
 
     /**
      * Used to keep track of the chip number
      */
-    private final int chip;
+    private int chip;
 
     /**
      * Used to keep track of the pin
      */
-    private final int pin;
+    private int pin;
 
     public C1Event(int chip, int pin, C1Object start, C1Object end)
     {
+        this(chip, pin, start.getMilli(), end.getMilli());
+
         assert start.getState() == 1;
         assert end.getState() == 0;
-        assert start.getMilli() > end.getMilli();
         assert start.getChip() == end.getChip();
         assert start.getPin() == end.getPin();
+    }
 
-        startObject = start;
-        endObject = end;
+    public C1Event(int chip, int pin, long startTime, long endTime)
+    {
+        assert startTime <= endTime;
+
+        this.startTime = startTime;
+        this.endTime = endTime;
 
         this.pin = pin;
         this.chip = chip;
@@ -35,22 +67,22 @@ public class C1Event implements Serializable, Comparable<C1Event>
 
     public long getStartTime()
     {
-        return startObject.getMilli();
+        return startTime;
     }
 
     public long getHalfwayTime()
     {
-        return startObject.getMilli() + (endObject.getMilli() - startObject.getMilli())/2;
+        return startTime + (endTime - startTime)/2;
     }
 
     public long getEndTime()
     {
-        return endObject.getMilli();
+        return endTime;
     }
 
     public long getDuration()
     {
-        return endObject.getMilli() - startObject.getMilli();
+        return endTime - startTime;
     }
 
     public int getChip()
@@ -106,4 +138,26 @@ public class C1Event implements Serializable, Comparable<C1Event>
     {
         return (int) (this.getStartTime() - o.getStartTime());
     }
+
+    private void writeObject(ObjectOutputStream out) throws IOException
+    {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("startObject", new C1Object(startTime, 1, chip, pin));
+        fields.put("endObject", new C1Object(endTime, 0, chip, pin));
+        fields.put("chip", chip);
+        fields.put("pin", pin);
+        out.writeFields();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+    {
+        ObjectInputStream.GetField fields = in.readFields();
+        C1Object start = (C1Object) fields.get("startObject", null);
+        C1Object end = (C1Object) fields.get("endObject", null);
+
+        startTime = start.getMilli();
+        endTime = end.getMilli();
+        chip = fields.get("chip", 0);
+        pin = fields.get("pin", 0);
+    }
 }
@@ -0,0 +1,161 @@
+package VideoSync.objects.c1;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Events of a channel sorted by start time, for finding an event's neighbours and the events before or after a time
+ * by binary search instead of scanning and re-sorting the channel for every event.
+ * <p>
+ * Events are sorted the same way Collections.sort orders them, so positions match those in a sorted copy of the
+ * channel's events.
+ */
+public class C1EventIndex
+{
+    private final List<C1Event> events;
+
+    /**
+     * Latest end time of the events up to and including each position. Events can overlap, so the end times
+     * themselves aren't sorted, but these are.
+     */
+    private final long[] maxEndTimes;
+
+    /**
+     * Creates the index of a set of events. The events are copied, so later changes to the collection don't affect it.
+     *
+     * @param events events to index
+     */
+    public C1EventIndex(Collection<C1Event> events)
+    {
+        this.events = new ArrayList<>(events);
+        Collections.sort(this.events);
+
+        maxEndTimes = new long[this.events.size()];
+        long maxEnd = Long.MIN_VALUE;
+        for(int i = 0; i < maxEndTimes.length; i++)
+        {
+            maxEnd = Math.max(maxEnd, this.events.get(i).getEndTime());
+            maxEndTimes[i] = maxEnd;
+        }
+    }
+
+    public int size()
+    {
+        return events.size();
+    }
+
+    public C1Event get(int index)
+    {
+        return events.get(index);
+    }
+
+    /**
+     * Returns the position of the first event equal to the given one
+     *
+     * @param event event to find
+     * @return position of the event, or -1 if it isn't in the index
+     */
+    public int indexOf(C1Event event)
+    {
+        // Equal events have equal start times, so only the events starting at the same time need comparing
+        for(int i = findFirstStartingAtOrAfter(event.getStartTime()); i < events.size() && events.get(i).getStartTime() == event.getStartTime(); i++)
+        {
+            if(events.get(i).equals(event))
+                return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the event before the given one
+     *
+     * @param event event in the index
+     * @return the previous event, or null if the event is the first or isn't in the index
+     */
+    public C1Event getPrevious(C1Event event)
+    {
+        int index = indexOf(event);
+        return (index > 0) ? events.get(index - 1) : null;
+    }
+
+    /**
+     * Returns the event after the given one
+     *
+     * @param event event in the index
+     * @return the next event, or null if the event is the last or isn't in the index
+     */
+    public C1Event getNext(C1Event event)
+    {
+        int index = indexOf(event);
+        return (index >= 0 && index < events.size() - 1) ? events.get(index + 1) : null;
+    }
+
+    /**
+     * Returns the last events starting before the given time, in order
+     *
+     * @param time  time in milliseconds
+     * @param count most events to return
+     * @return up to count events, the last of them being the last event starting before time
+     */
+    public List<C1Event> getEventsBefore(long time, int count)
+    {
+        int end = findFirstStartingAtOrAfter(time);
+        return new ArrayList<>(events.subList(Math.max(end - count, 0), end));
+    }
+
+    /**
+     * Returns the first events ending after the given time, in order
+     *
+     * @param time  time in milliseconds
+     * @param count most events to return
+     * @return up to count events, the first of them being the first event ending after time
+     */
+    public List<C1Event> getEventsAfter(long time, int count)
+    {
+        List<C1Event> after = new ArrayList<>(count);
+
+        // No event before the first position whose latest end is after time can end after it
+        for(int i = findFirstMaxEndingAfter(time); i < events.size() && after.size() < count; i++)
+        {
+            if(events.get(i).getEndTime() > time)
+                after.add(events.get(i));
+        }
+
+        return after;
+    }
+
+    private int findFirstStartingAtOrAfter(long time)
+    {
+        int low = 0;
+        int high = events.size();
+        while(low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if(events.get(mid).getStartTime() < time)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+
+        return low;
+    }
+
+    private int findFirstMaxEndingAfter(long time)
+    {
+        int low = 0;
+        int high = maxEndTimes.length;
+        while(low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if(maxEndTimes[mid] <= time)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+
+        return low;
+    }
+}
@@ -0,0 +1,206 @@
+package VideoSync.objects.c1;
+
+/**
+ * Multi-resolution summary of a C1 channel used for drawing overviews of long stretches of data. For each bucket of
+ * time at 1 second, 10 second, 1 minute and 10 minute resolution it stores the fraction of the bucket the channel
+ * spent in state 1 (inside an event) and the number of transitions in the bucket, so any zoom level can be drawn
+ * from a handful of buckets per pixel.
+ */
+public class C1Pyramid
+{
+    /**
+     * Width of the buckets in milliseconds at each level, from finest to coarsest
+     */
+    private static final long[] BUCKET_MILLIS = {1000, 10000, 60000, 600000};
+
+    /**
+     * Scale of the stored occupancy values, which are kept as parts per OCCUPANCY_SCALE to fit in a short
+     */
+    private static final int OCCUPANCY_SCALE = 10000;
+
+    /**
+     * Fraction of each bucket spent in state 1 for each level, in parts per OCCUPANCY_SCALE
+     */
+    private final short[][] occupancy;
+
+    /**
+     * Number of transitions in each bucket for each level
+     */
+    private final int[][] transitionCounts;
+
+    /**
+     * Time the summary ends at in milliseconds
+     */
+    private final long endTime;
+
+    /**
+     * Builds the summary of a channel from time 0 to the given end time in a single pass over its transitions
+     *
+     * @param channel channel to summarize
+     * @param endTime time the summary ends at, normally the last transition time of all channels
+     */
+    public C1Pyramid(C1Channel channel, long endTime)
+    {
+        this.endTime = Math.max(endTime, 0);
+
+        occupancy = new short[BUCKET_MILLIS.length][];
+        transitionCounts = new int[BUCKET_MILLIS.length][];
+
+        // Milliseconds spent in state 1 per bucket, kept exact until every level has been aggregated
+        int[][] occupiedMillis = new int[BUCKET_MILLIS.length][];
+        for(int level = 0; level < BUCKET_MILLIS.length; level++)
+        {
+            int buckets = (int) (this.endTime / BUCKET_MILLIS[level]) + 1;
+            occupiedMillis[level] = new int[buckets];
+            transitionCounts[level] = new int[buckets];
+        }
+
+        // The element at index 0 is the start element inserted at time 0, which isn't a real transition
+        int count = channel.getStateCount();
+        int[] finestCounts = transitionCounts[0];
+        int[] finestOccupied = occupiedMillis[0];
+        long bucketWidth = BUCKET_MILLIS[0];
+        for(int i = 0; i < count; i++)
+        {
+            long start = Math.min(channel.getMilli(i), this.endTime);
+            if(i > 0)
+                finestCounts[(int) (start / bucketWidth)]++;
+
+            if(channel.getState(i) != 1)
+                continue;
+
+            // Spread the time spent in state 1 over every bucket the interval touches
+            long end = (i + 1 < count) ? Math.min(channel.getMilli(i + 1), this.endTime) : this.endTime;
+            while(start < end)
+            {
+                int bucket = (int) (start / bucketWidth);
+                long bucketEnd = Math.min((bucket + 1) * bucketWidth, end);
+                finestOccupied[bucket] += (int) (bucketEnd - start);
+                start = bucketEnd;
+            }
+        }
+
+        // Each coarser level sums the buckets of the level below it
+        for(int level = 1; level < BUCKET_MILLIS.length; level++)
+        {
+            int ratio = (int) (BUCKET_MILLIS[level] / BUCKET_MILLIS[level - 1]);
+            int[] finer = occupiedMillis[level - 1];
+            int[] finerCounts = transitionCounts[level - 1];
+            for(int bucket = 0; bucket < finer.length; bucket++)
+            {
+                occupiedMillis[level][bucket / ratio] += finer[bucket];
+                transitionCounts[level][bucket / ratio] += finerCounts[bucket];
+            }
+        }
+
+        for(int level = 0; level < BUCKET_MILLIS.length; level++)
+        {
+            occupancy[level] = new short[occupiedMillis[level].length];
+            for(int bucket = 0; bucket < occupancy[level].length; bucket++)
+                occupancy[level][bucket] = (short) (occupiedMillis[level][bucket] * (long) OCCUPANCY_SCALE / BUCKET_MILLIS[level]);
+        }
+    }
+
+    /**
+     * Returns the time the summary ends at
+     *
+     * @return end time in milliseconds
+     */
+    public long getEndTime()
+    {
+        return endTime;
+    }
+
+    /**
+     * Returns the coarsest level whose buckets are no wider than the given number of milliseconds, so a pixel of
+     * that width is drawn from as few buckets as possible without losing detail
+     *
+     * @param millisPerPixel number of milliseconds covered by each pixel
+     * @return level to draw from
+     */
+    public static int getLevelForResolution(double millisPerPixel)
+    {
+        int level = 0;
+        while(level + 1 < BUCKET_MILLIS.length && BUCKET_MILLIS[level + 1] <= millisPerPixel)
+            level++;
+        return level;
+    }
+
+    /**
+     * Returns the width of the buckets at a level
+     *
+     * @param level level of the summary
+     * @return bucket width in milliseconds
+     */
+    public static long getBucketMillis(int level)
+    {
+        return BUCKET_MILLIS[level];
+    }
+
+    /**
+     * Summarizes the time from start to end into one value per pixel, reading from the level that matches the
+     * resolution. Pixels outside the summarized time are given an occupancy of -1.
+     *
+     * @param start            time at the left edge in milliseconds
+     * @param end              time at the right edge in milliseconds
+     * @param occupancyOut     receives the fraction of each pixel's time spent in state 1
+     * @param transitionsOut   receives the number of transitions in each pixel's time
+     */
+    public void summarize(long start, long end, double[] occupancyOut, int[] transitionsOut)
+    {
+        int pixels = occupancyOut.length;
+        double millisPerPixel = (double) (end - start) / pixels;
+        int level = getLevelForResolution(millisPerPixel);
+        long bucketWidth = BUCKET_MILLIS[level];
+        short[] levelOccupancy = occupancy[level];
+        int[] levelCounts = transitionCounts[level];
+
+        for(int x = 0; x < pixels; x++)
+        {
+            long pixelStart = start + (long) (x * millisPerPixel);
+            long pixelEnd = Math.max(pixelStart + 1, start + (long) ((x + 1) * millisPerPixel));
+
+            if(pixelEnd <= 0 || pixelStart > endTime)
+            {
+                occupancyOut[x] = -1;
+                transitionsOut[x] = 0;
+                continue;
+            }
+
+            // Each bucket belongs to the pixel its start falls in, so no transition is counted twice. A pixel
+            // narrower than a bucket uses the bucket it starts in.
+            long firstStart = Math.max(pixelStart, 0);
+            int first = (int) ((firstStart + bucketWidth - 1) / bucketWidth);
+            int last = (int) Math.min((pixelEnd + bucketWidth - 1) / bucketWidth - 1, levelOccupancy.length - 1);
+            if(last < first)
+            {
+                first = (int) Math.min(firstStart / bucketWidth, levelOccupancy.length - 1);
+                last = first;
+            }
+
+            long occupied = 0;
+            int transitions = 0;
+            for(int bucket = first; bucket <= last; bucket++)
+            {
+                occupied += levelOccupancy[bucket];
+                transitions += levelCounts[bucket];
+            }
+
+            occupancyOut[x] = (double) occupied / ((last - first + 1) * (double) OCCUPANCY_SCALE);
+            transitionsOut[x] = transitions;
+        }
+    }
+
+    /**
+     * Returns the approximate number of bytes used by the summary
+     *
+     * @return size of the bucket arrays in bytes
+     */
+    public long getRetainedSize()
+    {
+        long size = 0;
+        for(int level = 0; level < BUCKET_MILLIS.length; level++)
+            size += 16 + 2L * occupancy[level].length + 16 + 4L * transitionCounts[level].length;
+        return size;
+    }
+}
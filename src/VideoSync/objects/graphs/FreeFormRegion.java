@@ -12,6 +12,7 @@
 package VideoSync.objects.graphs;
 
 import java.awt.*;
+import java.awt.geom.GeneralPath;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.Objects;
@@ -33,6 +34,12 @@ public class FreeFormRegion extends Region implements Iterable<Point>
      */
     private int vertexCount;
 
+    /**
+     * Outline of the region in absolute coordinates, built when first needed and kept until a vertex or the region's
+     * position changes.
+     */
+    private GeneralPath outline;
+
     public FreeFormRegion()
     {
         super();
@@ -66,6 +73,7 @@ public class FreeFormRegion extends Region implements Iterable<Point>
             vertices.add(new Point(xVert[i], yVert[i]));
             vertexCount++;
         }
+        invalidateShape();
     }
 
     /**
@@ -122,6 +130,7 @@ public class FreeFormRegion extends Region implements Iterable<Point>
             int index = vertices.indexOf(originalPos);
             vertices.get(index).translate(dx, dy);
         }
+        invalidateShape();
     }
 
     /**
@@ -336,6 +345,7 @@ public class FreeFormRegion extends Region implements Iterable<Point>
         }
 
         vertices.add(x, pIntersection);
+        invalidateShape();
     }
 
     /**
@@ -378,6 +388,42 @@ public class FreeFormRegion extends Region implements Iterable<Point>
         }
 
         vertexCount--;
+        invalidateShape();
+    }
+
+    /**
+     * Gets the outline of the region as a closed path through every vertex in absolute coordinates. The same path is
+     * returned until the region changes, so it must not be modified.
+     *
+     * @return GeneralPath outlining the region.
+     */
+    public GeneralPath getOutline()
+    {
+        if(outline == null)
+        {
+            outline = new GeneralPath(GeneralPath.WIND_EVEN_ODD, vertexCount);
+
+            // Start at the position of the region, which is the first vertex, and draw a line to each of the others
+            int coordX = getCoordX();
+            int coordY = getCoordY();
+            outline.moveTo(coordX, coordY);
+            for(int i = 1; i < vertices.size(); i++)
+            {
+                Point p = vertices.get(i);
+                outline.lineTo((float) (p.getX() + coordX), (float) (p.getY() + coordY));
+            }
+
+            // Draw a line from the last vertex to the first vertex to finish the polygon
+            outline.closePath();
+        }
+
+        return outline;
+    }
+
+    @Override
+    protected void invalidateShape()
+    {
+        outline = null;
     }
 
     // TODO: Add proper hashCode method
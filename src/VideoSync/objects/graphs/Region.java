@@ -65,6 +65,19 @@ public abstract class Region
      */
     private Boolean isEnabled;
 
+    /**
+     * Alpha of the color used to fill the region while its channel is high.
+     */
+    public static final int FILLED_ALPHA = 148;
+
+    /**
+     * Objects used to draw the region, kept between frames so they're only rebuilt when the color or border
+     * thickness actually changes.
+     */
+    private Color fillColor;
+    private BasicStroke borderStroke;
+    private BasicStroke selectedStroke;
+
     public Region()
     {
         coordX = 0;
@@ -93,7 +106,11 @@ public abstract class Region
      */
     public void setCoordX(int x)
     {
-        coordX = x;
+        if(coordX != x)
+        {
+            coordX = x;
+            invalidateShape();
+        }
     }
 
     /**
@@ -113,7 +130,11 @@ public abstract class Region
      */
     public void setCoordY(int y)
     {
-        coordY = y;
+        if(coordY != y)
+        {
+            coordY = y;
+            invalidateShape();
+        }
     }
 
     /**
@@ -184,6 +205,56 @@ public abstract class Region
     public void setDisplayColor(Color color)
     {
         displayColor = color;
+        fillColor = null;
+    }
+
+    /**
+     * Gets the translucent version of the display color used to fill the region while its channel is high.
+     *
+     * @return Returns the fill color of the region.
+     */
+    public Color getFillColor()
+    {
+        if(fillColor == null)
+            fillColor = new Color(displayColor.getRed(), displayColor.getGreen(), displayColor.getBlue(), FILLED_ALPHA);
+
+        return fillColor;
+    }
+
+    /**
+     * Gets the stroke used to draw the border of the region. The stroke is only rebuilt when the border width changes.
+     *
+     * @param borderWidth Width of the border in pixels.
+     * @return Returns a BasicStroke with rounded caps and joins of the given width.
+     */
+    public BasicStroke getBorderStroke(int borderWidth)
+    {
+        if(borderStroke == null || borderStroke.getLineWidth() != borderWidth)
+            borderStroke = new BasicStroke((float) borderWidth, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+
+        return borderStroke;
+    }
+
+    /**
+     * Gets the slightly thicker stroke used to outline the region while it is selected.
+     *
+     * @param borderWidth Width of the region's border in pixels.
+     * @return Returns a BasicStroke with rounded caps and joins one pixel wider than the border.
+     */
+    public BasicStroke getSelectedStroke(int borderWidth)
+    {
+        if(selectedStroke == null || selectedStroke.getLineWidth() != borderWidth + 1)
+            selectedStroke = new BasicStroke((float) borderWidth + 1, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+
+        return selectedStroke;
+    }
+
+    /**
+     * Called whenever the position or shape of the region changes so subclasses can discard anything they cached
+     * from the old shape.
+     */
+    protected void invalidateShape()
+    {
     }
 
     /**
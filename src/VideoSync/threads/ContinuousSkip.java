@@ -0,0 +1,133 @@
+package VideoSync.threads;
+
+import VideoSync.models.DataModelProxy;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Skips the videos and graphs forwards or backwards for as long as the rewind or fast forward button is held. The
+ * skip speeds up the longer the button is held, so long recordings can be crossed quickly while a short press still
+ * moves a small amount.
+ * <p>
+ * Skips run on an executor shared by every skip and by the video players for issuing seeks, so no thread is created
+ * per press and VLC is never called from the event dispatch thread.
+ */
+public class ContinuousSkip
+{
+    /**
+     * Time between skips in milliseconds
+     */
+    private static final long SKIP_INTERVAL = 100;
+
+    /**
+     * Amount skipped each interval when the button is first pressed, and the most it speeds up to, in milliseconds
+     */
+    private static final int INITIAL_SKIP = 500;
+    private static final int MAX_SKIP = 8000;
+
+    /**
+     * How long the button has to be held for the skip amount to double, in milliseconds
+     */
+    private static final long DOUBLING_TIME = 1000;
+
+    private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(r ->
+    {
+        Thread thread = new Thread(r, "Skip");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Used for letting the Data Model know how far to jump and which way.
+     */
+    private final DataModelProxy dmp;
+
+    /**
+     * Used for keeping track of which direction we are going to jump.
+     *
+     * If its 1, we go forwards, if its -1, we go backwards.
+     */
+    private final int direction;
+
+    private ScheduledFuture<?> skipTask;
+    private long startTime;
+
+    /**
+     * Creates a skip in the given direction. Nothing is skipped until start is called.
+     *
+     * @param dmp       datamodel proxy object
+     * @param direction direction to skip in
+     */
+    public ContinuousSkip(DataModelProxy dmp, int direction)
+    {
+        this.dmp = dmp;
+        this.direction = direction;
+    }
+
+    /**
+     * Starts skipping, immediately and then every SKIP_INTERVAL until stopped
+     */
+    public synchronized void start()
+    {
+        if(skipTask == null)
+        {
+            startTime = System.currentTimeMillis();
+            skipTask = EXECUTOR.scheduleWithFixedDelay(this::skip, 0, SKIP_INTERVAL, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops skipping. A skip that is already running is allowed to finish.
+     */
+    public synchronized void stop()
+    {
+        if(skipTask != null)
+        {
+            skipTask.cancel(false);
+            skipTask = null;
+        }
+    }
+
+    /**
+     * Skips once, doubling the amount for every DOUBLING_TIME the button has been held up to MAX_SKIP
+     */
+    private void skip()
+    {
+        long doublings = Math.min((System.currentTimeMillis() - startTime) / DOUBLING_TIME, 8);
+        int amount = (int) Math.min((long) INITIAL_SKIP << doublings, MAX_SKIP);
+
+        try
+        {
+            dmp.skipVideo(amount * direction);
+        }
+        catch(RuntimeException e)
+        {
+            // An exception would cancel the skip silently, so report it and keep going
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Runs a task on the shared skip executor
+     *
+     * @param task task to run
+     */
+    public static void execute(Runnable task)
+    {
+        EXECUTOR.execute(task);
+    }
+
+    /**
+     * Runs a task on the shared skip executor after a delay
+     *
+     * @param task   task to run
+     * @param millis delay in milliseconds
+     */
+    public static void schedule(Runnable task, long millis)
+    {
+        EXECUTOR.schedule(task, millis, TimeUnit.MILLISECONDS);
+    }
+}
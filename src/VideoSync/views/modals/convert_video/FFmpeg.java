@@ -147,4 +147,15 @@ public class FFmpeg {
     public static String getFfmpegPath() {
         return ffmpegPath;
     }
+
+    // ffprobe ships next to ffmpeg, otherwise rely on it being on the PATH
+    public static String getFfprobePath() {
+        if (checkInstalled()) {
+            File ffprobe = new File(new File(ffmpegPath).getParentFile(), "ffprobe.exe");
+            if (ffprobe.exists()) {
+                return ffprobe.getPath();
+            }
+        }
+        return "ffprobe";
+    }
 }
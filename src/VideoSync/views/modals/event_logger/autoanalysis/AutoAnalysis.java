@@ -5,6 +5,7 @@ import VideoSync.models.DataModel;
 import VideoSync.objects.DeviceInputMap;
 import VideoSync.objects.EDeviceType;
 import VideoSync.objects.c1.C1Channel;
+import VideoSync.objects.event_logger.EventProxy;
 import VideoSync.views.modals.event_logger.commands.CommandLoadGeneratedC1;
 
 import javax.swing.*;
@@ -12,6 +13,7 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.ItemEvent;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
 
 public class AutoAnalysis extends JFrame implements ActionListener, Observer
 {
@@ -72,6 +74,7 @@ public class AutoAnalysis extends JFrame implements ActionListener, Observer
     private JComboBox<String> observedChannelComboBox;
     private JComboBox<String> referenceChannelComboBox;
     private JButton analyzeButton;
+    private JButton analyzeAllButton;
     private JCheckBox additionalDetectionCheckBox;
     private JProgressBar analyzeProgressBar;
     private JLabel loadedDataFileName;
@@ -80,10 +83,12 @@ public class AutoAnalysis extends JFrame implements ActionListener, Observer
     private JTextField startTimeTextField;
     private JTextField endTimeTextField;
     private JCheckBox limitSearchTimeCheckBox;
+    private JLabel modelStatusLabel;
 
     private CommandLoadGeneratedC1 commandLoadGeneratedC1;
 
     private AutoAnalysisWorker autoAnalysisWorker;
+    private BatchAutoAnalysisWorker batchAutoAnalysisWorker;
 
     public AutoAnalysis(DataModel dataModel)
     {
@@ -136,53 +141,34 @@ public class AutoAnalysis extends JFrame implements ActionListener, Observer
         endTimeTextField.setText(convertToTimeFormat(dm.getMaxVideoLength()));
 
         analyzeButton.addActionListener(e -> startAnalysis(additionalDetectionCheckBox.isSelected()));
+        analyzeAllButton.addActionListener(e -> startBatchAnalysis(additionalDetectionCheckBox.isSelected()));
+
+        // Load the model while the user picks channels so the first analysis doesn't wait for it
+        modelStatusLabel.setText("Loading analysis model...");
+        AutoAnalysisModel.warmUp(this::updateModelStatus);
     }
 
-    private void startAnalysis(boolean partialDetection)
+    /**
+     * Shows how long the analysis model took to load and how large it is
+     */
+    private void updateModelStatus()
     {
-        long startTime = 0;
-        long endTime = dm.getMaxVideoLength();
-
-        if(limitSearchTimeCheckBox.isSelected())
+        if(AutoAnalysisModel.isLoaded())
         {
-            if(!startTimeTextField.getText().equals(""))
-            {
-                try
-                {
-                    startTime = convertToMilliseconds(startTimeTextField.getText());
-                }
-                catch(InvalidTimeFormat e)
-                {
-                    JOptionPane.showMessageDialog(
-                            this,
-                            "Please enter a valid time in the HH:MM:SS or HH:MM:SS.sss format.",
-                            "Invalid Time Entered",
-                            JOptionPane.ERROR_MESSAGE
-                    );
-
-                    return;
-                }
-            }
-
-            if(!endTimeTextField.getText().equals(""))
-            {
-                try
-                {
-                    endTime = convertToMilliseconds(endTimeTextField.getText());
-                }
-                catch(InvalidTimeFormat e)
-                {
-                    JOptionPane.showMessageDialog(
-                            this,
-                            "Please enter a valid time in the HH:MM:SS or HH:MM:SS.sss format.",
-                            "Invalid Time Entered",
-                            JOptionPane.ERROR_MESSAGE
-                    );
-
-                    return;
-                }
-            }
+            modelStatusLabel.setText(String.format("Analysis model loaded in %.1f s (%.1f MB)",
+                    AutoAnalysisModel.getLoadMillis() / 1000.0, AutoAnalysisModel.getModelBytes() / (1024.0 * 1024.0)));
+        }
+        else
+        {
+            modelStatusLabel.setText("Analysis model could not be loaded, it will be retried when analysis starts");
         }
+    }
+
+    private void startAnalysis(boolean partialDetection)
+    {
+        long[] searchTimes = getSearchTimes();
+        if(searchTimes == null)
+            return;
 
         if(isCurrentReferenceMode(ReferenceMode.GENERATED_DATA))
         {
@@ -234,7 +220,7 @@ public class AutoAnalysis extends JFrame implements ActionListener, Observer
             referenceChannel = getCorrespondingChannel(getReferenceEventChannels(), currRefChannelChip, currRefChannelPin);
         }
 
-        autoAnalysisWorker = new AutoAnalysisWorker(this, dm, partialDetection, observedChannel, referenceChannel, startTime, endTime);
+        autoAnalysisWorker = new AutoAnalysisWorker(this, dm, partialDetection, observedChannel, referenceChannel, searchTimes[0], searchTimes[1]);
         autoAnalysisWorker.addPropertyChangeListener(evt -> {
             if("progress".equals(evt.getPropertyName()))
             {
@@ -247,10 +233,190 @@ public class AutoAnalysis extends JFrame implements ActionListener, Observer
         });
 
         analyzeProgressBar.setValue(0);
+        setAnalyzeButtonsEnabled(false);
 
         autoAnalysisWorker.execute();
     }
 
+    private void startBatchAnalysis(boolean partialDetection)
+    {
+        long[] searchTimes = getSearchTimes();
+        if(searchTimes == null)
+            return;
+
+        String observedType = null;
+        String referenceType = null;
+        if(isCurrentReferenceMode(ReferenceMode.GENERATED_DATA))
+        {
+            if(!generatedC1Loaded)
+            {
+                JOptionPane.showMessageDialog(this, "You must load a generated data .c1 file before attempting to run analysis with \"Use Generated Data\" enabled.", "Invalid choice", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+        }
+        else
+        {
+            if(observedDeviceComboBox.getSelectedIndex() == 0 || observedChannelComboBox.getSelectedIndex() == 0 || referenceDeviceComboBox.getSelectedIndex() == 0 || referenceChannelComboBox.getSelectedIndex() == 0)
+            {
+                JOptionPane.showMessageDialog(this, "Select an observed and a reference channel to choose which detector types are compared in each lane.", "Invalid choice", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+
+            DeviceInputMap observedMap = getInputMap(currObsChannelChip, currObsChannelPin);
+            DeviceInputMap referenceMap = getInputMap(currRefChannelChip, currRefChannelPin);
+            observedType = (observedMap != null) ? observedMap.getDetectorType() : null;
+            referenceType = (referenceMap != null) ? referenceMap.getDetectorType() : null;
+
+            if(observedType == null || observedType.equals("Select Type") || referenceType == null || referenceType.equals("Select Type") || observedType.equals(referenceType))
+            {
+                JOptionPane.showMessageDialog(this, "The selected observed and reference channels must have different detector types set in the input mapping.", "Invalid choice", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+        }
+
+        List<BatchAutoAnalysisWorker.LanePair> pairs = findLanePairs(partialDetection, observedType, referenceType, searchTimes[0], searchTimes[1]);
+        if(pairs.isEmpty())
+        {
+            JOptionPane.showMessageDialog(this, "No mapped channels with events could be paired with a reference channel.", "Nothing to Analyze", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+
+        batchAutoAnalysisWorker = new BatchAutoAnalysisWorker(pairs);
+        batchAutoAnalysisWorker.addPropertyChangeListener(evt -> {
+            if("progress".equals(evt.getPropertyName()))
+            {
+                updateProgressBar((Integer) evt.getNewValue());
+            }
+            else if("state".equals(evt.getPropertyName()))
+            {
+                batchAnalysisStateUpdate((SwingWorker.StateValue) evt.getNewValue());
+            }
+        });
+
+        analyzeProgressBar.setValue(0);
+        setAnalyzeButtonsEnabled(false);
+
+        batchAutoAnalysisWorker.execute();
+    }
+
+    /**
+     * Pairs the mapped C1 channels with their reference channels. With generated data, every mapped channel is paired
+     * with the generated channel on the same chip and pin. Otherwise channels are paired within each lane and
+     * direction, the channel with the observed detector type being analysed against the channel with the reference
+     * detector type. Channels without events are left out.
+     *
+     * @param partialDetection whether to look for dropped calls as well
+     * @param observedType     detector type of the observed channels, ignored with generated data
+     * @param referenceType    detector type of the reference channels, ignored with generated data
+     * @param startTime        start of the time range to search in milliseconds
+     * @param endTime          end of the time range to search in milliseconds
+     * @return pair of each observed channel with a reference, in input mapping order
+     */
+    private List<BatchAutoAnalysisWorker.LanePair> findLanePairs(boolean partialDetection, String observedType, String referenceType, long startTime, long endTime)
+    {
+        Vector<DeviceInputMap> inputMaps = dm.getC1InputMap();
+        Vector<C1Channel> observedChannels = getObservedEventChannels();
+        Vector<C1Channel> referenceChannels = getReferenceEventChannels();
+
+        List<BatchAutoAnalysisWorker.LanePair> pairs = new ArrayList<>();
+        for(DeviceInputMap observed : inputMaps)
+        {
+            DeviceInputMap reference = null;
+            C1Channel referenceChannel;
+            if(isCurrentReferenceMode(ReferenceMode.GENERATED_DATA))
+            {
+                referenceChannel = getCorrespondingChannel(referenceChannels, observed.getChipNumber(), observed.getPinNumber());
+            }
+            else
+            {
+                // Lane 0 means the channel isn't assigned to a lane
+                if(observed.getLaneNumber() == 0 || !observedType.equals(observed.getDetectorType()))
+                    continue;
+
+                for(DeviceInputMap candidate : inputMaps)
+                {
+                    if(candidate != observed
+                            && candidate.getLaneNumber() == observed.getLaneNumber()
+                            && Objects.equals(candidate.getDirection(), observed.getDirection())
+                            && referenceType.equals(candidate.getDetectorType()))
+                    {
+                        reference = candidate;
+                        break;
+                    }
+                }
+
+                if(reference == null)
+                    continue;
+
+                referenceChannel = getCorrespondingChannel(referenceChannels, reference.getChipNumber(), reference.getPinNumber());
+            }
+
+            C1Channel observedChannel = getCorrespondingChannel(observedChannels, observed.getChipNumber(), observed.getPinNumber());
+            if(observedChannel == null || referenceChannel == null || observedChannel.getEventCount() == 0 || referenceChannel.getEventCount() == 0)
+                continue;
+
+            AutoAnalysisWorker worker = new AutoAnalysisWorker(this, dm, partialDetection, observedChannel, referenceChannel, startTime, endTime);
+            pairs.add(new BatchAutoAnalysisWorker.LanePair(observed, reference, worker));
+        }
+
+        return pairs;
+    }
+
+    /**
+     * Reads the time range to search from the start and end time fields, or the whole video if the search isn't
+     * limited. An error is shown if either time is invalid.
+     *
+     * @return start and end time in milliseconds, or null if a time is invalid
+     */
+    private long[] getSearchTimes()
+    {
+        long startTime = 0;
+        long endTime = dm.getMaxVideoLength();
+
+        if(limitSearchTimeCheckBox.isSelected())
+        {
+            if(!startTimeTextField.getText().equals(""))
+            {
+                try
+                {
+                    startTime = convertToMilliseconds(startTimeTextField.getText());
+                }
+                catch(InvalidTimeFormat e)
+                {
+                    JOptionPane.showMessageDialog(
+                            this,
+                            "Please enter a valid time in the HH:MM:SS or HH:MM:SS.sss format.",
+                            "Invalid Time Entered",
+                            JOptionPane.ERROR_MESSAGE
+                    );
+
+                    return null;
+                }
+            }
+
+            if(!endTimeTextField.getText().equals(""))
+            {
+                try
+                {
+                    endTime = convertToMilliseconds(endTimeTextField.getText());
+                }
+                catch(InvalidTimeFormat e)
+                {
+                    JOptionPane.showMessageDialog(
+                            this,
+                            "Please enter a valid time in the HH:MM:SS or HH:MM:SS.sss format.",
+                            "Invalid Time Entered",
+                            JOptionPane.ERROR_MESSAGE
+                    );
+
+                    return null;
+                }
+            }
+        }
+
+        return new long[]{startTime, endTime};
+    }
+
     private void updateProgressBar(int progress)
     {
         analyzeProgressBar.setValue(progress);
@@ -260,6 +426,11 @@ public class AutoAnalysis extends JFrame implements ActionListener, Observer
     {
         if(state == SwingWorker.StateValue.DONE)
         {
+            setAnalyzeButtonsEnabled(true);
+
+            // The run may have loaded the model itself if the background load failed
+            updateModelStatus();
+
             addRequiredTags();
 
             HashMap<Long, String> results = autoAnalysisWorker.getResults();
@@ -276,34 +447,137 @@ public class AutoAnalysis extends JFrame implements ActionListener, Observer
 
             if(n == 0)
             {
-                String falsePositive = "Sensor detected a vehicle when there wasn't one. EVENT GENERATED BY AUTO ANALYSIS.";
-                String falseNegative = "Sensor failed to detect a vehicle that was present. EVENT GENERATED BY AUTO ANALYSIS.";
-                String partialDetection = "Sensor failed to detect a vehicle for the majority of the vehicle's presence. EVENT GENERATED BY AUTO ANALYSIS.";
+                DeviceInputMap observed = getInputMap(currObsChannelChip, currObsChannelPin);
 
+                List<EventProxy> events = new ArrayList<>();
                 for(HashMap.Entry<Long, String> entry : results.entrySet())
                 {
-                    long time = entry.getKey();
-                    String tag = entry.getValue();
-                    String description = "";
-                    switch(tag)
-                    {
-                        case "False Positive":
-                            description = falsePositive;
-                            break;
-                        case "False Negative":
-                            description = falseNegative;
-                            break;
-                        case "Partial Detection":
-                            description = partialDetection;
-                            break;
-                    }
+                    events.add(createDiscoveredEvent(currObsChannelChip, currObsChannelPin, observed, entry.getKey(), entry.getValue()));
+                }
+
+                dm.addEvents(events);
+            }
+        }
+    }
+
+    private void batchAnalysisStateUpdate(SwingWorker.StateValue state)
+    {
+        if(state == SwingWorker.StateValue.DONE)
+        {
+            setAnalyzeButtonsEnabled(true);
+            updateModelStatus();
+
+            List<BatchAutoAnalysisWorker.LanePair> pairs;
+            try
+            {
+                pairs = batchAutoAnalysisWorker.get();
+            }
+            catch(InterruptedException | ExecutionException e)
+            {
+                e.printStackTrace();
+                JOptionPane.showMessageDialog(this, "Auto analysis could not be run: " + ((e.getCause() != null) ? e.getCause().getMessage() : e.getMessage()), "Auto Analysis Failed", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+
+            addRequiredTags();
 
-                    dm.addEvent(currObsChannelChip, currObsChannelPin, (int) time, dm.getGraphOffset(), tag, description, false);
+            // Summarize what was found on each pair before asking to save all of it
+            List<EventProxy> events = new ArrayList<>();
+            StringBuilder summary = new StringBuilder();
+            for(BatchAutoAnalysisWorker.LanePair pair : pairs)
+            {
+                HashMap<Long, String> results = pair.getResults();
+                if(results == null)
+                {
+                    summary.append(pair.getName()).append(": analysis failed\n");
+                    continue;
                 }
+
+                DeviceInputMap observed = pair.getObserved();
+                for(HashMap.Entry<Long, String> entry : results.entrySet())
+                {
+                    events.add(createDiscoveredEvent(observed.getChipNumber(), observed.getPinNumber(), observed, entry.getKey(), entry.getValue()));
+                }
+
+                summary.append(pair.getName()).append(": ").append(results.size()).append(" potential events\n");
+            }
+
+            Object[] options = {"Yes", "No"};
+            int n = JOptionPane.showOptionDialog(this,
+                    "Auto analysis discovered " + events.size() + " potential events on " + pairs.size() + " channels.\n\n" + summary + "\nWould you like to save these events to event logger?",
+                    "Auto Analysis Finished",
+                    JOptionPane.YES_NO_OPTION,
+                    JOptionPane.QUESTION_MESSAGE,
+                    null,
+                    options,
+                    options[1]);
+
+            if(n == 0)
+            {
+                dm.addEvents(events);
             }
         }
     }
 
+    /**
+     * Creates the event log entry for an event discovered by auto analysis
+     *
+     * @param chip     chip of the observed channel
+     * @param pin      pin of the observed channel
+     * @param observed input mapping of the observed channel, may be null
+     * @param time     playback time of the event
+     * @param tag      tag the analysis gave the event
+     * @return event to add to the event log
+     */
+    private EventProxy createDiscoveredEvent(int chip, int pin, DeviceInputMap observed, long time, String tag)
+    {
+        String falsePositive = "Sensor detected a vehicle when there wasn't one. EVENT GENERATED BY AUTO ANALYSIS.";
+        String falseNegative = "Sensor failed to detect a vehicle that was present. EVENT GENERATED BY AUTO ANALYSIS.";
+        String partialDetection = "Sensor failed to detect a vehicle for the majority of the vehicle's presence. EVENT GENERATED BY AUTO ANALYSIS.";
+
+        String description = "";
+        switch(tag)
+        {
+            case "False Positive":
+                description = falsePositive;
+                break;
+            case "False Negative":
+                description = falseNegative;
+                break;
+            case "Partial Detection":
+                description = partialDetection;
+                break;
+        }
+
+        return new EventProxy(chip, pin, (int) time, dm.getGraphOffset(),
+                (observed != null) ? observed.getChannelName() : null, (observed != null) ? observed.getDetectorType() : null,
+                description, tag, false);
+    }
+
+    private void setAnalyzeButtonsEnabled(boolean enabled)
+    {
+        analyzeButton.setEnabled(enabled);
+        analyzeAllButton.setEnabled(enabled);
+    }
+
+    /**
+     * Returns the input mapping of a C1 channel
+     *
+     * @param chip chip number of the channel
+     * @param pin  pin number of the channel
+     * @return input mapping of the channel, or null if it isn't mapped
+     */
+    private DeviceInputMap getInputMap(int chip, int pin)
+    {
+        for(DeviceInputMap inputMap : dm.getC1InputMap())
+        {
+            if(inputMap.getChipNumber() == chip && inputMap.getPinNumber() == pin)
+                return inputMap;
+        }
+
+        return null;
+    }
+
     private void addRequiredTags()
     {
         Map<String, String> tags = dm.getEventTags();
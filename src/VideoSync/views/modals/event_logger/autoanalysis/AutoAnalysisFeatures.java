@@ -0,0 +1,530 @@
+package VideoSync.views.modals.event_logger.autoanalysis;
+
+import VideoSync.objects.c1.C1Event;
+import weka.core.Attribute;
+import weka.core.Instances;
+
+import java.util.ArrayList;
+
+/**
+ * The features auto analysis classifies an observed and reference event pair by, in the order of the attributes the
+ * model was trained with
+ */
+public class AutoAnalysisFeatures
+{
+    private AutoAnalysisFeatures()
+    {
+    }
+
+    /**
+     * Builds the attributes the model was trained with, as an empty dataset whose last attribute is the class.
+     * Built once per run and shared by every feature vector that is classified.
+     *
+     * @return empty dataset describing the features
+     */
+    public static Instances createDatasetHeader()
+    {
+        // 1. set up attributes
+        ArrayList<Attribute> atts = new ArrayList<>();
+        // - numeric
+        atts.add(new Attribute("observed_event_duration"));
+        atts.add(new Attribute("observed_event_duration_relative_to_reference_duration"));
+        atts.add(new Attribute("observed_event_start_relative_to_reference_start"));
+        atts.add(new Attribute("observed_event_center_relative_to_reference_center"));
+        atts.add(new Attribute("observed_event_end_relative_to_reference_end"));
+        atts.add(new Attribute("reference_event_duration"));
+        atts.add(new Attribute("reference_event_duration_relative_to_observed_duration"));
+        atts.add(new Attribute("reference_event_start_relative_to_observed_start"));
+        atts.add(new Attribute("reference_event_center_relative_to_observed_center"));
+        atts.add(new Attribute("reference_event_end_relative_to_observed_end"));
+//        atts.add(new Attribute("perc_intersection_of_observed"));
+//        atts.add(new Attribute("perc_intersection_of_reference"));
+        atts.add(new Attribute("perc_intersection_of_union"));
+        atts.add(new Attribute("previous_observed_event_duration"));
+        atts.add(new Attribute("previous_observed_event_start_relative_to_observed_start"));
+        atts.add(new Attribute("previous_observed_event_center_relative_to_observed_center"));
+        atts.add(new Attribute("previous_observed_event_end_relative_to_observed_end"));
+        atts.add(new Attribute("previous_observed_event_end_relative_to_observed_start"));
+        atts.add(new Attribute("previous_observed_event_start_relative_to_reference_start"));
+        atts.add(new Attribute("previous_observed_event_center_relative_to_reference_center"));
+        atts.add(new Attribute("previous_observed_event_end_relative_to_reference_end"));
+        atts.add(new Attribute("previous_observed_event_end_relative_to_reference_start"));
+//        atts.add(new Attribute("perc_intersection_of_previous_observed_with_reference"));
+//        atts.add(new Attribute("perc_intersection_of_reference_with_previous_observed"));
+        atts.add(new Attribute("perc_intersection_of_union_of_previous_observed_and_reference"));
+        atts.add(new Attribute("next_observed_event_duration"));
+        atts.add(new Attribute("next_observed_event_start_relative_to_observed_start"));
+        atts.add(new Attribute("next_observed_event_center_relative_to_observed_center"));
+        atts.add(new Attribute("next_observed_event_end_relative_to_observed_end"));
+        atts.add(new Attribute("next_observed_event_start_relative_to_observed_end"));
+        atts.add(new Attribute("next_observed_event_start_relative_to_reference_start"));
+        atts.add(new Attribute("next_observed_event_center_relative_to_reference_center"));
+        atts.add(new Attribute("next_observed_event_end_relative_to_reference_end"));
+        atts.add(new Attribute("next_observed_event_start_relative_to_reference_end"));
+//        atts.add(new Attribute("perc_intersection_of_next_observed_with_reference"));
+//        atts.add(new Attribute("perc_intersection_of_reference_with_next_observed"));
+        atts.add(new Attribute("perc_intersection_of_union_of_next_observed_and_reference"));
+        atts.add(new Attribute("previous_reference_event_duration"));
+        atts.add(new Attribute("previous_reference_event_start_relative_to_reference_start"));
+        atts.add(new Attribute("previous_reference_event_center_relative_to_reference_center"));
+        atts.add(new Attribute("previous_reference_event_end_relative_to_reference_end"));
+        atts.add(new Attribute("previous_reference_event_end_relative_to_reference_start"));
+        atts.add(new Attribute("previous_reference_event_start_relative_to_observed_start"));
+        atts.add(new Attribute("previous_reference_event_center_relative_to_observed_center"));
+        atts.add(new Attribute("previous_reference_event_end_relative_to_observed_end"));
+        atts.add(new Attribute("previous_reference_event_end_relative_to_observed_start"));
+//        atts.add(new Attribute("perc_intersection_of_previous_reference_with_observed"));
+//        atts.add(new Attribute("perc_intersection_of_observed_with_previous_reference"));
+        atts.add(new Attribute("perc_intersection_of_union_of_previous_reference_and_observed"));
+        atts.add(new Attribute("next_reference_event_duration"));
+        atts.add(new Attribute("next_reference_event_start_relative_to_reference_start"));
+        atts.add(new Attribute("next_reference_event_center_relative_to_reference_center"));
+        atts.add(new Attribute("next_reference_event_end_relative_to_reference_end"));
+        atts.add(new Attribute("next_reference_event_start_relative_to_reference_end"));
+        atts.add(new Attribute("next_reference_event_start_relative_to_observed_start"));
+        atts.add(new Attribute("next_reference_event_center_relative_to_observed_center"));
+        atts.add(new Attribute("next_reference_event_end_relative_to_observed_end"));
+        atts.add(new Attribute("next_reference_event_start_relative_to_observed_end"));
+//        atts.add(new Attribute("perc_intersection_of_next_reference_with_observed"));
+//        atts.add(new Attribute("perc_intersection_of_observed_with_next_reference"));
+        atts.add(new Attribute("perc_intersection_of_union_of_next_reference_and_observed"));
+
+        ArrayList<String> attVals = new ArrayList<>();
+        attVals.add("FALSE");
+        attVals.add("TRUE");
+        atts.add(new Attribute("match", attVals));
+
+        // 2. create Instances object
+        Instances data = new Instances("MyRelation", atts, 0);
+        data.setClassIndex(data.numAttributes() - 1);
+
+        return data;
+    }
+
+    /**
+     * Writes the features of an observed and reference event pair, in the order of the dataset header's attributes.
+     * The class attribute is left for the classifier.
+     *
+     * @param vals        feature values to write into, one for every attribute of the dataset header
+     * @param graphOffset offset added to the reference event times, 0 when the reference is the observed data itself
+     */
+    public static void writeFeatures(double[] vals, int graphOffset, C1Event previousObservedEvent, C1Event observedEvent, C1Event nextObservedEvent,
+                                     C1Event previousReferenceEvent, C1Event referenceEvent, C1Event nextReferenceEvent)
+    {
+        int i = 0;
+        long tmp;
+        double perc;
+
+        long obsDuration = observedEvent.getDuration();
+        long obsStart = observedEvent.getStartTime();
+        long obsCenter = observedEvent.getHalfwayTime();
+        long obsEnd = observedEvent.getEndTime();
+
+        long prevObsDuration = previousObservedEvent.getDuration();
+        long prevObsStart = previousObservedEvent.getStartTime();
+        long prevObsCenter = previousObservedEvent.getHalfwayTime();
+        long prevObsEnd = previousObservedEvent.getEndTime();
+
+        long nextObsDuration = nextObservedEvent.getDuration();
+        long nextObsStart = nextObservedEvent.getStartTime();
+        long nextObsCenter = nextObservedEvent.getHalfwayTime();
+        long nextObsEnd = nextObservedEvent.getEndTime();
+
+        long refDuration = referenceEvent.getDuration();
+        long refStart = referenceEvent.getStartTime() + graphOffset;
+        long refCenter = referenceEvent.getHalfwayTime() + graphOffset;
+        long refEnd = referenceEvent.getEndTime() + graphOffset;
+
+        long prevRefDuration = previousReferenceEvent.getDuration();
+        long prevRefStart = previousReferenceEvent.getStartTime() + graphOffset;
+        long prevRefCenter = previousReferenceEvent.getHalfwayTime() + graphOffset;
+        long prevRefEnd = previousReferenceEvent.getEndTime() + graphOffset;
+
+        long nextRefDuration = nextReferenceEvent.getDuration();
+        long nextRefStart = nextReferenceEvent.getStartTime() + graphOffset;
+        long nextRefCenter = nextReferenceEvent.getHalfwayTime() + graphOffset;
+        long nextRefEnd = nextReferenceEvent.getEndTime() + graphOffset;
+
+        // observed_event_duration
+        vals[i++] = obsDuration;
+
+        // observed_event_start
+        //vals[i++] = obsStart;
+
+        // observed_event_center
+        //vals[i++] = obsCenter;
+
+        // observed_event_end
+        //vals[i++] = obsEnd;
+
+        // observed_event_duration_relative_to_reference_duration
+        tmp = obsDuration - refDuration;
+        vals[i++] = tmp;
+
+        // observed_event_start_relative_to_reference_start
+        tmp = obsStart - refStart;
+        vals[i++] = tmp;
+
+        // observed_event_center_relative_to_reference_center
+        tmp = obsCenter - refCenter;
+        vals[i++] = tmp;
+
+        // observed_event_end_relative_to_reference_end
+        tmp = obsEnd - refEnd;
+        vals[i++] = tmp;
+
+        // reference_event_duration
+        vals[i++] = refDuration;
+
+        // reference_event_start
+        //vals[i++] = refStart;
+
+        // reference_event_center
+        //vals[i++] = refCenter;
+
+        // reference_event_end
+        //vals[i++] = refEnd;
+
+        // reference_event_duration_relative_to_observed_duration
+        tmp = refDuration - obsDuration;
+        vals[i++] = tmp;
+
+        // reference_event_start_relative_to_reference_start
+        tmp = refStart - obsStart;
+        vals[i++] = tmp;
+
+        // reference_event_center_relative_to_reference_center
+        tmp = refCenter - obsCenter;
+        vals[i++] = tmp;
+
+        // reference_event_end_relative_to_reference_end
+        tmp = referenceEvent.getEndTime() - observedEvent.getEndTime();
+        vals[i++] = tmp;
+
+//        // perc_intersection_of_observed
+//        if(!(refStart > obsEnd || obsStart > refEnd))
+//            perc = (double) (Math.min(obsEnd, refEnd) - Math.max(obsStart, refStart)) / obsDuration;
+//        else
+//            perc = 0.0;
+//
+//        vals[i++] = perc;
+//
+//        // perc_intersection_of_reference
+//        if(!(refStart > obsEnd || obsStart > refEnd))
+//            perc = (double) (Math.min(obsEnd, refEnd) - Math.max(obsStart, refStart)) / refDuration;
+//        else
+//            perc = 0.0;
+//
+//        vals[i++] = perc;
+
+        // perc_intersection_of_union
+        if(!(refStart > obsEnd || obsStart > refEnd))
+            perc = (double) (Math.min(obsEnd, refEnd) - Math.max(obsStart, refStart)) / (Math.max(obsEnd, refEnd) - Math.min(obsStart, refStart));
+        else
+            perc = 0.0;
+
+        vals[i++] = perc;
+
+        // previous_observed_event_duration
+        vals[i++] = prevObsDuration;
+
+        // previous_observed_event_start
+        //vals[i++] = prevObsStart;
+
+        // previous_observed_event_center
+        //vals[i++] = prevObsCenter;
+
+        // previous_observed_event_end
+        //vals[i++] = prevObsEnd;
+
+        // previous_observed_event_start_relative_to_observed_start
+        tmp = prevObsStart - obsStart;
+        vals[i++] = tmp;
+
+        // previous_observed_event_center_relative_to_observed_center
+        tmp = prevObsCenter - obsCenter;
+        vals[i++] = tmp;
+
+        // previous_observed_event_end_relative_to_observed_end
+        tmp = prevObsEnd - obsEnd;
+        vals[i++] = tmp;
+
+        // previous_observed_event_end_relative_to_observed_start
+        tmp = prevObsEnd - obsStart;
+        vals[i++] = tmp;
+
+        // previous_observed_event_start_relative_to_reference_start
+        tmp = prevObsStart - refStart;
+        vals[i++] = tmp;
+
+        // previous_observed_event_center_relative_to_reference_center
+        tmp = prevObsCenter - refStart;
+        vals[i++] = tmp;
+
+        // previous_observed_event_end_relative_to_reference_end
+        tmp = prevObsEnd - refEnd;
+        vals[i++] = tmp;
+
+        // previous_observed_event_end_relative_to_reference_start
+        tmp = prevObsEnd - refStart;
+        vals[i++] = tmp;
+
+//        // perc_intersection_of_previous_observed_with_reference
+//        if(!(refStart > prevObsEnd || prevObsStart > refEnd))
+//            perc = (double) (Math.min(prevObsEnd, refEnd) - Math.max(prevObsStart, refStart)) / prevObsDuration;
+//        else
+//            perc = 0.0;
+//
+//        vals[i++] = perc;
+//
+//        // perc_intersection_of_reference_with_previous_observed
+//        if(!(refStart > prevObsEnd || prevObsStart > refEnd))
+//            perc = (double) (Math.min(prevObsEnd, refEnd) - Math.max(prevObsStart, refStart)) / refDuration;
+//        else
+//            perc = 0.0;
+//
+//        vals[i++] = perc;
+
+        // perc_intersection_of_union_of_previous_observed_and_reference
+        if(!(refStart > prevObsEnd || prevObsStart > refEnd))
+            perc = (double) (Math.min(prevObsEnd, refEnd) - Math.max(prevObsStart, refStart)) / (Math.max(prevObsEnd, refEnd) - Math.min(prevObsStart, refStart));
+        else
+            perc = 0.0;
+
+        vals[i++] = perc;
+
+        // next_observed_event_duration
+        vals[i++] = nextObsDuration;
+
+        // next_observed_event_start
+        //vals[i++] = nextObsStart;
+
+        // next_observed_event_center
+        //vals[i++] = nextObsCenter;
+
+        // next_observed_event_end
+        //vals[i++] = nextObsEnd;
+
+        // next_observed_event_start_relative_to_observed_start
+        tmp = nextObsStart - obsStart;
+        vals[i++] = tmp;
+
+        // next_observed_event_center_relative_to_observed_center
+        tmp = nextObsCenter - obsCenter;
+        vals[i++] = tmp;
+
+        // next_observed_event_end_relative_to_observed_end
+        tmp = nextObsEnd - obsEnd;
+        vals[i++] = tmp;
+
+        // next_observed_event_start_relative_to_observed_end
+        tmp = nextObsStart - obsEnd;
+        vals[i++] = tmp;
+
+        // next_observed_event_start_relative_to_reference_start
+        tmp = nextObsStart - refStart;
+        vals[i++] = tmp;
+
+        // next_observed_event_center_relative_to_reference_center
+        tmp = nextObsCenter - refCenter;
+        vals[i++] = tmp;
+
+        // next_observed_event_end_relative_to_reference_end
+        tmp = nextObsEnd - refEnd;
+        vals[i++] = tmp;
+
+        // next_observed_event_start_relative_to_reference_end
+        tmp = nextObsStart - refEnd;
+        vals[i++] = tmp;
+
+//        // perc_intersection_of_next_observed_with_reference
+//        if(!(refStart > nextObsEnd || nextObsStart > refEnd))
+//            perc = (double) (Math.min(nextObsEnd, refEnd) - Math.max(nextObsStart, refStart)) / nextObsDuration;
+//        else
+//            perc = 0.0;
+//
+//        vals[i++] = perc;
+//
+//        // perc_intersection_of_reference_with_next_observed
+//        if(!(refStart > nextObsEnd || nextObsStart > refEnd))
+//            perc = (double) (Math.min(nextObsEnd, refEnd) - Math.max(nextObsStart, refStart)) / refDuration;
+//        else
+//            perc = 0.0;
+//
+//        vals[i++] = perc;
+
+        // perc_intersection_of_union_of_next_observed_and_reference
+        if(!(refStart > nextObsEnd || nextObsStart > refEnd))
+            perc = (double) (Math.min(nextObsEnd, refEnd) - Math.max(nextObsStart, refStart)) / (Math.max(nextObsEnd, refEnd) - Math.min(nextObsStart, refStart));
+        else
+            perc = 0.0;
+
+        vals[i++] = perc;
+
+        // previous_reference_event_duration
+        vals[i++] = prevRefDuration;
+
+        // previous_reference_event_start
+        //vals[i++] = prevRefStart;
+
+        // previous_reference_event_center
+        //vals[i++] = prevRefCenter;
+
+        // previous_reference_event_end
+        //vals[i++] = prevRefEnd;
+
+        // previous_reference_event_start_relative_to_reference_start
+        tmp = prevRefStart - refStart;
+        vals[i++] = tmp;
+
+        // previous_reference_event_center_relative_to_reference_center
+        tmp = prevRefCenter - refCenter;
+        vals[i++] = tmp;
+
+        // previous_reference_event_end_relative_to_reference_end
+        tmp = prevRefEnd - refEnd;
+        vals[i++] = tmp;
+
+        // previous_reference_event_end_relative_to_reference_start
+        tmp = prevRefEnd - refStart;
+        vals[i++] = tmp;
+
+        // previous_reference_event_start_relative_to_observed_start
+        tmp = prevRefStart - obsStart;
+        vals[i++] = tmp;
+
+        // previous_reference_event_center_relative_to_observed_center
+        tmp = prevRefCenter - obsCenter;
+        vals[i++] = tmp;
+
+        // previous_reference_event_end_relative_to_observed_end
+        tmp = prevRefEnd - obsEnd;
+        vals[i++] = tmp;
+
+        // previous_reference_event_end_relative_to_observed_start
+        tmp = prevRefEnd - obsStart;
+        vals[i++] = tmp;
+
+//        // perc_intersection_of_previous_reference_with_observed
+//        if(!(obsStart > prevRefEnd || prevRefStart > obsEnd))
+//            perc = (double) (Math.min(prevRefEnd, obsEnd) - Math.max(prevRefStart, obsStart)) / prevRefDuration;
+//        else
+//            perc = 0.0;
+//
+//        vals[i++] = perc;
+//
+//        // perc_intersection_of_observed_with_previous_reference
+//        if(!(obsStart > prevRefEnd || prevRefStart > obsEnd))
+//            perc = (double) (Math.min(prevRefEnd, obsEnd) - Math.max(prevRefStart, obsStart)) / obsDuration;
+//        else
+//            perc = 0.0;
+//
+//        vals[i++] = perc;
+
+        // perc_intersection_of_union_of_previous_reference_and_observed
+        if(!(obsStart > prevRefEnd || prevRefStart > obsEnd))
+            perc = (double) (Math.min(prevRefEnd, obsEnd) - Math.max(prevRefStart, obsStart)) / (Math.max(prevRefEnd, obsEnd) - Math.min(prevRefStart, obsStart));
+        else
+            perc = 0.0;
+
+        vals[i++] = perc;
+
+        // next_reference_event_duration
+        vals[i++] = nextRefDuration;
+
+        // next_reference_event_start
+        //vals[i++] = nextRefStart;
+
+        // next_reference_event_center
+        //vals[i++] = nextRefCenter;
+
+        // next_reference_event_end
+        //vals[i++] = nextRefEnd;
+
+        // next_reference_event_start_relative_to_reference_start
+        tmp = nextRefStart - refStart;
+        vals[i++] = tmp;
+
+        // next_reference_event_center_relative_to_reference_center
+        tmp = nextRefCenter - refCenter;
+        vals[i++] = tmp;
+
+        // next_reference_event_end_relative_to_reference_end
+        tmp = nextRefEnd - refEnd;
+        vals[i++] = tmp;
+
+        // next_reference_event_start_relative_to_reference_end
+        tmp = nextRefStart - refEnd;
+        vals[i++] = tmp;
+
+        // next_reference_event_start_relative_to_observed_start
+        tmp = nextRefStart - obsStart;
+        vals[i++] = tmp;
+
+        // next_reference_event_center_relative_to_observed_center
+        tmp = nextRefCenter - obsCenter;
+        vals[i++] = tmp;
+
+        // next_reference_event_end_relative_to_observed_end
+        tmp = nextRefEnd - obsEnd;
+        vals[i++] = tmp;
+
+        // next_reference_event_start_relative_to_observed_end
+        tmp = nextRefStart - obsEnd;
+        vals[i++] = tmp;
+
+//        // perc_intersection_of_next_reference_with_observed
+//        if(!(obsStart > nextRefEnd || nextRefStart > obsEnd))
+//            perc = (double) (Math.min(nextRefEnd, obsEnd) - Math.max(nextRefStart, obsStart)) / nextRefDuration;
+//        else
+//            perc = 0.0;
+//
+//        vals[i++] = perc;
+//
+//        // perc_intersection_of_observed_with_next_reference
+//        if(!(obsStart > nextRefEnd || nextRefStart > obsEnd))
+//            perc = (double) (Math.min(nextRefEnd, obsEnd) - Math.max(nextRefStart, obsStart)) / obsDuration;
+//        else
+//            perc = 0.0;
+//
+//        vals[i++] = perc;
+
+        // perc_intersection_of_union_of_next_reference_and_observed
+        if(!(obsStart > nextRefEnd || nextRefStart > obsEnd))
+            perc = (double) (Math.min(nextRefEnd, obsEnd) - Math.max(nextRefStart, obsStart)) / (Math.max(nextRefEnd, obsEnd) - Math.min(nextRefStart, obsStart));
+        else
+            perc = 0.0;
+
+        vals[i++] = perc;
+
+        placeLikeOriginalFeatures(vals, i);
+    }
+
+    /**
+     * Moves feature values to the slots the original feature generation put them in. It passed every feature through
+     * its text and placed it at the first feature with the same text, so a feature equal to an earlier one of the same
+     * type overwrote that one with the same value and left its own slot at 0. The intersection percentages, every
+     * tenth feature, were written as doubles and the rest as longs, so only features of the same type could collide.
+     * The model has only ever been given features placed this way, so writing each to its own slot would change which
+     * pairs it matches and has to be checked against labelled captures before it replaces this.
+     *
+     * @param vals  feature values in attribute order
+     * @param count number of features written
+     */
+    private static void placeLikeOriginalFeatures(double[] vals, int count)
+    {
+        // Go from the last feature back, so earlier features still hold their values when compared against
+        for(int j = count - 1; j > 0; j--)
+        {
+            boolean percentage = (j % 10 == 0);
+            for(int k = 0; k < j; k++)
+            {
+                if((k % 10 == 0 && k != 0) == percentage && Double.compare(vals[k], vals[j]) == 0)
+                {
+                    vals[j] = 0;
+                    break;
+                }
+            }
+        }
+    }
+}
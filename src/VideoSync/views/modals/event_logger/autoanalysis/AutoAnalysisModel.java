@@ -0,0 +1,163 @@
+package VideoSync.views.modals.event_logger.autoanalysis;
+
+import weka.classifiers.trees.RandomForest;
+
+import javax.swing.*;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * The random forest auto analysis classifies event pairs with. Deserializing the forest takes seconds, so it is loaded
+ * once, the first time it is needed or when warmUp is called, and shared by every analysis run for the rest of the
+ * session.
+ */
+public class AutoAnalysisModel
+{
+    /**
+     * Classpath resource the trained model is read from
+     */
+    private static final String MODEL_RESOURCE = "auto-analysis-model-v2.model";
+
+    /**
+     * Loads the model. Replaced if loading fails, so the next request tries again.
+     */
+    private static FutureTask<RandomForest> loadTask;
+
+    private static volatile long loadMillis = -1;
+    private static volatile long modelBytes = -1;
+
+    private AutoAnalysisModel()
+    {
+    }
+
+    /**
+     * Starts loading the model in the background if it isn't loaded or loading already
+     *
+     * @param onLoaded run on the event dispatch thread once the model has loaded or failed to, may be null
+     */
+    public static void warmUp(Runnable onLoaded)
+    {
+        FutureTask<RandomForest> task = getLoadTask();
+
+        Thread thread = new Thread(() ->
+        {
+            task.run();
+            try
+            {
+                task.get();
+            }
+            catch(ExecutionException | InterruptedException e)
+            {
+                resetFailedTask(task);
+                System.out.println("Unable to load auto analysis model: " + ((e.getCause() != null) ? e.getCause() : e));
+            }
+
+            if(onLoaded != null)
+            {
+                SwingUtilities.invokeLater(onLoaded);
+            }
+        }, "Auto Analysis Model");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Returns the model, loading it on the calling thread or waiting for the background load if it isn't loaded yet
+     *
+     * @return the trained random forest
+     * @throws Exception if the model could not be read
+     */
+    public static RandomForest get() throws Exception
+    {
+        FutureTask<RandomForest> task = getLoadTask();
+
+        // Does nothing if the model is already loaded or another thread is loading it
+        task.run();
+
+        try
+        {
+            return task.get();
+        }
+        catch(ExecutionException e)
+        {
+            resetFailedTask(task);
+            throw (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
+        }
+    }
+
+    /**
+     * Returns whether the model has been loaded
+     *
+     * @return true once get returns without waiting
+     */
+    public static boolean isLoaded()
+    {
+        return loadMillis >= 0;
+    }
+
+    /**
+     * Returns how long loading the model took
+     *
+     * @return load time in milliseconds, or -1 if it hasn't loaded
+     */
+    public static long getLoadMillis()
+    {
+        return loadMillis;
+    }
+
+    /**
+     * Returns the size of the serialized model
+     *
+     * @return model size in bytes, or -1 if it hasn't loaded or its size isn't known
+     */
+    public static long getModelBytes()
+    {
+        return modelBytes;
+    }
+
+    private static synchronized FutureTask<RandomForest> getLoadTask()
+    {
+        if(loadTask == null)
+        {
+            loadTask = new FutureTask<>(AutoAnalysisModel::load);
+        }
+
+        return loadTask;
+    }
+
+    private static synchronized void resetFailedTask(FutureTask<RandomForest> task)
+    {
+        if(loadTask == task)
+        {
+            loadTask = null;
+        }
+    }
+
+    private static RandomForest load() throws Exception
+    {
+        long start = System.currentTimeMillis();
+
+        URL resource = AutoAnalysisModel.class.getClassLoader().getResource(MODEL_RESOURCE);
+        if(resource == null)
+        {
+            throw new IOException("Auto analysis model " + MODEL_RESOURCE + " is missing from the classpath");
+        }
+
+        URLConnection connection = resource.openConnection();
+        try(ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(connection.getInputStream(), 1 << 16)))
+        {
+            RandomForest rf = (RandomForest) ois.readObject();
+
+            modelBytes = connection.getContentLengthLong();
+            loadMillis = System.currentTimeMillis() - start;
+            System.out.println("Loaded auto analysis model (" + modelBytes + " bytes) in " + loadMillis + " ms");
+
+            return rf;
+        }
+    }
+}
@@ -3,21 +3,23 @@ package VideoSync.views.modals.event_logger.autoanalysis;
 import VideoSync.models.DataModel;
 import VideoSync.objects.c1.C1Channel;
 import VideoSync.objects.c1.C1Event;
+import VideoSync.objects.c1.C1EventIndex;
 import VideoSync.objects.c1.C1Group;
 import weka.classifiers.trees.RandomForest;
-import weka.core.Attribute;
 import weka.core.DenseInstance;
-import weka.core.Instance;
 import weka.core.Instances;
 
 import javax.swing.*;
-import java.io.InputStream;
-import java.io.ObjectInputStream;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class AutoAnalysisWorker extends SwingWorker<HashMap<Long, String>, Void>
 {
+    final private boolean analysis_debug = false;
+
     private final boolean additionalDetection;
 
     private final AutoAnalysis autoAnalysisWindow;
@@ -36,6 +38,31 @@ public class AutoAnalysisWorker extends SwingWorker<HashMap<Long, String>, Void>
 
     HashMap<Long, String> results;
 
+    /**
+     * Number of observed events classified together by one fork/join task
+     */
+    private static final int CLASSIFY_BATCH_SIZE = 16;
+
+    /**
+     * State shared by the threads classifying event pairs. Set before classification starts and only read during it,
+     * apart from each observed event's slot of matchedReferences.
+     */
+    private RandomForest rf;
+    private Instances datasetHeader;
+    private int featureGraphOffset;
+    private C1EventIndex referenceIndex;
+    private List<Vector<C1Event>> candidateReferences;
+    private List<List<C1Event>> matchedReferences;
+    private int numProgressChunks;
+
+    private final AtomicInteger observedProcessed = new AtomicInteger();
+    private final AtomicInteger pairsClassified = new AtomicInteger();
+
+    /**
+     * Time spent classifying the event pairs, or 0 until the analysis has classified them
+     */
+    private volatile long classifyMillis;
+
     public AutoAnalysisWorker(AutoAnalysis autoAnalysisWindow, DataModel dm, boolean additionalDetection, C1Channel observedChannel, C1Channel referenceChannel, long startTime, long endTime)
     {
         this.autoAnalysisWindow = autoAnalysisWindow;
@@ -61,114 +88,141 @@ public class AutoAnalysisWorker extends SwingWorker<HashMap<Long, String>, Void>
 
     @Override
     public HashMap<Long, String> doInBackground() throws Exception
+    {
+        return analyze();
+    }
+
+    /**
+     * Runs the analysis on the calling thread, reporting progress through the worker's progress property. Used by
+     * doInBackground, and by a batch analysis to run several workers on its own threads.
+     *
+     * @return the time of each discovered event mapped to its tag
+     * @throws Exception if the model could not be loaded or a pair could not be classified
+     */
+    HashMap<Long, String> analyze() throws Exception
     {
         int numProgressChunks = additionalDetection ? 5 : 4;
 
         setProgress(0);
 
-        InputStream fi = getClass().getClassLoader().getResourceAsStream("auto-analysis-model-v2.model");
-        RandomForest rf = (RandomForest) (new ObjectInputStream(fi)).readObject();
+        // Loaded once per session, usually in the background before analysis is started
+        RandomForest rf = AutoAnalysisModel.get();
 
         setProgress(100/numProgressChunks);
 
-        for(C1Event obs : observedEvents)
+        // Reference events each observed event could match. These are found up front on this thread because the
+        // reference channel reuses its event list between calls, so it can't be shared by the classifying threads.
+        // Batch runs can share a reference channel between workers, so they take turns reading it.
+        int observedCount = observedEvents.size();
+        candidateReferences = new ArrayList<>(Collections.nCopies(observedCount, null));
+        int candidateGraphOffset = autoAnalysisWindow.isCurrentReferenceMode(AutoAnalysis.ReferenceMode.GENERATED_DATA) ? dm.getGraphOffset() : 0;
+        synchronized(referenceChannel)
         {
-            if(obs.getStartTime() - dm.getGraphOffset() > dm.getMaxVideoLength() || obs.getStartTime() - dm.getGraphOffset() < 0)
-                continue;
+            for(int i = 1; i < observedCount - 1; i++)
+            {
+                C1Event obs = observedEvents.get(i);
+                if(obs.getStartTime() - dm.getGraphOffset() > dm.getMaxVideoLength() || obs.getStartTime() - dm.getGraphOffset() < 0)
+                    continue;
 
-            // Get the event's index and nearby events for the previous and next features
-            int idxObserved = observedEvents.indexOf(obs);
-            C1Event previousObservedEvent = (idxObserved != 0) ? observedEvents.get(idxObserved - 1) : null;
-            C1Event nextObservedEvent = (idxObserved != observedEvents.size() - 1) ? observedEvents.get(idxObserved + 1) : null;
-            if(previousObservedEvent == null || nextObservedEvent == null)
-                continue;
+                candidateReferences.set(i, referenceChannel.getEvents(obs.getStartTime() - candidateGraphOffset - 10000, obs.getEndTime() - candidateGraphOffset + 10000));
+            }
+        }
 
-            int graphOffset = autoAnalysisWindow.isCurrentReferenceMode(AutoAnalysis.ReferenceMode.GENERATED_DATA) ? dm.getGraphOffset() : 0;
-            Vector<C1Event> referenceEventsSubset = referenceChannel.getEvents(obs.getStartTime() - graphOffset - 10000, obs.getEndTime() - graphOffset + 10000);
-            for(C1Event ref : referenceEventsSubset)
-            {
-                // Comparing obs and ref, with the prev & next of obs and prev & next of ref
-                int idxReference = referenceEvents.indexOf(ref);
-                C1Event previousReferenceEvent = (idxReference != 0) ? referenceEvents.get(idxReference - 1) : null;
-                C1Event nextReferenceEvent = (idxReference != referenceEvents.size() - 1) ? referenceEvents.get(idxReference + 1) : null;
+        // Classify the pairs of every observed event in parallel, keeping the references each one matched
+        this.rf = rf;
+        this.datasetHeader = AutoAnalysisFeatures.createDatasetHeader();
+        this.featureGraphOffset = autoAnalysisWindow.isCurrentReferenceMode(AutoAnalysis.ReferenceMode.SELF_REFERENCE) ? 0 : dm.getGraphOffset();
+        this.referenceIndex = new C1EventIndex(referenceEvents);
+        this.matchedReferences = new ArrayList<>(Collections.nCopies(observedCount, null));
+        this.numProgressChunks = numProgressChunks;
+        observedProcessed.set(0);
+        pairsClassified.set(0);
+
+        long classifyStart = System.nanoTime();
+        if(observedCount > 0)
+        {
+            ForkJoinPool.commonPool().invoke(new ClassifyAction(0, observedCount));
+        }
 
-                if(previousReferenceEvent == null || nextReferenceEvent == null)
-                    continue;
+        // Group the matches in time order, exactly as if each pair had been grouped as soon as it was classified
+        for(int i = 0; i < observedCount; i++)
+        {
+            List<C1Event> matches = matchedReferences.get(i);
+            if(matches == null)
+                continue;
 
-                Instances instancesDataset = generateInstance(previousObservedEvent, obs, nextObservedEvent, previousReferenceEvent, ref, nextObservedEvent);
-                Instance newInstance = instancesDataset.firstInstance();
-                double pred = rf.classifyInstance(newInstance);
-                String predString = instancesDataset.classAttribute().value((int) pred);
+            C1Event obs = observedEvents.get(i);
+            for(C1Event ref : matches)
+            {
+                // Check if either event are in a group yet
+                C1Group obsGroup = eventMap.get(obs);
+                C1Group refGroup = eventMap.get(ref);
 
-                if(predString.equals("TRUE"))
+                if(obsGroup == null && refGroup == null)
                 {
-                    // Check if either event are in a group yet
-                    C1Group obsGroup = eventMap.get(obs);
-                    C1Group refGroup = eventMap.get(ref);
-
-                    if(obsGroup == null && refGroup == null)
-                    {
-                        // If no, create a new group and insert it
-                        Vector<C1Event> obsTmp = new Vector<>();
-                        obsTmp.add(obs);
-                        Vector<C1Event> refTmp = new Vector<>();
-                        refTmp.add(ref);
-                        addGroup(obsTmp, refTmp);
-                    }
-                    else if(obsGroup == null)
-                    {
-                        // If one is in a group, add the one that isn't to the existing group and update the map
-                        Vector<C1Event> obsTmp = refGroup.getObservedEventsList();
-                        obsTmp.add(obs);
-                        Vector<C1Event> refTmp = refGroup.getReferenceEventsList();
+                    // If no, create a new group and insert it
+                    Vector<C1Event> obsTmp = new Vector<>();
+                    obsTmp.add(obs);
+                    Vector<C1Event> refTmp = new Vector<>();
+                    refTmp.add(ref);
+                    addGroup(obsTmp, refTmp);
+                }
+                else if(obsGroup == null)
+                {
+                    // If one is in a group, add the one that isn't to the existing group and update the map
+                    Vector<C1Event> obsTmp = refGroup.getObservedEventsList();
+                    obsTmp.add(obs);
+                    Vector<C1Event> refTmp = refGroup.getReferenceEventsList();
 
-                        removeGroup(refGroup);
+                    removeGroup(refGroup);
 
-                        addGroup(obsTmp, refTmp);
-                    }
-                    else if(refGroup == null)
-                    {
-                        // If one is in a group, add the one that isn't to the existing group and update the map
-                        Vector<C1Event> obsTmp = obsGroup.getObservedEventsList();
-                        Vector<C1Event> refTmp = obsGroup.getReferenceEventsList();
-                        obsTmp.add(ref);
+                    addGroup(obsTmp, refTmp);
+                }
+                else if(refGroup == null)
+                {
+                    // If one is in a group, add the one that isn't to the existing group and update the map
+                    Vector<C1Event> obsTmp = obsGroup.getObservedEventsList();
+                    Vector<C1Event> refTmp = obsGroup.getReferenceEventsList();
+                    obsTmp.add(ref);
 
-                        removeGroup(obsGroup);
+                    removeGroup(obsGroup);
 
-                        addGroup(obsTmp, refTmp);
-                    }
-                    else if(!obsGroup.equals(refGroup))
-                    {
-                        // If both are in different groups, merge the two groups into one group
-                        Vector<C1Event> obsTmp1 = obsGroup.getObservedEventsList();
-                        Vector<C1Event> refTmp1 = obsGroup.getReferenceEventsList();
+                    addGroup(obsTmp, refTmp);
+                }
+                else if(!obsGroup.equals(refGroup))
+                {
+                    // If both are in different groups, merge the two groups into one group
+                    Vector<C1Event> obsTmp1 = obsGroup.getObservedEventsList();
+                    Vector<C1Event> refTmp1 = obsGroup.getReferenceEventsList();
 
-                        Vector<C1Event> obsTmp2 = refGroup.getObservedEventsList();
-                        Vector<C1Event> refTmp2 = refGroup.getReferenceEventsList();
+                    Vector<C1Event> obsTmp2 = refGroup.getObservedEventsList();
+                    Vector<C1Event> refTmp2 = refGroup.getReferenceEventsList();
 
-                        obsTmp1.addAll(obsTmp2);
-                        refTmp1.addAll(refTmp2);
+                    obsTmp1.addAll(obsTmp2);
+                    refTmp1.addAll(refTmp2);
 
-                        removeGroup(obsGroup);
-                        removeGroup(refGroup);
+                    removeGroup(obsGroup);
+                    removeGroup(refGroup);
 
-                        addGroup(obsTmp1, refTmp1);
-                    }
+                    addGroup(obsTmp1, refTmp1);
                 }
             }
-
-            int progress = (int) ((((double) (observedEvents.indexOf(obs)+1) / (double)observedEvents.size()) * 100) * (1.0/numProgressChunks) + (100/numProgressChunks));
-            setProgress(progress);
         }
 
+        classifyMillis = Math.max((System.nanoTime() - classifyStart) / 1_000_000, 1);
+        if(analysis_debug)
+            System.out.println(getClassificationReport());
+
         long minTime = observedEvents.firstElement().getStartTime() - dm.getGraphOffset();
         long maxTime = observedEvents.lastElement().getEndTime() - dm.getGraphOffset();
 
         HashMap<Long, String> discoveredEvents = new HashMap<>();
 
         // False Positives
-        for(C1Event obs : observedEvents)
+        for(int idxObserved = 0; idxObserved < observedEvents.size(); idxObserved++)
         {
+            C1Event obs = observedEvents.get(idxObserved);
+
             if(obs.getStartTime() - dm.getGraphOffset() > endTime
                     || obs.getStartTime() - dm.getGraphOffset() < startTime
                     || obs.getStartTime() - dm.getGraphOffset() > maxTime
@@ -186,13 +240,15 @@ public class AutoAnalysisWorker extends SwingWorker<HashMap<Long, String>, Void>
                 System.out.println("FALSE POSITIVE: " + (obs.getStartTime() - dm.getGraphOffset()));
             }
 
-            int progress = (int) ((((double) (observedEvents.indexOf(obs)+1) / (double)observedEvents.size()) * 100) * (1.0/numProgressChunks) + ((100/numProgressChunks)*2));
+            int progress = (int) ((((double) (idxObserved+1) / (double)observedEvents.size()) * 100) * (1.0/numProgressChunks) + ((100/numProgressChunks)*2));
             setProgress(progress);
         }
 
         // False Negatives
-        for(C1Event ref : referenceEvents)
+        for(int idxReference = 0; idxReference < referenceEvents.size(); idxReference++)
         {
+            C1Event ref = referenceEvents.get(idxReference);
+
             int graphOffset = autoAnalysisWindow.isCurrentReferenceMode(AutoAnalysis.ReferenceMode.GENERATED_DATA) ? 0 : dm.getGraphOffset();
 
             if(ref.getStartTime() - graphOffset > endTime
@@ -210,15 +266,17 @@ public class AutoAnalysisWorker extends SwingWorker<HashMap<Long, String>, Void>
                 System.out.println("FALSE NEGATIVE: " + (ref.getStartTime() - graphOffset));
             }
 
-            int progress = (int) ((((double) (referenceEvents.indexOf(ref)+1) / (double)referenceEvents.size()) * 100) * (1.0/numProgressChunks) + ((100/numProgressChunks)*3));
+            int progress = (int) ((((double) (idxReference+1) / (double)referenceEvents.size()) * 100) * (1.0/numProgressChunks) + ((100/numProgressChunks)*3));
             setProgress(progress);
         }
 
         // Dropped Calls
         if(additionalDetection)
         {
-            for(C1Group g : groups)
+            for(int idxGroup = 0; idxGroup < groups.size(); idxGroup++)
             {
+                C1Group g = groups.get(idxGroup);
+
                 int graphOffset = autoAnalysisWindow.isCurrentReferenceMode(AutoAnalysis.ReferenceMode.GENERATED_DATA) ? 0 : dm.getGraphOffset();
 
                 if(g.getObservedEventsAvgTime() - dm.getGraphOffset() > endTime
@@ -253,7 +311,7 @@ public class AutoAnalysisWorker extends SwingWorker<HashMap<Long, String>, Void>
                     System.out.println("DROPPED CALL/PARTIAL DETECTION: " + (obsEvents.firstElement().getStartTime() - dm.getGraphOffset()));
                 }
 
-                int progress = (int) ((((double) (groups.indexOf(g)+1) / (double)groups.size()) * 100) * (1.0/numProgressChunks) + ((100/numProgressChunks)*4));
+                int progress = (int) ((((double) (idxGroup+1) / (double)groups.size()) * 100) * (1.0/numProgressChunks) + ((100/numProgressChunks)*4));
                 setProgress(progress);
             }
         }
@@ -262,6 +320,57 @@ public class AutoAnalysisWorker extends SwingWorker<HashMap<Long, String>, Void>
         return discoveredEvents;
     }
 
+    /**
+     * Classifies every candidate pair of an observed event, recording the reference events it matched. Called from
+     * the fork/join pool, so it only reads shared state and writes the observed event's own slot.
+     *
+     * @param idxObserved index of the observed event
+     * @param features    feature vector owned by the calling thread
+     */
+    private void classifyObservedEvent(int idxObserved, FeatureVector features) throws Exception
+    {
+        Vector<C1Event> referenceEventsSubset = candidateReferences.get(idxObserved);
+        if(referenceEventsSubset == null)
+            return;
+
+        // Get the event's nearby events for the previous and next features
+        C1Event previousObservedEvent = observedEvents.get(idxObserved - 1);
+        C1Event obs = observedEvents.get(idxObserved);
+        C1Event nextObservedEvent = observedEvents.get(idxObserved + 1);
+
+        List<C1Event> matches = new ArrayList<>();
+        for(C1Event ref : referenceEventsSubset)
+        {
+            // Comparing obs and ref, with the prev & next of obs and prev & next of ref
+            C1Event previousReferenceEvent = referenceIndex.getPrevious(ref);
+            C1Event nextReferenceEvent = referenceIndex.getNext(ref);
+
+            if(previousReferenceEvent == null || nextReferenceEvent == null)
+                continue;
+
+            AutoAnalysisFeatures.writeFeatures(features.values, featureGraphOffset, previousObservedEvent, obs, nextObservedEvent, previousReferenceEvent, ref, nextObservedEvent);
+            double pred = rf.classifyInstance(features.instance);
+            pairsClassified.incrementAndGet();
+
+            if(datasetHeader.classAttribute().value((int) pred).equals("TRUE"))
+                matches.add(ref);
+        }
+
+        matchedReferences.set(idxObserved, matches);
+    }
+
+    /**
+     * Reports the progress of the classification, which fills the second progress chunk
+     */
+    private synchronized void observedEventProcessed()
+    {
+        int progress = (int) ((((double) observedProcessed.incrementAndGet() / (double) observedEvents.size()) * 100) * (1.0/numProgressChunks) + (100/numProgressChunks));
+
+        // Threads finish out of order, so never let the progress go backwards
+        if(progress > getProgress())
+            setProgress(progress);
+    }
+
     private void addGroup(Vector<C1Event> observedList, Vector<C1Event> referenceList)
     {
         C1Group newGroup = new C1Group(observedList, referenceList, 0, 0, 0, 0);
@@ -292,504 +401,63 @@ public class AutoAnalysisWorker extends SwingWorker<HashMap<Long, String>, Void>
         }
     }
 
-    private Instances generateInstance(C1Event previousObservedEvent, C1Event observedEvent, C1Event nextObservedEvent,
-                                      C1Event previousReferenceEvent, C1Event referenceEvent, C1Event nextReferenceEvent)
+    /**
+     * Feature values and the instance classified from them. Each classifying thread uses its own.
+     */
+    private static class FeatureVector
     {
-        ArrayList<Attribute> atts;
-        ArrayList<String> attVals;
-        Instances data;
-        double[] vals;
-
-        // 1. set up attributes
-        atts = new ArrayList<>();
-        // - numeric
-        atts.add(new Attribute("observed_event_duration"));
-        atts.add(new Attribute("observed_event_duration_relative_to_reference_duration"));
-        atts.add(new Attribute("observed_event_start_relative_to_reference_start"));
-        atts.add(new Attribute("observed_event_center_relative_to_reference_center"));
-        atts.add(new Attribute("observed_event_end_relative_to_reference_end"));
-        atts.add(new Attribute("reference_event_duration"));
-        atts.add(new Attribute("reference_event_duration_relative_to_observed_duration"));
-        atts.add(new Attribute("reference_event_start_relative_to_observed_start"));
-        atts.add(new Attribute("reference_event_center_relative_to_observed_center"));
-        atts.add(new Attribute("reference_event_end_relative_to_observed_end"));
-//        atts.add(new Attribute("perc_intersection_of_observed"));
-//        atts.add(new Attribute("perc_intersection_of_reference"));
-        atts.add(new Attribute("perc_intersection_of_union"));
-        atts.add(new Attribute("previous_observed_event_duration"));
-        atts.add(new Attribute("previous_observed_event_start_relative_to_observed_start"));
-        atts.add(new Attribute("previous_observed_event_center_relative_to_observed_center"));
-        atts.add(new Attribute("previous_observed_event_end_relative_to_observed_end"));
-        atts.add(new Attribute("previous_observed_event_end_relative_to_observed_start"));
-        atts.add(new Attribute("previous_observed_event_start_relative_to_reference_start"));
-        atts.add(new Attribute("previous_observed_event_center_relative_to_reference_center"));
-        atts.add(new Attribute("previous_observed_event_end_relative_to_reference_end"));
-        atts.add(new Attribute("previous_observed_event_end_relative_to_reference_start"));
-//        atts.add(new Attribute("perc_intersection_of_previous_observed_with_reference"));
-//        atts.add(new Attribute("perc_intersection_of_reference_with_previous_observed"));
-        atts.add(new Attribute("perc_intersection_of_union_of_previous_observed_and_reference"));
-        atts.add(new Attribute("next_observed_event_duration"));
-        atts.add(new Attribute("next_observed_event_start_relative_to_observed_start"));
-        atts.add(new Attribute("next_observed_event_center_relative_to_observed_center"));
-        atts.add(new Attribute("next_observed_event_end_relative_to_observed_end"));
-        atts.add(new Attribute("next_observed_event_start_relative_to_observed_end"));
-        atts.add(new Attribute("next_observed_event_start_relative_to_reference_start"));
-        atts.add(new Attribute("next_observed_event_center_relative_to_reference_center"));
-        atts.add(new Attribute("next_observed_event_end_relative_to_reference_end"));
-        atts.add(new Attribute("next_observed_event_start_relative_to_reference_end"));
-//        atts.add(new Attribute("perc_intersection_of_next_observed_with_reference"));
-//        atts.add(new Attribute("perc_intersection_of_reference_with_next_observed"));
-        atts.add(new Attribute("perc_intersection_of_union_of_next_observed_and_reference"));
-        atts.add(new Attribute("previous_reference_event_duration"));
-        atts.add(new Attribute("previous_reference_event_start_relative_to_reference_start"));
-        atts.add(new Attribute("previous_reference_event_center_relative_to_reference_center"));
-        atts.add(new Attribute("previous_reference_event_end_relative_to_reference_end"));
-        atts.add(new Attribute("previous_reference_event_end_relative_to_reference_start"));
-        atts.add(new Attribute("previous_reference_event_start_relative_to_observed_start"));
-        atts.add(new Attribute("previous_reference_event_center_relative_to_observed_center"));
-        atts.add(new Attribute("previous_reference_event_end_relative_to_observed_end"));
-        atts.add(new Attribute("previous_reference_event_end_relative_to_observed_start"));
-//        atts.add(new Attribute("perc_intersection_of_previous_reference_with_observed"));
-//        atts.add(new Attribute("perc_intersection_of_observed_with_previous_reference"));
-        atts.add(new Attribute("perc_intersection_of_union_of_previous_reference_and_observed"));
-        atts.add(new Attribute("next_reference_event_duration"));
-        atts.add(new Attribute("next_reference_event_start_relative_to_reference_start"));
-        atts.add(new Attribute("next_reference_event_center_relative_to_reference_center"));
-        atts.add(new Attribute("next_reference_event_end_relative_to_reference_end"));
-        atts.add(new Attribute("next_reference_event_start_relative_to_reference_end"));
-        atts.add(new Attribute("next_reference_event_start_relative_to_observed_start"));
-        atts.add(new Attribute("next_reference_event_center_relative_to_observed_center"));
-        atts.add(new Attribute("next_reference_event_end_relative_to_observed_end"));
-        atts.add(new Attribute("next_reference_event_start_relative_to_observed_end"));
-//        atts.add(new Attribute("perc_intersection_of_next_reference_with_observed"));
-//        atts.add(new Attribute("perc_intersection_of_observed_with_next_reference"));
-        atts.add(new Attribute("perc_intersection_of_union_of_next_reference_and_observed"));
-
-        attVals = new ArrayList<>();
-        attVals.add("FALSE");
-        attVals.add("TRUE");
-        atts.add(new Attribute("match", attVals));
-
-        // 2. create Instances object
-        data = new Instances("MyRelation", atts, 0);
-
-        List<String> feat = new ArrayList<>();
-        long tmp;
-        double perc;
-
-        int graphOffset = (autoAnalysisWindow.isCurrentReferenceMode(AutoAnalysis.ReferenceMode.SELF_REFERENCE)) ? 0 : dm.getGraphOffset();
-
-        long obsDuration = observedEvent.getDuration();
-        long obsStart = observedEvent.getStartTime();
-        long obsCenter = observedEvent.getHalfwayTime();
-        long obsEnd = observedEvent.getEndTime();
-
-        long prevObsDuration = previousObservedEvent.getDuration();
-        long prevObsStart = previousObservedEvent.getStartTime();
-        long prevObsCenter = previousObservedEvent.getHalfwayTime();
-        long prevObsEnd = previousObservedEvent.getEndTime();
-
-        long nextObsDuration = nextObservedEvent.getDuration();
-        long nextObsStart = nextObservedEvent.getStartTime();
-        long nextObsCenter = nextObservedEvent.getHalfwayTime();
-        long nextObsEnd = nextObservedEvent.getEndTime();
-
-        long refDuration = referenceEvent.getDuration();
-        long refStart = referenceEvent.getStartTime() + graphOffset;
-        long refCenter = referenceEvent.getHalfwayTime() + graphOffset;
-        long refEnd = referenceEvent.getEndTime() + graphOffset;
-
-        long prevRefDuration = previousReferenceEvent.getDuration();
-        long prevRefStart = previousReferenceEvent.getStartTime() + graphOffset;
-        long prevRefCenter = previousReferenceEvent.getHalfwayTime() + graphOffset;
-        long prevRefEnd = previousReferenceEvent.getEndTime() + graphOffset;
-
-        long nextRefDuration = nextReferenceEvent.getDuration();
-        long nextRefStart = nextReferenceEvent.getStartTime() + graphOffset;
-        long nextRefCenter = nextReferenceEvent.getHalfwayTime() + graphOffset;
-        long nextRefEnd = nextReferenceEvent.getEndTime() + graphOffset;
-
-        // observed_event_duration
-        feat.add(Long.toString(obsDuration));
-
-        // observed_event_start
-        //feat.add(Long.toString(obsStart));
-
-        // observed_event_center
-        //feat.add(Long.toString(obsCenter));
-
-        // observed_event_end
-        //feat.add(Long.toString(obsEnd));
-
-        // observed_event_duration_relative_to_reference_duration
-        tmp = obsDuration - refDuration;
-        feat.add(Long.toString(tmp));
-
-        // observed_event_start_relative_to_reference_start
-        tmp = obsStart - refStart;
-        feat.add(Long.toString(tmp));
-
-        // observed_event_center_relative_to_reference_center
-        tmp = obsCenter - refCenter;
-        feat.add(Long.toString(tmp));
-
-        // observed_event_end_relative_to_reference_end
-        tmp = obsEnd - refEnd;
-        feat.add(Long.toString(tmp));
-
-        // reference_event_duration
-        feat.add(Long.toString(refDuration));
-
-        // reference_event_start
-        //feat.add(Long.toString(refStart));
-
-        // reference_event_center
-        //feat.add(Long.toString(refCenter));
-
-        // reference_event_end
-        //feat.add(Long.toString(refEnd));
-
-        // reference_event_duration_relative_to_observed_duration
-        tmp = refDuration - obsDuration;
-        feat.add(Long.toString(tmp));
-
-        // reference_event_start_relative_to_reference_start
-        tmp = refStart - obsStart;
-        feat.add(Long.toString(tmp));
-
-        // reference_event_center_relative_to_reference_center
-        tmp = refCenter - obsCenter;
-        feat.add(Long.toString(tmp));
-
-        // reference_event_end_relative_to_reference_end
-        tmp = referenceEvent.getEndTime() - observedEvent.getEndTime();
-        feat.add(Long.toString(tmp));
-
-//        // perc_intersection_of_observed
-//        if(!(refStart > obsEnd || obsStart > refEnd))
-//            perc = (double) (Math.min(obsEnd, refEnd) - Math.max(obsStart, refStart)) / obsDuration;
-//        else
-//            perc = 0.0;
-//
-//        feat.add(Double.toString(perc));
-//
-//        // perc_intersection_of_reference
-//        if(!(refStart > obsEnd || obsStart > refEnd))
-//            perc = (double) (Math.min(obsEnd, refEnd) - Math.max(obsStart, refStart)) / refDuration;
-//        else
-//            perc = 0.0;
-//
-//        feat.add(Double.toString(perc));
-
-        // perc_intersection_of_union
-        if(!(refStart > obsEnd || obsStart > refEnd))
-            perc = (double) (Math.min(obsEnd, refEnd) - Math.max(obsStart, refStart)) / (Math.max(obsEnd, refEnd) - Math.min(obsStart, refStart));
-        else
-            perc = 0.0;
-
-        feat.add(Double.toString(perc));
-
-        // previous_observed_event_duration
-        feat.add(Long.toString(prevObsDuration));
-
-        // previous_observed_event_start
-        //feat.add(Long.toString(prevObsStart));
-
-        // previous_observed_event_center
-        //feat.add(Long.toString(prevObsCenter));
-
-        // previous_observed_event_end
-        //feat.add(Long.toString(prevObsEnd));
-
-        // previous_observed_event_start_relative_to_observed_start
-        tmp = prevObsStart - obsStart;
-        feat.add(Long.toString(tmp));
-
-        // previous_observed_event_center_relative_to_observed_center
-        tmp = prevObsCenter - obsCenter;
-        feat.add(Long.toString(tmp));
-
-        // previous_observed_event_end_relative_to_observed_end
-        tmp = prevObsEnd - obsEnd;
-        feat.add(Long.toString(tmp));
-
-        // previous_observed_event_end_relative_to_observed_start
-        tmp = prevObsEnd - obsStart;
-        feat.add(Long.toString(tmp));
-
-        // previous_observed_event_start_relative_to_reference_start
-        tmp = prevObsStart - refStart;
-        feat.add(Long.toString(tmp));
-
-        // previous_observed_event_center_relative_to_reference_center
-        tmp = prevObsCenter - refStart;
-        feat.add(Long.toString(tmp));
-
-        // previous_observed_event_end_relative_to_reference_end
-        tmp = prevObsEnd - refEnd;
-        feat.add(Long.toString(tmp));
-
-        // previous_observed_event_end_relative_to_reference_start
-        tmp = prevObsEnd - refStart;
-        feat.add(Long.toString(tmp));
-
-//        // perc_intersection_of_previous_observed_with_reference
-//        if(!(refStart > prevObsEnd || prevObsStart > refEnd))
-//            perc = (double) (Math.min(prevObsEnd, refEnd) - Math.max(prevObsStart, refStart)) / prevObsDuration;
-//        else
-//            perc = 0.0;
-//
-//        feat.add(Double.toString(perc));
-//
-//        // perc_intersection_of_reference_with_previous_observed
-//        if(!(refStart > prevObsEnd || prevObsStart > refEnd))
-//            perc = (double) (Math.min(prevObsEnd, refEnd) - Math.max(prevObsStart, refStart)) / refDuration;
-//        else
-//            perc = 0.0;
-//
-//        feat.add(Double.toString(perc));
-
-        // perc_intersection_of_union_of_previous_observed_and_reference
-        if(!(refStart > prevObsEnd || prevObsStart > refEnd))
-            perc = (double) (Math.min(prevObsEnd, refEnd) - Math.max(prevObsStart, refStart)) / (Math.max(prevObsEnd, refEnd) - Math.min(prevObsStart, refStart));
-        else
-            perc = 0.0;
-
-        feat.add(Double.toString(perc));
-
-        // next_observed_event_duration
-        feat.add(Long.toString(nextObsDuration));
-
-        // next_observed_event_start
-        //feat.add(Long.toString(nextObsStart));
-
-        // next_observed_event_center
-        //feat.add(Long.toString(nextObsCenter));
-
-        // next_observed_event_end
-        //feat.add(Long.toString(nextObsEnd));
-
-        // next_observed_event_start_relative_to_observed_start
-        tmp = nextObsStart - obsStart;
-        feat.add(Long.toString(tmp));
-
-        // next_observed_event_center_relative_to_observed_center
-        tmp = nextObsCenter - obsCenter;
-        feat.add(Long.toString(tmp));
-
-        // next_observed_event_end_relative_to_observed_end
-        tmp = nextObsEnd - obsEnd;
-        feat.add(Long.toString(tmp));
-
-        // next_observed_event_start_relative_to_observed_end
-        tmp = nextObsStart - obsEnd;
-        feat.add(Long.toString(tmp));
-
-        // next_observed_event_start_relative_to_reference_start
-        tmp = nextObsStart - refStart;
-        feat.add(Long.toString(tmp));
-
-        // next_observed_event_center_relative_to_reference_center
-        tmp = nextObsCenter - refCenter;
-        feat.add(Long.toString(tmp));
-
-        // next_observed_event_end_relative_to_reference_end
-        tmp = nextObsEnd - refEnd;
-        feat.add(Long.toString(tmp));
-
-        // next_observed_event_start_relative_to_reference_end
-        tmp = nextObsStart - refEnd;
-        feat.add(Long.toString(tmp));
-
-//        // perc_intersection_of_next_observed_with_reference
-//        if(!(refStart > nextObsEnd || nextObsStart > refEnd))
-//            perc = (double) (Math.min(nextObsEnd, refEnd) - Math.max(nextObsStart, refStart)) / nextObsDuration;
-//        else
-//            perc = 0.0;
-//
-//        feat.add(Double.toString(perc));
-//
-//        // perc_intersection_of_reference_with_next_observed
-//        if(!(refStart > nextObsEnd || nextObsStart > refEnd))
-//            perc = (double) (Math.min(nextObsEnd, refEnd) - Math.max(nextObsStart, refStart)) / refDuration;
-//        else
-//            perc = 0.0;
-//
-//        feat.add(Double.toString(perc));
-
-        // perc_intersection_of_union_of_next_observed_and_reference
-        if(!(refStart > nextObsEnd || nextObsStart > refEnd))
-            perc = (double) (Math.min(nextObsEnd, refEnd) - Math.max(nextObsStart, refStart)) / (Math.max(nextObsEnd, refEnd) - Math.min(nextObsStart, refStart));
-        else
-            perc = 0.0;
-
-        feat.add(Double.toString(perc));
-
-        // previous_reference_event_duration
-        feat.add(Long.toString(prevRefDuration));
-
-        // previous_reference_event_start
-        //feat.add(Long.toString(prevRefStart));
-
-        // previous_reference_event_center
-        //feat.add(Long.toString(prevRefCenter));
-
-        // previous_reference_event_end
-        //feat.add(Long.toString(prevRefEnd));
-
-        // previous_reference_event_start_relative_to_reference_start
-        tmp = prevRefStart - refStart;
-        feat.add(Long.toString(tmp));
-
-        // previous_reference_event_center_relative_to_reference_center
-        tmp = prevRefCenter - refCenter;
-        feat.add(Long.toString(tmp));
-
-        // previous_reference_event_end_relative_to_reference_end
-        tmp = prevRefEnd - refEnd;
-        feat.add(Long.toString(tmp));
-
-        // previous_reference_event_end_relative_to_reference_start
-        tmp = prevRefEnd - refStart;
-        feat.add(Long.toString(tmp));
-
-        // previous_reference_event_start_relative_to_observed_start
-        tmp = prevRefStart - obsStart;
-        feat.add(Long.toString(tmp));
-
-        // previous_reference_event_center_relative_to_observed_center
-        tmp = prevRefCenter - obsCenter;
-        feat.add(Long.toString(tmp));
-
-        // previous_reference_event_end_relative_to_observed_end
-        tmp = prevRefEnd - obsEnd;
-        feat.add(Long.toString(tmp));
-
-        // previous_reference_event_end_relative_to_observed_start
-        tmp = prevRefEnd - obsStart;
-        feat.add(Long.toString(tmp));
-
-//        // perc_intersection_of_previous_reference_with_observed
-//        if(!(obsStart > prevRefEnd || prevRefStart > obsEnd))
-//            perc = (double) (Math.min(prevRefEnd, obsEnd) - Math.max(prevRefStart, obsStart)) / prevRefDuration;
-//        else
-//            perc = 0.0;
-//
-//        feat.add(Double.toString(perc));
-//
-//        // perc_intersection_of_observed_with_previous_reference
-//        if(!(obsStart > prevRefEnd || prevRefStart > obsEnd))
-//            perc = (double) (Math.min(prevRefEnd, obsEnd) - Math.max(prevRefStart, obsStart)) / obsDuration;
-//        else
-//            perc = 0.0;
-//
-//        feat.add(Double.toString(perc));
-
-        // perc_intersection_of_union_of_previous_reference_and_observed
-        if(!(obsStart > prevRefEnd || prevRefStart > obsEnd))
-            perc = (double) (Math.min(prevRefEnd, obsEnd) - Math.max(prevRefStart, obsStart)) / (Math.max(prevRefEnd, obsEnd) - Math.min(prevRefStart, obsStart));
-        else
-            perc = 0.0;
-
-        feat.add(Double.toString(perc));
-
-        // next_reference_event_duration
-        feat.add(Long.toString(nextRefDuration));
-
-        // next_reference_event_start
-        //feat.add(Long.toString(nextRefStart));
-
-        // next_reference_event_center
-        //feat.add(Long.toString(nextRefCenter));
-
-        // next_reference_event_end
-        //feat.add(Long.toString(nextRefEnd));
-
-        // next_reference_event_start_relative_to_reference_start
-        tmp = nextRefStart - refStart;
-        feat.add(Long.toString(tmp));
-
-        // next_reference_event_center_relative_to_reference_center
-        tmp = nextRefCenter - refCenter;
-        feat.add(Long.toString(tmp));
-
-        // next_reference_event_end_relative_to_reference_end
-        tmp = nextRefEnd - refEnd;
-        feat.add(Long.toString(tmp));
-
-        // next_reference_event_start_relative_to_reference_end
-        tmp = nextRefStart - refEnd;
-        feat.add(Long.toString(tmp));
-
-        // next_reference_event_start_relative_to_observed_start
-        tmp = nextRefStart - obsStart;
-        feat.add(Long.toString(tmp));
-
-        // next_reference_event_center_relative_to_observed_center
-        tmp = nextRefCenter - obsCenter;
-        feat.add(Long.toString(tmp));
-
-        // next_reference_event_end_relative_to_observed_end
-        tmp = nextRefEnd - obsEnd;
-        feat.add(Long.toString(tmp));
-
-        // next_reference_event_start_relative_to_observed_end
-        tmp = nextRefStart - obsEnd;
-        feat.add(Long.toString(tmp));
-
-//        // perc_intersection_of_next_reference_with_observed
-//        if(!(obsStart > nextRefEnd || nextRefStart > obsEnd))
-//            perc = (double) (Math.min(nextRefEnd, obsEnd) - Math.max(nextRefStart, obsStart)) / nextRefDuration;
-//        else
-//            perc = 0.0;
-//
-//        feat.add(Double.toString(perc));
-//
-//        // perc_intersection_of_observed_with_next_reference
-//        if(!(obsStart > nextRefEnd || nextRefStart > obsEnd))
-//            perc = (double) (Math.min(nextRefEnd, obsEnd) - Math.max(nextRefStart, obsStart)) / obsDuration;
-//        else
-//            perc = 0.0;
-//
-//        feat.add(Double.toString(perc));
-
-        // perc_intersection_of_union_of_next_reference_and_observed
-        if(!(obsStart > nextRefEnd || nextRefStart > obsEnd))
-            perc = (double) (Math.min(nextRefEnd, obsEnd) - Math.max(nextRefStart, obsStart)) / (Math.max(nextRefEnd, obsEnd) - Math.min(nextRefStart, obsStart));
-        else
-            perc = 0.0;
-
-        feat.add(Double.toString(perc));
-
-        // 3. fill with data
-        vals = new double[data.numAttributes()];
-        // - numeric
-        for(String s : feat)
+        private final double[] values;
+        private final DenseInstance instance;
+
+        FeatureVector(Instances datasetHeader)
         {
-            int idx = feat.indexOf(s);
-            boolean isLong;
+            values = new double[datasetHeader.numAttributes()];
+            instance = new DenseInstance(1.0, values);
+            instance.setDataset(datasetHeader);
+        }
+    }
 
-            try
-            {
-                vals[idx] = Long.parseLong(s);
-                isLong = true;
-            }
-            catch(NumberFormatException e)
-            {
-                isLong = false;
-            }
+    /**
+     * Classifies the pairs of a range of observed events, splitting it until the ranges are small enough to be
+     * worth a task of their own
+     */
+    private class ClassifyAction extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
 
-            if(!isLong)
-            {
-                vals[idx] = Double.parseDouble(s);
-            }
+        private final int from;
+        private final int to;
+
+        ClassifyAction(int from, int to)
+        {
+            this.from = from;
+            this.to = to;
         }
 
-        // add
-        data.add(new DenseInstance(1.0, vals));
-        data.setClassIndex(data.numAttributes() - 1);
+        @Override
+        protected void compute()
+        {
+            if(to - from <= CLASSIFY_BATCH_SIZE)
+            {
+                FeatureVector features = new FeatureVector(datasetHeader);
+                for(int i = from; i < to; i++)
+                {
+                    try
+                    {
+                        classifyObservedEvent(i, features);
+                    }
+                    catch(Exception e)
+                    {
+                        throw new IllegalStateException("Unable to classify observed event " + i, e);
+                    }
+                    observedEventProcessed();
+                }
+                return;
+            }
 
-        return data;
+            int middle = (from + to) >>> 1;
+            invokeAll(new ClassifyAction(from, middle), new ClassifyAction(middle, to));
+        }
     }
 
     @Override
@@ -809,6 +477,22 @@ public class AutoAnalysisWorker extends SwingWorker<HashMap<Long, String>, Void>
         }
     }
 
+    /**
+     * Returns how many event pairs were classified, on how many threads and how quickly
+     *
+     * @return classification timing, or null if the analysis has not classified the pairs yet
+     */
+    public String getClassificationReport()
+    {
+        long millis = classifyMillis;
+        if(millis == 0)
+            return null;
+
+        int classified = pairsClassified.get();
+        return "Classified " + classified + " event pairs on " + ForkJoinPool.getCommonPoolParallelism() + " threads in "
+                + millis + " ms (" + (classified * 1000L / millis) + " pairs/s)";
+    }
+
     public HashMap<Long, String> getResults()
     {
         return (HashMap<Long, String>) results.clone();
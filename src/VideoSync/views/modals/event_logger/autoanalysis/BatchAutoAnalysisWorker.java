@@ -0,0 +1,174 @@
+package VideoSync.views.modals.event_logger.autoanalysis;
+
+import VideoSync.objects.DeviceInputMap;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs auto analysis on several observed and reference channel pairs at once, such as every lane of a site. The pairs
+ * are analysed concurrently on a pool of at most one thread per processor, all sharing the session's analysis model,
+ * and the events discovered on every pair are returned together so they can be saved in one step.
+ */
+public class BatchAutoAnalysisWorker extends SwingWorker<List<BatchAutoAnalysisWorker.LanePair>, Void>
+{
+    private final List<LanePair> pairs;
+
+    /**
+     * Latest progress of each pair. Only used on the event dispatch thread, where progress changes are delivered.
+     */
+    private final int[] pairProgress;
+
+    public BatchAutoAnalysisWorker(List<LanePair> pairs)
+    {
+        this.pairs = new ArrayList<>(pairs);
+        this.pairProgress = new int[pairs.size()];
+
+        for(int i = 0; i < this.pairs.size(); i++)
+        {
+            int pairIndex = i;
+            this.pairs.get(i).worker.addPropertyChangeListener(evt -> {
+                if("progress".equals(evt.getPropertyName()))
+                {
+                    pairProgressUpdate(pairIndex, (Integer) evt.getNewValue());
+                }
+            });
+        }
+    }
+
+    @Override
+    public List<LanePair> doInBackground() throws Exception
+    {
+        setProgress(0);
+
+        if(pairs.isEmpty())
+            return pairs;
+
+        // Load the model once up front, so a missing model fails the batch instead of every pair
+        AutoAnalysisModel.get();
+
+        // Each pair classifies its events on the common fork/join pool, so running more pairs than there are
+        // processors would only add threads waiting for it
+        int threadCount = Math.min(Runtime.getRuntime().availableProcessors(), pairs.size());
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount, r ->
+        {
+            Thread thread = new Thread(r, "Auto Analysis");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long start = System.currentTimeMillis();
+        try
+        {
+            List<Future<HashMap<Long, String>>> futures = new ArrayList<>();
+            for(LanePair pair : pairs)
+            {
+                futures.add(executor.submit(pair.worker::analyze));
+            }
+
+            for(int i = 0; i < pairs.size(); i++)
+            {
+                LanePair pair = pairs.get(i);
+                try
+                {
+                    pair.results = futures.get(i).get();
+                }
+                catch(ExecutionException e)
+                {
+                    // Keep the results of the other pairs, the failed pair is reported in the summary
+                    System.out.println("Unable to analyze " + pair.getName() + ":");
+                    e.getCause().printStackTrace();
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        System.out.println("Analyzed " + pairs.size() + " channel pairs on " + threadCount + " threads in "
+                + (System.currentTimeMillis() - start) + " ms");
+
+        setProgress(100);
+        return pairs;
+    }
+
+    /**
+     * Reports the average progress of the pairs as the progress of the batch
+     */
+    private void pairProgressUpdate(int pairIndex, int progress)
+    {
+        pairProgress[pairIndex] = progress;
+
+        int total = 0;
+        for(int p : pairProgress)
+        {
+            total += p;
+        }
+
+        // Never let the progress go backwards or reach 100 before every pair's results have been collected
+        int batchProgress = Math.min(total / pairProgress.length, 99);
+        if(!isDone() && batchProgress > getProgress())
+            setProgress(batchProgress);
+    }
+
+    /**
+     * An observed channel and the worker analysing it against its reference channel
+     */
+    public static class LanePair
+    {
+        private final DeviceInputMap observed;
+        private final DeviceInputMap reference;
+        private final AutoAnalysisWorker worker;
+
+        /**
+         * Events discovered on the observed channel, or null if the analysis failed
+         */
+        private HashMap<Long, String> results;
+
+        /**
+         * Creates a pair
+         *
+         * @param observed  input mapping of the observed channel
+         * @param reference input mapping of the reference channel, or null if it is a generated channel
+         * @param worker    worker set up to analyse the pair, which is run by the batch rather than executed
+         */
+        public LanePair(DeviceInputMap observed, DeviceInputMap reference, AutoAnalysisWorker worker)
+        {
+            this.observed = observed;
+            this.reference = reference;
+            this.worker = worker;
+        }
+
+        public DeviceInputMap getObserved()
+        {
+            return observed;
+        }
+
+        public DeviceInputMap getReference()
+        {
+            return reference;
+        }
+
+        public HashMap<Long, String> getResults()
+        {
+            return results;
+        }
+
+        /**
+         * Returns the names of the channels for reporting
+         *
+         * @return observed channel name, followed by the reference channel name if it is mapped
+         */
+        public String getName()
+        {
+            return (reference != null) ? observed.getChannelName() + " / " + reference.getChannelName() : observed.getChannelName();
+        }
+    }
+}
@@ -30,6 +30,7 @@ import VideoSync.views.menus.MainMenuBar;
 import VideoSync.views.tabbed_panels.graphs.GraphOptions;
 import VideoSync.views.tabbed_panels.graphs.GraphPane;
 import VideoSync.views.tabbed_panels.graphs.GraphPanel;
+import VideoSync.views.tabbed_panels.graphs.OverviewStrip;
 import VideoSync.views.videos.VideoPane;
 import VideoSync.views.videos.VideoPlayer;
 
@@ -167,6 +168,11 @@ public class DataWindow extends JFrame implements WindowListener
         graphPane.add(panelOptions, BorderLayout.NORTH);
         graphPane.add(scrollPane, BorderLayout.CENTER);
 
+        // Create the C1 overview strip below the graphs and have it observe the Data Model
+        OverviewStrip overviewStrip = new OverviewStrip(dm.returnProxy());
+        dm.addObserver(overviewStrip);
+        graphPane.add(overviewStrip, BorderLayout.SOUTH);
+
         // Add the Graphs Pane to the tabbed panel.
         tabbedPane.addTab("Graphs", null, graphPane, "Traffic Events Tab");
 
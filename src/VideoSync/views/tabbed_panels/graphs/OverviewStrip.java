@@ -0,0 +1,339 @@
+package VideoSync.views.tabbed_panels.graphs;
+
+import VideoSync.models.DataModelProxy;
+import VideoSync.objects.c1.C1Channel;
+import VideoSync.objects.c1.C1Pyramid;
+
+import javax.swing.*;
+import javax.swing.border.EtchedBorder;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.Observable;
+import java.util.Observer;
+import java.util.Vector;
+
+/**
+ * Strip below the graphs showing every C1 channel over a long stretch of time, one thin row per channel shaded by
+ * how much of each pixel's time the channel spent inside events. Channels stuck inside an event are tinted red so
+ * detector faults stand out. The rows are drawn from each channel's pyramid, so drawing takes the same time at any
+ * zoom level.
+ * <p>
+ * The mouse wheel zooms around the pointer, clicking jumps the graphs and videos to that time and right clicking
+ * shows the whole file again.
+ */
+public class OverviewStrip extends JPanel implements Observer
+{
+    private static final long serialVersionUID = 1L;
+
+    public static final int STRIP_PREFERRED_HEIGHT = 72;
+
+    /**
+     * Height of the label row above the channel rows
+     */
+    private static final int LABEL_HEIGHT = 14;
+
+    /**
+     * Shortest time span the strip can be zoomed in to, in milliseconds
+     */
+    private static final long MIN_VIEW_MILLIS = 10000;
+
+    /**
+     * Factor the time span changes by for each step of the mouse wheel
+     */
+    private static final double ZOOM_STEP = 1.5;
+
+    private static final Color NO_DATA_COLOR = new Color(0xD8D8D8);
+    private static final Color INACTIVE_COLOR = Color.WHITE;
+    private static final Color OCCUPIED_COLOR = new Color(0x1F3F8F);
+    private static final Color STUCK_COLOR = new Color(0xD04040);
+
+    /**
+     * Used to request the channels and current position from the DataModel
+     */
+    private final DataModelProxy dmp;
+
+    /**
+     * Start and end of the time span shown, in milliseconds of C1 data. An end of 0 shows the whole file.
+     */
+    private long viewStart;
+    private long viewEnd;
+
+    /**
+     * False after the DataModel resets until new data is loaded, so the channels of the previous file aren't shown
+     */
+    private boolean showData;
+
+    /**
+     * Channel rows rendered for the last view, reused until the view, size or channels change
+     */
+    private BufferedImage rowsImage;
+    private long imageStart;
+    private long imageEnd;
+    private Vector<C1Pyramid> imagePyramids = new Vector<>();
+
+    /**
+     * Width of the pyramid buckets the rows were drawn from
+     */
+    private long imageBucketMillis;
+
+    public OverviewStrip(DataModelProxy dmp)
+    {
+        this.dmp = dmp;
+
+        setPreferredSize(new Dimension(GraphPanel.GRAPH_PREFERRED_WIDTH, STRIP_PREFERRED_HEIGHT));
+        setBorder(new EtchedBorder(EtchedBorder.LOWERED, null, null));
+        setToolTipText("C1 overview: scroll to zoom, click to jump, right click to show the whole file");
+
+        MouseAdapter mouseAdapter = new MouseAdapter()
+        {
+            @Override
+            public void mouseClicked(MouseEvent e)
+            {
+                if(SwingUtilities.isRightMouseButton(e))
+                {
+                    viewStart = 0;
+                    viewEnd = 0;
+                    repaint();
+                }
+                else
+                {
+                    jumpTo(e.getX());
+                }
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e)
+            {
+                zoom(e.getX(), e.getWheelRotation());
+            }
+        };
+        addMouseListener(mouseAdapter);
+        addMouseWheelListener(mouseAdapter);
+    }
+
+    /**
+     * Invoked when the Data Model sends out a notification. The rows are redrawn when the data changes and the
+     * position marker is moved whenever the position changes.
+     */
+    @Override
+    public void update(Observable o, Object arg)
+    {
+        if(arg instanceof String)
+        {
+            if(arg.equals("Reset"))
+            {
+                showData = false;
+                viewStart = 0;
+                viewEnd = 0;
+            }
+
+            // The input mapping of newly loaded C1 data was set
+            if(arg.equals("Input"))
+                showData = true;
+        }
+
+        // A new data file was added to the device list
+        if(arg instanceof Map)
+            showData = true;
+
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g)
+    {
+        super.paintComponent(g);
+
+        Insets insets = getInsets();
+        int x = insets.left;
+        int y = insets.top + LABEL_HEIGHT;
+        int width = getWidth() - insets.left - insets.right;
+        int height = getHeight() - insets.top - insets.bottom - LABEL_HEIGHT;
+
+        Vector<C1Pyramid> pyramids = getPyramids();
+        if(pyramids.isEmpty() || width <= 0 || height <= 0)
+        {
+            g.setColor(Color.GRAY);
+            g.drawString("C1 overview: no data loaded", x + 4, insets.top + LABEL_HEIGHT - 3);
+            return;
+        }
+
+        long endTime = pyramids.firstElement().getEndTime();
+        long start = viewEnd > 0 ? viewStart : 0;
+        long end = viewEnd > 0 ? viewEnd : Math.max(endTime, 1);
+
+        if(rowsImage == null || rowsImage.getWidth() != width || rowsImage.getHeight() != height
+                || imageStart != start || imageEnd != end || !pyramids.equals(imagePyramids))
+        {
+            renderRows(pyramids, start, end, width, height);
+        }
+        g.drawImage(rowsImage, x, y, null);
+
+        // Mark the part of the data currently shown in the graphs
+        long current = dmp.getCurrentPosition() + dmp.getGraphOffset();
+        double halfWindow = dmp.getGraphWindowSeconds() * 1000 / 2;
+        double pixelsPerMilli = (double) width / (end - start);
+        int windowLeft = x + (int) ((current - halfWindow - start) * pixelsPerMilli);
+        int windowRight = x + (int) ((current + halfWindow - start) * pixelsPerMilli);
+        int marker = x + (int) ((current - start) * pixelsPerMilli);
+
+        g.setColor(new Color(255, 200, 0, 80));
+        g.fillRect(windowLeft, y, Math.max(windowRight - windowLeft, 1), height);
+        g.setColor(Color.ORANGE.darker());
+        g.drawLine(marker, y, marker, y + height - 1);
+
+        g.setColor(Color.DARK_GRAY);
+        g.drawString(String.format("C1 overview: %s - %s (%s buckets)", formatTime(start), formatTime(end), formatTime(imageBucketMillis)),
+                x + 4, insets.top + LABEL_HEIGHT - 3);
+    }
+
+    /**
+     * Draws one row per channel into the cached image, reading each channel's pyramid at the level matching the
+     * time covered by a pixel
+     */
+    private void renderRows(Vector<C1Pyramid> pyramids, long start, long end, int width, int height)
+    {
+        rowsImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        imageStart = start;
+        imageEnd = end;
+        imagePyramids = pyramids;
+        imageBucketMillis = C1Pyramid.getBucketMillis(C1Pyramid.getLevelForResolution((double) (end - start) / width));
+
+        double[] occupancy = new double[width];
+        int[] transitions = new int[width];
+        int[] pixels = new int[width];
+        int rows = pyramids.size();
+
+        for(int row = 0; row < rows; row++)
+        {
+            pyramids.get(row).summarize(start, end, occupancy, transitions);
+
+            for(int i = 0; i < width; i++)
+                pixels[i] = getPixelColor(occupancy[i], transitions[i]);
+
+            // Leave a one pixel gap between rows when there is room for it
+            int top = row * height / rows;
+            int bottom = (row + 1) * height / rows;
+            if(bottom - top > 2)
+                bottom--;
+
+            for(int line = top; line < bottom; line++)
+                rowsImage.setRGB(0, line, width, 1, pixels, 0, width);
+        }
+    }
+
+    /**
+     * Returns the color of a pixel from the fraction of its time spent inside events
+     */
+    private static int getPixelColor(double occupancy, int transitions)
+    {
+        if(occupancy < 0)
+            return NO_DATA_COLOR.getRGB();
+
+        // Inside an event for the whole pixel without changing state, so the detector may be stuck on
+        if(occupancy >= 1 && transitions == 0)
+            return STUCK_COLOR.getRGB();
+
+        double f = Math.min(occupancy, 1);
+        int r = (int) (INACTIVE_COLOR.getRed() + (OCCUPIED_COLOR.getRed() - INACTIVE_COLOR.getRed()) * f);
+        int gr = (int) (INACTIVE_COLOR.getGreen() + (OCCUPIED_COLOR.getGreen() - INACTIVE_COLOR.getGreen()) * f);
+        int b = (int) (INACTIVE_COLOR.getBlue() + (OCCUPIED_COLOR.getBlue() - INACTIVE_COLOR.getBlue()) * f);
+        return (r << 16) | (gr << 8) | b;
+    }
+
+    /**
+     * Returns the pyramids of the loaded C1 channels, skipping channels still being streamed in
+     */
+    private Vector<C1Pyramid> getPyramids()
+    {
+        Vector<C1Pyramid> pyramids = new Vector<>();
+        if(!showData || !dmp.dataLoaded())
+            return pyramids;
+
+        Vector<C1Channel> channels;
+        try
+        {
+            channels = dmp.getC1AnalyzerChannels();
+        }
+        catch(NullPointerException e)
+        {
+            // No C1 file has been loaded
+            return pyramids;
+        }
+
+        for(C1Channel c : channels)
+        {
+            if(c.getPyramid() != null)
+                pyramids.add(c.getPyramid());
+        }
+        return pyramids;
+    }
+
+    /**
+     * Moves the graphs and videos to the time under the given x coordinate
+     */
+    private void jumpTo(int mouseX)
+    {
+        Long time = getTimeAt(mouseX);
+        if(time == null)
+            return;
+
+        dmp.setSliderPosition((int) Math.max(time - dmp.getGraphOffset(), 0));
+    }
+
+    /**
+     * Zooms the shown time span in or out around the time under the given x coordinate
+     */
+    private void zoom(int mouseX, int wheelRotation)
+    {
+        Long time = getTimeAt(mouseX);
+        if(time == null)
+            return;
+
+        long endTime = imagePyramids.firstElement().getEndTime();
+        long start = viewEnd > 0 ? viewStart : 0;
+        long end = viewEnd > 0 ? viewEnd : Math.max(endTime, 1);
+
+        double factor = Math.pow(ZOOM_STEP, wheelRotation);
+        long span = (long) Math.max(MIN_VIEW_MILLIS, (end - start) * factor);
+        if(span >= endTime)
+        {
+            viewStart = 0;
+            viewEnd = 0;
+        }
+        else
+        {
+            // Keep the time under the pointer at the same place in the strip
+            double fraction = (double) (time - start) / (end - start);
+            viewStart = Math.max(0, Math.min(time - (long) (span * fraction), endTime - span));
+            viewEnd = viewStart + span;
+        }
+        repaint();
+    }
+
+    /**
+     * Returns the time of the data under the given x coordinate of the last rendered rows
+     */
+    private Long getTimeAt(int mouseX)
+    {
+        if(rowsImage == null || imagePyramids.isEmpty())
+            return null;
+
+        int x = Math.max(0, Math.min(mouseX - getInsets().left, rowsImage.getWidth() - 1));
+        return imageStart + (long) ((double) x / rowsImage.getWidth() * (imageEnd - imageStart));
+    }
+
+    private static String formatTime(long millis)
+    {
+        long seconds = millis / 1000;
+        if(seconds < 60)
+            return seconds + "s";
+        if(seconds < 3600)
+            return String.format("%d:%02d", seconds / 60, seconds % 60);
+        return String.format("%d:%02d:%02d", seconds / 3600, (seconds / 60) % 60, seconds % 60);
+    }
+}
@@ -13,23 +13,25 @@ package VideoSync.views.videos;
 import VideoSync.models.DataModelProxy;
 import VideoSync.objects.graphs.FixedRegion;
 import VideoSync.objects.graphs.FreeFormRegion;
-import VideoSync.objects.graphs.Line;
 import VideoSync.objects.graphs.Region;
 import VideoSync.views.menus.RegionContextMenu;
 import VideoSync.views.tabbed_panels.graphs.GraphOptions;
-import VideoSync.views.tabbed_panels.graphs.GraphPanel;
 import VideoSync.views.videos.commands.*;
 import uk.co.caprica.vlcj.player.MediaPlayer;
 
 import javax.swing.*;
+import javax.swing.event.PopupMenuEvent;
+import javax.swing.event.PopupMenuListener;
 import java.awt.*;
 import java.awt.event.*;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Area;
 import java.awt.geom.GeneralPath;
 import java.awt.geom.PathIterator;
 import java.awt.image.BufferedImage;
 import java.util.Iterator;
 import java.util.Vector;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.prefs.Preferences;
 
 import static java.awt.geom.PathIterator.SEG_CLOSE;
@@ -59,29 +61,45 @@ public class DirectVideoRenderPanel extends JPanel implements MouseListener, Mou
     private static final int NO_VIDEO_FONT_SIZE = 48;
     private static final int NO_VIDEO_TEXT_OFFSET = 180;
     private static final String NO_VIDEO_MESSAGE = "End of Video!";
-    private int regionBorderWidth = 2;
-    private static final int REGION_FILLED_ALPHA = 148;
 
     /**
-     * Framerate to repaint the panel at
+     * Width of the region borders from the graph options. Kept up to date by a preference listener instead of being
+     * read from the preferences every frame.
      */
-    private static final int TIMER_FRAMERATE = 60;
+    private volatile int regionBorderWidth;
 
     /**
-     * Framerate converted into a millisecond duration for the timer.
+     * Stroke used when drawing the vertex markers of free-form regions
      */
-    private static final int TIMER_MS = 1000 / TIMER_FRAMERATE;
+    private static final BasicStroke VERTEX_STROKE = new BasicStroke(2);
 
     /**
-     * The buffer containing the current video frame to render.
+     * Highest framerate the panel repaints at, however often new frames or changes arrive
      */
-    private BufferedImage videoFrame;
+    private static final int MAX_FRAMERATE = 60;
 
     /**
-     * The buffer used to store a copy of the current frame to draw on.
-     * This way, if the frame is updated mid-draw we don't get tearing and flicker.
+     * Maximum framerate converted into the shortest time between the start of two paints.
      */
-    private BufferedImage renderCopy;
+    private static final long MIN_PAINT_INTERVAL_NANOS = 1_000_000_000L / MAX_FRAMERATE;
+
+    /**
+     * Frames decoded by the media player. The decoder and the panel each own a separate image in it, so the frame
+     * being drawn is never updated mid-draw and doesn't have to be copied first to avoid tearing and flicker.
+     */
+    private final VideoFrameBuffer frameBuffer = new VideoFrameBuffer();
+
+    /**
+     * Scales and centers the video frame in the panel. Regions are drawn through it as well, so they can use video
+     * frame coordinates. Only recalculated when the panel or frame size changes.
+     */
+    private final AffineTransform frameTransform = new AffineTransform();
+
+    /**
+     * Panel and frame size the frame transform was last calculated for
+     */
+    private int scaledPanelWidth = -1;
+    private int scaledPanelHeight = -1;
 
     /**
      * Media player generating frames for this panel. Referenced so we can check the current playback time for the no video message.
@@ -156,13 +174,34 @@ public class DirectVideoRenderPanel extends JPanel implements MouseListener, Mou
     private int mouseDownOffsetY;
 
     /**
-     * Timer to repaint video frame
+     * One-shot timer used to delay a requested repaint until the framerate cap allows it
      */
     private final Timer repaintTimer;
 
     /**
-     * The GeneralPath of the current region being rendered. Putting the GeneralPath up here as one of the class fields
-     * removes the need create a new GeneralPath object every frame.
+     * Set while a repaint has been requested but hasn't run yet, so requests arriving in the meantime are coalesced
+     */
+    private final AtomicBoolean repaintRequested = new AtomicBoolean();
+
+    /**
+     * Time the last paint started at, used to apply the framerate cap
+     */
+    private volatile long lastPaintNanos;
+
+    /**
+     * Number of paints and the total and longest time they took. Only updated on the EDT.
+     */
+    private long paintCount;
+    private long totalPaintNanos;
+    private long maxPaintNanos;
+
+    /**
+     * Thumbnail drawn in place of the video frame while the playback slider is dragged, or null to draw the frame
+     */
+    private volatile BufferedImage previewFrame;
+
+    /**
+     * The outline of the free-form region last checked against the mouse, used by insideLine().
      */
     private GeneralPath gFreePath;
 
@@ -191,19 +230,99 @@ public class DirectVideoRenderPanel extends JPanel implements MouseListener, Mou
         //Set up double buffering.
         setDoubleBuffered(true);
 
-        //Set up a repeating timer for the constant framerate used to calculate TIMER_MS.
-        //This timer drives painting.
-        repaintTimer = new Timer(TIMER_MS, this);
-        repaintTimer.start();
+        //Painting is driven by new frames and changes to the regions or data through requestRepaint.
+        //This timer only delays a repaint that would otherwise exceed MAX_FRAMERATE.
+        repaintTimer = new Timer(0, this);
+        repaintTimer.setRepeats(false);
+
+        //Follow changes to the region thickness so regions are only restyled when it actually changes.
+        regionBorderWidth = readRegionBorderWidth();
+        graphOptionsPrefs.addPreferenceChangeListener(e ->
+        {
+            if(e.getKey().equals("regionThickness"))
+            {
+                int borderWidth = readRegionBorderWidth();
+                if(borderWidth != regionBorderWidth)
+                {
+                    regionBorderWidth = borderWidth;
+                    requestRepaint();
+                }
+            }
+        });
+    }
+
+    /**
+     * Reads the width of the region borders from the graph options.
+     *
+     * @return Border width in pixels.
+     */
+    private int readRegionBorderWidth()
+    {
+        return Integer.parseInt(graphOptionsPrefs.get("regionThickness", "2"));
+    }
+
+    /**
+     * Sets the thumbnail to draw in place of the video frame, or null to go back to drawing the frame.
+     *
+     * @param preview Thumbnail image, which is drawn scaled to the size of the video frame.
+     */
+    void setPreviewFrame(BufferedImage preview)
+    {
+        previewFrame = preview;
+        requestRepaint();
+    }
+
+    /**
+     * Requests a repaint of the panel. Can be called from any thread. Requests are coalesced until the repaint runs
+     * and are delayed as needed so the panel never paints faster than MAX_FRAMERATE.
+     */
+    void requestRepaint()
+    {
+        if(!repaintRequested.compareAndSet(false, true))
+        {
+            return;
+        }
+
+        long waitMillis = (lastPaintNanos + MIN_PAINT_INTERVAL_NANOS - System.nanoTime()) / 1_000_000;
+        if(waitMillis <= 0)
+        {
+            repaint();
+        }
+        else
+        {
+            repaintTimer.setInitialDelay((int) waitMillis);
+            repaintTimer.restart();
+        }
     }
 
     /**
-     * Paints the video frame and regions.
+     * Paints the video frame and regions, recording how long the paint took.
      *
      * @param g Graphics object to draw with.
      */
     @Override
     protected void paintComponent(Graphics g)
+    {
+        //Clear the request first so changes made while painting request another paint.
+        repaintRequested.set(false);
+
+        long paintStart = System.nanoTime();
+        lastPaintNanos = paintStart;
+
+        paintFrame(g);
+
+        long paintNanos = System.nanoTime() - paintStart;
+        paintCount++;
+        totalPaintNanos += paintNanos;
+        maxPaintNanos = Math.max(maxPaintNanos, paintNanos);
+    }
+
+    /**
+     * Draws the current video frame and the regions on top of it.
+     *
+     * @param g Graphics object to draw with.
+     */
+    private void paintFrame(Graphics g)
     {
         //Set rendering hint to prioritize speed. This slightly improves framerate on mac.
         Graphics2D g2d = (Graphics2D) g;
@@ -213,22 +332,47 @@ public class DirectVideoRenderPanel extends JPanel implements MouseListener, Mou
         g2d.setColor(Color.BLACK);
         g2d.fillRect(0, 0, getWidth(), getHeight());
 
-        //If any of our image buffers or the media player are not set, we can't render anything.
-        if(videoFrame == null || mediaPlayer == null || renderCopy == null)
+        //Switch to the newest decoded frame, if there is one.
+        BufferedImage videoFrame = frameBuffer.acquireFrame();
+
+        //If we have no frame or the media player is not set, we can't render anything.
+        if(videoFrame == null || mediaPlayer == null)
         {
             return;
         }
 
-        //Get a graphics context for the frame buffer so we can draw on it.
-        Graphics2D frameGraphics = (Graphics2D) renderCopy.getGraphics();
-        frameGraphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        //Update current scaling so that the frame and regions are drawn to the panel at the proper size.
+        if(videoFrame.getWidth() != videoFrameWidth || videoFrame.getHeight() != videoFrameHeight)
+        {
+            videoFrameWidth = videoFrame.getWidth();
+            videoFrameHeight = videoFrame.getHeight();
+            scaledPanelWidth = -1;
+        }
+        calculateFrameScaling();
+
+        //Get a graphics context that draws in video frame coordinates, clipped to the frame.
+        Graphics2D frameGraphics = (Graphics2D) g2d.create();
+        frameGraphics.transform(frameTransform);
+        frameGraphics.clipRect(0, 0, videoFrame.getWidth(), videoFrame.getHeight());
+
+        //Draw the frame scaled in a single pass. Nearest neighbor matches the fast scaling used before.
+        //While scrubbing, the thumbnail is stretched over the frame instead so regions stay where they are.
+        BufferedImage preview = previewFrame;
+        if(preview != null)
+        {
+            frameGraphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            frameGraphics.drawImage(preview, 0, 0, videoFrame.getWidth(), videoFrame.getHeight(), null);
+        }
+        else
+        {
+            frameGraphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+            frameGraphics.drawImage(videoFrame, 0, 0, null);
+        }
+
         //Set rendering hint to use anti-aliasing
         frameGraphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         frameGraphics.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
 
-        //Copy video frame into drawing buffer so that if it gets updated mid-paint, we don't get tearing background and flickering regions.
-        frameGraphics.drawImage(videoFrame, 0, 0, null);
-
         //Get the current media time.
         long currentPlaybackTime = mediaPlayer.getTime();
 
@@ -246,13 +390,6 @@ public class DirectVideoRenderPanel extends JPanel implements MouseListener, Mou
         //We are done with drawing on the frame at this point, so we can dispose graphics.
         frameGraphics.dispose();
 
-        //Update current scaling so that when we draw the image to the panel, it is at the proper size.
-        calculateFrameScaling();
-
-        //Draw the image in the center of the panel.
-        java.awt.Image temp = renderCopy.getScaledInstance(directWidth, directHeight, BufferedImage.SCALE_FAST);
-        g2d.drawImage(temp, directFrameOffsetX, directFrameOffsetY, null);
-
         //We are done with rendering, so we can dispose graphics.
         g.dispose();
     }
@@ -262,6 +399,13 @@ public class DirectVideoRenderPanel extends JPanel implements MouseListener, Mou
      */
     private void calculateFrameScaling()
     {
+        if(getWidth() == scaledPanelWidth && getHeight() == scaledPanelHeight)
+        {
+            return;
+        }
+        scaledPanelWidth = getWidth();
+        scaledPanelHeight = getHeight();
+
         directAspectRatio = Math.min(getWidth() / videoFrameWidth, getHeight() / videoFrameHeight);
         directWidth = Math.round(videoFrameWidth * directAspectRatio);
         directHeight = Math.round(videoFrameHeight * directAspectRatio);
@@ -269,6 +413,10 @@ public class DirectVideoRenderPanel extends JPanel implements MouseListener, Mou
         //Calculate position where frame is centered
         directFrameOffsetX = (getWidth() - directWidth) / 2;
         directFrameOffsetY = (getHeight() - directHeight) / 2;
+
+        //Scale the frame to the rounded size so it covers exactly the same pixels as before
+        frameTransform.setToTranslation(directFrameOffsetX, directFrameOffsetY);
+        frameTransform.scale(directWidth / videoFrameWidth, directHeight / videoFrameHeight);
     }
 
     /**
@@ -305,34 +453,19 @@ public class DirectVideoRenderPanel extends JPanel implements MouseListener, Mou
                 Color regionColor = dataRegion.getDisplayColor();
                 frameGraphics.setColor(regionColor);
 
-                //Gets data for the current region's channel. Only way to get this is in the form of lines from the data model proxy.
-                Vector<Line> data = dmp.getDataForChannel(dataRegion.getDeviceType(), dataRegion.getChip(), dataRegion.getPin(), GraphPanel.GRAPH_PREFERRED_WIDTH, GraphPanel.GRAPH_LINE_BASE, GraphPanel.GRAPH_LINE_TOP);
+                //Check if the region's channel is high at the midpoint of the graph, which is the current position.
+                Boolean channelHigh = dmp.isChannelHigh(dataRegion.getDeviceType(), dataRegion.getChip(), dataRegion.getPin());
 
-                //If there are no lines, we can't determine state. Move to next region.
-                if(data == null)
+                //If the device has no state data, we can't determine state. Move to next region.
+                if(channelHigh == null)
                 {
                     continue;
                 }
-
-                //Check if channel is high at the midpoint of the graph
-                boolean bChannelHigh = false;
-                int graphWidthMid = GraphPanel.GRAPH_PREFERRED_WIDTH / 2;
-
-                //Go through lines and look for a horizontal line in the middle of the graph.
-                for(Line currentLine : data)
-                {
-                    //If we find a line in the middle of the graph, use its height to set whether the channel is high.
-                    if((currentLine.getX0() <= graphWidthMid) && (currentLine.getX1() >= graphWidthMid))
-                    {
-                        //Inverting this seems wrong. Not sure why this is necessary.
-                        bChannelHigh = !(currentLine.getY0() == GraphPanel.GRAPH_LINE_TOP);
-                    }
-                }
-
-                this.regionBorderWidth = Integer.parseInt(graphOptionsPrefs.get("regionThickness", "2"));
+                boolean bChannelHigh = channelHigh;
+                int borderWidth = regionBorderWidth;
 
                 //Set stroke for border. CAP_ROUND and JOIN_ROUND round out region corners
-                frameGraphics.setStroke(new BasicStroke((float) regionBorderWidth, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+                frameGraphics.setStroke(dataRegion.getBorderStroke(borderWidth));
 
                 //Draw either a rectangle for FixedRegion or a GeneralPath for FreeFormRegion
                 if(dataRegion instanceof FixedRegion)
@@ -343,19 +476,19 @@ public class DirectVideoRenderPanel extends JPanel implements MouseListener, Mou
                     if(selectedRegion != null && selectedRegion.equals(fixedRegion))
                     {
                         frameGraphics.setColor(Color.WHITE);
-                        frameGraphics.setStroke(new BasicStroke((float) regionBorderWidth + 1, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+                        frameGraphics.setStroke(dataRegion.getSelectedStroke(borderWidth));
                         frameGraphics.drawRect(fixedRegion.getCoordX(), fixedRegion.getCoordY(), fixedRegion.getWidth(), fixedRegion.getHeight());
                     }
 
                     // Draw rectangle
                     frameGraphics.setColor(regionColor);
-                    frameGraphics.setStroke(new BasicStroke((float) regionBorderWidth, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+                    frameGraphics.setStroke(dataRegion.getBorderStroke(borderWidth));
                     frameGraphics.drawRect(fixedRegion.getCoordX(), fixedRegion.getCoordY(), fixedRegion.getWidth(), fixedRegion.getHeight());
 
                     //If the channel is high, fill in the rectangle with transparent version of color
                     if(bChannelHigh)
                     {
-                        frameGraphics.setColor(new Color(regionColor.getRed(), regionColor.getGreen(), regionColor.getBlue(), REGION_FILLED_ALPHA));
+                        frameGraphics.setColor(dataRegion.getFillColor());
                         frameGraphics.fillRect(fixedRegion.getCoordX(), fixedRegion.getCoordY(), fixedRegion.getWidth(), fixedRegion.getHeight());
                     }
                 }
@@ -363,39 +496,39 @@ public class DirectVideoRenderPanel extends JPanel implements MouseListener, Mou
                 {
                     FreeFormRegion freeRegion = (FreeFormRegion) dataRegion;
 
-                    // Update the GeneralPath object to look like the region we are currently drawing
-                    updateGeneralPath(freeRegion);
+                    // The outline is only rebuilt when one of the region's vertices has moved
+                    GeneralPath outline = freeRegion.getOutline();
 
                     // Draw a slightly thicker white outline before drawing the region if the this region is selected
                     if(selectedRegion != null && selectedRegion.equals(freeRegion))
                     {
                         frameGraphics.setColor(Color.WHITE);
-                        frameGraphics.setStroke(new BasicStroke((float) regionBorderWidth + 1, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
-                        frameGraphics.draw(gFreePath);
+                        frameGraphics.setStroke(dataRegion.getSelectedStroke(borderWidth));
+                        frameGraphics.draw(outline);
                     }
 
                     // Draw the GeneralPath
                     frameGraphics.setColor(regionColor);
-                    frameGraphics.setStroke(new BasicStroke((float) regionBorderWidth, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
-                    frameGraphics.draw(gFreePath);
+                    frameGraphics.setStroke(dataRegion.getBorderStroke(borderWidth));
+                    frameGraphics.draw(outline);
 
 
                     //If the channel is high, fill in the free form region with transparent version of color
                     if(bChannelHigh)
                     {
-                        frameGraphics.setColor(new Color(regionColor.getRed(), regionColor.getGreen(), regionColor.getBlue(), REGION_FILLED_ALPHA));
-                        frameGraphics.fill(gFreePath);
+                        frameGraphics.setColor(dataRegion.getFillColor());
+                        frameGraphics.fill(outline);
                     }
 
                     if(getVerticesEnabled())
                     {
                         // Draw circles on the vertices so there's some sort of visual indicator
+                        frameGraphics.setColor(Color.WHITE);
+                        frameGraphics.setStroke(VERTEX_STROKE);
+
+                        int radius = (borderWidth / 2) + 3;
                         for(Point p : freeRegion)
                         {
-                            frameGraphics.setColor(Color.WHITE);
-                            frameGraphics.setStroke(new BasicStroke(2));
-
-                            int radius = (regionBorderWidth / 2) + 3;
                             frameGraphics.fillOval((int) (p.getX() + freeRegion.getCoordX()) - radius, (int) (p.getY() + freeRegion.getCoordY()) - radius, radius * 2, radius * 2);
                         }
                     }
@@ -404,42 +537,6 @@ public class DirectVideoRenderPanel extends JPanel implements MouseListener, Mou
         }
     }
 
-    /**
-     * Update the GeneralPath object to represent the FreeFormRegion passed into it.
-     *
-     * @param freeRegion Object of type FreeFormRegion used to update the GeneralPath object
-     */
-    private void updateGeneralPath(FreeFormRegion freeRegion)
-    {
-        // Check if the object exists yet
-        if(gFreePath == null)
-            gFreePath = new GeneralPath(GeneralPath.WIND_EVEN_ODD, freeRegion.getVertexCount());
-
-        // Undo all the changes applied to the object last time this function was called
-        gFreePath.reset();
-
-        // Start at the position of the region
-        int coordX = freeRegion.getCoordX();
-        int coordY = freeRegion.getCoordY();
-        gFreePath.moveTo(coordX, coordY);
-
-        // Make a line from the starting position to the next vertex in the list and so on
-        boolean first = true;
-        for(Point p : freeRegion)
-        {
-            // We need to skip the first element returned by the iterator so that we don't draw a line from
-            // the first point to itself. Couldn't come up with a more elegant solution unfortunately.
-            if(first)
-            {
-                first = false;
-                continue;
-            }
-            gFreePath.lineTo((float) (p.getX() + coordX), (float) (p.getY() + coordY));
-        }
-        // Draw a line from the last vertex to the first vertex to finish the polygon
-        gFreePath.closePath();
-    }
-
     /**
      * Calculates the spot on the video frame where the mouse is pointing at.
      *
@@ -560,8 +657,8 @@ public class DirectVideoRenderPanel extends JPanel implements MouseListener, Mou
      */
     private RegionGrabLocation freeFormRegionGrabLoc(FreeFormRegion freeRegion)
     {
-        // Update the GeneralPath to the FreeFormRegion we're checking
-        updateGeneralPath(freeRegion);
+        // Use the outline of the FreeFormRegion we're checking
+        gFreePath = freeRegion.getOutline();
 
         // Check if the mouse is near a vertex, if it's inside a line, or just inside the region
         Area a = new Area(gFreePath);
@@ -639,8 +736,8 @@ public class DirectVideoRenderPanel extends JPanel implements MouseListener, Mou
                     // Region is a freeform region
                     FreeFormRegion freeRegion = (FreeFormRegion) dataRegion;
 
-                    // Update the GeneralPath to the FreeFormRegion we're checking
-                    updateGeneralPath(freeRegion);
+                    // Use the outline of the FreeFormRegion we're checking
+                    gFreePath = freeRegion.getOutline();
 
                     // Check if the mouse is near a vertex, if it's inside a line, or just inside the region
                     Area a = new Area(gFreePath);
@@ -776,31 +873,14 @@ public class DirectVideoRenderPanel extends JPanel implements MouseListener, Mou
         mediaPlayer = player;
     }
 
-    /**
-     * Sets the reference to the image buffer that will be updated with video frames.
-     *
-     * @param buffer image buffer
-     */
-    void setVideoFrame(BufferedImage buffer)
-    {
-        videoFrame = buffer;
-
-        //Create a copy buffer of the same size and type as the original.
-        renderCopy = new BufferedImage(videoFrame.getWidth(), videoFrame.getHeight(), videoFrame.getType());
-
-        //Set width and height of the video frame.
-        videoFrameWidth = videoFrame.getWidth();
-        videoFrameHeight = videoFrame.getHeight();
-    }
-
     /**
      * Gets the buffer that is updated with current video frames by the media player.
      *
-     * @return image buffer
+     * @return frame buffer
      */
-    BufferedImage getVideoFrame()
+    VideoFrameBuffer getFrameBuffer()
     {
-        return videoFrame;
+        return frameBuffer;
     }
 
     /**
@@ -811,6 +891,8 @@ public class DirectVideoRenderPanel extends JPanel implements MouseListener, Mou
         //Update timestamp.
         endFrameTime = mediaPlayer.getTime();
         System.out.println("Displaying video finished messages at frame time " + endFrameTime);
+
+        requestRepaint();
     }
 
     /**
@@ -857,6 +939,8 @@ public class DirectVideoRenderPanel extends JPanel implements MouseListener, Mou
             FreeFormRegion freeRegion = (FreeFormRegion) region;
             freeRegion.setVertices(new int[]{0, 100, 100, 0}, new int[]{0, 0, 100, 100});
         }
+
+        requestRepaint();
     }
 
     /**
@@ -872,6 +956,8 @@ public class DirectVideoRenderPanel extends JPanel implements MouseListener, Mou
 
         regionRenderOrder.remove(oldRegion);
         regionRenderOrder.add(newRegion);
+
+        requestRepaint();
     }
 
     /**
@@ -883,6 +969,8 @@ public class DirectVideoRenderPanel extends JPanel implements MouseListener, Mou
     {
         dataRegions.remove(region);
         regionRenderOrder.remove(region);
+
+        requestRepaint();
     }
 
     /**
@@ -924,6 +1012,9 @@ public class DirectVideoRenderPanel extends JPanel implements MouseListener, Mou
             mouseDownOffsetX = selectedRegion.getCoordX() - scaledMouseX;
             mouseDownOffsetY = selectedRegion.getCoordY() - scaledMouseY;
             setCursor(Cursor.getPredefinedCursor(Cursor.MOVE_CURSOR));
+
+            //Redraw with the selected region on top.
+            requestRepaint();
         }
         else if(e.isPopupTrigger())
         {
@@ -1007,8 +1098,8 @@ public class DirectVideoRenderPanel extends JPanel implements MouseListener, Mou
             handleFreeFormRegionTransform(freeRegion);
         }
 
-        //Repaint so that regions don't look choppy if video is paused.
-        repaint();
+        //Repaint so that regions follow the mouse even if video is paused.
+        requestRepaint();
     }
 
     /**
@@ -1284,6 +1375,26 @@ public class DirectVideoRenderPanel extends JPanel implements MouseListener, Mou
         text = "Reset Regions";
         menu.setToggleResetRegions(togReset, text);
 
+        // Redraw once the chosen menu item has run, since it may have changed the regions
+        menu.addPopupMenuListener(new PopupMenuListener()
+        {
+            @Override
+            public void popupMenuWillBecomeVisible(PopupMenuEvent popupEvent)
+            {
+            }
+
+            @Override
+            public void popupMenuWillBecomeInvisible(PopupMenuEvent popupEvent)
+            {
+                SwingUtilities.invokeLater(DirectVideoRenderPanel.this::requestRepaint);
+            }
+
+            @Override
+            public void popupMenuCanceled(PopupMenuEvent popupEvent)
+            {
+            }
+        });
+
         // Show/render the menu item
         menu.show(e.getComponent(), e.getX(), e.getY());
     }
@@ -1422,10 +1533,41 @@ public class DirectVideoRenderPanel extends JPanel implements MouseListener, Mou
     public void setVerticesEnabled(boolean b)
     {
         this.prefs.putBoolean("verticesEnabled", b);
+        requestRepaint();
+    }
+
+    /**
+     * Returns the number of times the panel has been painted
+     *
+     * @return number of paints
+     */
+    long getPaintCount()
+    {
+        return paintCount;
+    }
+
+    /**
+     * Returns the average time taken to paint the panel
+     *
+     * @return average paint time in milliseconds
+     */
+    double getAveragePaintMillis()
+    {
+        return paintCount > 0 ? totalPaintNanos / 1e6 / paintCount : 0;
+    }
+
+    /**
+     * Returns the longest time taken to paint the panel
+     *
+     * @return longest paint time in milliseconds
+     */
+    double getMaxPaintMillis()
+    {
+        return maxPaintNanos / 1e6;
     }
 
     /**
-     * Used to catch when the timer fires and repaint
+     * Used to catch when the timer delaying a requested repaint fires
      *
      * @param e ActionEvent created by timer firing
      */
@@ -0,0 +1,339 @@
+package VideoSync.views.videos;
+
+import VideoSync.views.modals.convert_video.FFmpeg;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Presentation time of every frame of a video and which of them are keyframes, used to step the video one exact frame
+ * at a time. The times are read from the packets of the video stream with ffprobe, which doesn't decode the video,
+ * and are cached in a sidecar next to the video that is used while the size and modification time of the video still
+ * match the values recorded in it.
+ * <p>
+ * Cache layout (big-endian): magic, version, video size, video modification time, frame count, the time of each frame
+ * in milliseconds since the first frame, one byte per frame that is 1 for keyframes, followed by an end marker.
+ */
+class FrameIndex
+{
+    /**
+     * Extension appended to the name of the video to get the name of its index
+     */
+    static final String EXTENSION = ".frameindex";
+
+    /**
+     * Marks the start of an index file ("VSFI")
+     */
+    private static final int MAGIC = 0x56534649;
+
+    /**
+     * Marks the end of a complete index file, so a truncated index is rejected
+     */
+    private static final int END_MARKER = 0x454E4446;
+
+    /**
+     * Version of the index layout. Must be increased whenever it changes so that older indexes are rebuilt.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Size of the magic, version, video size, video modification time and frame count
+     */
+    private static final int HEADER_SIZE = 28;
+
+    /**
+     * Time of each frame in milliseconds since the first frame, in presentation order. Times are rounded down so
+     * seeking to one never lands on the frame before it.
+     */
+    private final long[] frameTimes;
+
+    private final boolean[] keyframes;
+
+    private FrameIndex(long[] frameTimes, boolean[] keyframes)
+    {
+        this.frameTimes = frameTimes;
+        this.keyframes = keyframes;
+    }
+
+    /**
+     * Loads the index of a video from its cache, probing the video and writing the cache if there is no valid one.
+     * Probing reads the whole video file, so this should not be called on the event dispatch thread.
+     *
+     * @param videoFile video to index
+     * @return index of the video, or null if it could not be probed
+     */
+    static FrameIndex load(File videoFile)
+    {
+        File cacheFile = new File(videoFile.getPath() + EXTENSION);
+
+        FrameIndex index = read(videoFile, cacheFile);
+        if(index != null)
+            return index;
+
+        long probeStart = System.currentTimeMillis();
+        index = probe(videoFile);
+        if(index == null)
+            return null;
+
+        System.out.println("Indexed " + index.getFrameCount() + " frames (" + index.getKeyframeCount() + " keyframes) of "
+                + videoFile.getName() + " in " + (System.currentTimeMillis() - probeStart) + " ms");
+        index.write(videoFile, cacheFile);
+        return index;
+    }
+
+    /**
+     * Returns the number of frames in the video
+     *
+     * @return frame count
+     */
+    int getFrameCount()
+    {
+        return frameTimes.length;
+    }
+
+    /**
+     * Returns the time of a frame
+     *
+     * @param frame index of the frame
+     * @return time of the frame in milliseconds
+     */
+    long getFrameTime(int frame)
+    {
+        return frameTimes[frame];
+    }
+
+    /**
+     * Returns the number of keyframes in the video
+     *
+     * @return keyframe count
+     */
+    int getKeyframeCount()
+    {
+        int count = 0;
+        for(boolean keyframe : keyframes)
+        {
+            if(keyframe)
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the frame shown at the given time, which is the last frame starting at or before it
+     *
+     * @param time video time in milliseconds
+     * @return index of the frame
+     */
+    int getFrameAt(long time)
+    {
+        int i = Arrays.binarySearch(frameTimes, time);
+        if(i < 0)
+            i = -i - 2;
+        else
+        {
+            // Two frames can round down to the same millisecond, so use the last of them
+            while(i + 1 < frameTimes.length && frameTimes[i + 1] == time)
+                i++;
+        }
+        return Math.max(0, Math.min(i, frameTimes.length - 1));
+    }
+
+    /**
+     * Lists the packets of the video stream with ffprobe and builds the index from their presentation times
+     */
+    private static FrameIndex probe(File videoFile)
+    {
+        String[] cmd = {FFmpeg.getFfprobePath(), "-v", "error", "-select_streams", "v:0",
+                "-show_entries", "packet=pts_time,flags", "-of", "csv=p=0", videoFile.getAbsolutePath()};
+
+        // Each frame is packed as its time in microseconds shifted left one bit with the keyframe flag in the
+        // lowest bit, so sorting into presentation order keeps the flag with its frame
+        long[] packed = new long[1 << 16];
+        int count = 0;
+        try
+        {
+            Process process = new ProcessBuilder(cmd).redirectErrorStream(true).start();
+            try(BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8)))
+            {
+                String line;
+                while((line = reader.readLine()) != null)
+                {
+                    int comma = line.indexOf(',');
+                    if(comma < 0)
+                        continue;
+
+                    long micros;
+                    try
+                    {
+                        micros = Math.round(Double.parseDouble(line.substring(0, comma)) * 1_000_000);
+                    }
+                    catch(NumberFormatException e)
+                    {
+                        // Packets without a presentation time (N/A) and any messages from ffprobe
+                        continue;
+                    }
+
+                    if(count == packed.length)
+                        packed = Arrays.copyOf(packed, count * 2);
+                    packed[count++] = (micros << 1) | (line.indexOf('K', comma) >= 0 ? 1 : 0);
+                }
+            }
+
+            if(process.waitFor() != 0 || count == 0)
+            {
+                System.out.println("Unable to index frames of " + videoFile.getName() + ": ffprobe exited with " + process.exitValue());
+                return null;
+            }
+        }
+        catch(IOException e)
+        {
+            System.out.println("Unable to index frames of " + videoFile.getName() + ": " + e.getMessage());
+            return null;
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+
+        Arrays.sort(packed, 0, count);
+
+        // VLC counts time from the first frame, so the index does too
+        long firstMicros = packed[0] >> 1;
+        long[] frameTimes = new long[count];
+        boolean[] keyframes = new boolean[count];
+        for(int i = 0; i < count; i++)
+        {
+            frameTimes[i] = Math.floorDiv((packed[i] >> 1) - firstMicros, 1000);
+            keyframes[i] = (packed[i] & 1) != 0;
+        }
+        return new FrameIndex(frameTimes, keyframes);
+    }
+
+    /**
+     * Reads the index from its cache
+     *
+     * @return the cached index, or null if there is no cache or it does not match the video
+     */
+    private static FrameIndex read(File videoFile, File cacheFile)
+    {
+        if(!cacheFile.isFile())
+            return null;
+
+        // The index is small, so it is read into the heap rather than mapped. A file that is still mapped can't be
+        // replaced on Windows, which would keep a stale index from being rebuilt.
+        try(FileChannel fileChannel = FileChannel.open(cacheFile.toPath(), StandardOpenOption.READ))
+        {
+            // Validate the header before reading the frames
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            if(!readFully(fileChannel, header, 0))
+                return null;
+
+            if(header.getInt() != MAGIC || header.getInt() != VERSION)
+                return null;
+
+            if(header.getLong() != videoFile.length() || header.getLong() != videoFile.lastModified())
+                return null;
+
+            // Check the count against the size of the file so a corrupt index cannot request a huge array
+            int count = header.getInt();
+            if(count <= 0 || 9L * count + 4 != fileChannel.size() - HEADER_SIZE)
+                return null;
+
+            ByteBuffer buffer = ByteBuffer.allocate(9 * count + 4);
+            if(!readFully(fileChannel, buffer, HEADER_SIZE))
+                return null;
+
+            long[] frameTimes = new long[count];
+            buffer.asLongBuffer().get(frameTimes);
+            buffer.position(8 * count);
+
+            boolean[] keyframes = new boolean[count];
+            for(int i = 0; i < count; i++)
+                keyframes[i] = buffer.get() != 0;
+
+            if(buffer.getInt() != END_MARKER)
+                return null;
+
+            return new FrameIndex(frameTimes, keyframes);
+        }
+        catch(IOException | RuntimeException e)
+        {
+            System.out.println("Ignoring unreadable frame index " + cacheFile.getName() + ": " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Fills the buffer from the file starting at the given position and flips it for reading
+     *
+     * @return false if the file ends before the buffer is full
+     */
+    private static boolean readFully(FileChannel fileChannel, ByteBuffer buffer, long position) throws IOException
+    {
+        while(buffer.hasRemaining())
+        {
+            int read = fileChannel.read(buffer, position);
+            if(read < 0)
+                return false;
+            position += read;
+        }
+        buffer.flip();
+        return true;
+    }
+
+    /**
+     * Writes the index to its cache, replacing any existing cache. The cache is written to a temporary file first so
+     * an interrupted write never leaves a partial cache behind.
+     */
+    private void write(File videoFile, File cacheFile)
+    {
+        File tempFile = new File(cacheFile.getPath() + ".tmp");
+        try
+        {
+            try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile), 1 << 16)))
+            {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(videoFile.length());
+                out.writeLong(videoFile.lastModified());
+
+                out.writeInt(frameTimes.length);
+                for(long time : frameTimes)
+                    out.writeLong(time);
+                for(boolean keyframe : keyframes)
+                    out.writeByte(keyframe ? 1 : 0);
+
+                out.writeInt(END_MARKER);
+            }
+
+            try
+            {
+                Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch(AtomicMoveNotSupportedException e)
+            {
+                Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        catch(IOException e)
+        {
+            // The index is rebuilt next time, so the video can still be stepped without the cache
+            System.out.println("Unable to write frame index " + cacheFile.getName() + ": " + e);
+            tempFile.delete();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package VideoSync.views.videos;
+
+import com.sun.jna.Memory;
+
+import java.util.Arrays;
+
+/**
+ * Keeps copies of the most recently stepped to frames of a video so stepping back and forth around an event is
+ * served from memory instead of making VLC seek and decode again. Frames are stored in a fixed ring of pixel arrays
+ * that is reused as frames are added, and the oldest frame is overwritten once the ring is full.
+ */
+class FrameRingBuffer
+{
+    /**
+     * Memory the ring may use for frames, in bytes
+     */
+    private static final long MAX_BYTES = 96L * 1024 * 1024;
+
+    /**
+     * Limits on the number of frames kept, whatever the size of the video
+     */
+    private static final int MIN_FRAMES = 4;
+    private static final int MAX_FRAMES = 60;
+
+    private int[][] pixels = new int[0][];
+    private int[] frameNumbers = new int[0];
+    private int width;
+    private int height;
+
+    /**
+     * Slot the next frame is written to
+     */
+    private int next;
+
+    /**
+     * Stores a copy of a frame, replacing the oldest frame if the ring is full. Called on the VLC render thread.
+     *
+     * @param frame        index of the frame in the video's frame index
+     * @param nativeBuffer RV32 frame data from VLC
+     * @param width        width of the frame in pixels
+     * @param height       height of the frame in pixels
+     */
+    synchronized void put(int frame, Memory nativeBuffer, int width, int height)
+    {
+        if(width != this.width || height != this.height)
+            allocate(width, height);
+
+        // Replace an older copy of the same frame rather than keeping it twice
+        int slot = find(frame);
+        if(slot < 0)
+        {
+            slot = next;
+            next = (next + 1) % pixels.length;
+        }
+
+        if(pixels[slot] == null)
+            pixels[slot] = new int[width * height];
+
+        nativeBuffer.getByteBuffer(0, 4L * width * height).asIntBuffer().get(pixels[slot], 0, width * height);
+        frameNumbers[slot] = frame;
+    }
+
+    /**
+     * Writes a stored frame into the frame buffer the render panel draws from
+     *
+     * @param frame       index of the frame in the video's frame index
+     * @param frameBuffer frame buffer to show the frame in
+     * @return true if the frame was stored and has been written
+     */
+    synchronized boolean show(int frame, VideoFrameBuffer frameBuffer)
+    {
+        int slot = find(frame);
+        if(slot < 0)
+            return false;
+
+        frameBuffer.writeFrame(pixels[slot], width, height);
+        return true;
+    }
+
+    /**
+     * Discards every stored frame
+     */
+    synchronized void clear()
+    {
+        Arrays.fill(frameNumbers, -1);
+    }
+
+    private int find(int frame)
+    {
+        for(int slot = 0; slot < frameNumbers.length; slot++)
+        {
+            if(frameNumbers[slot] == frame)
+                return slot;
+        }
+        return -1;
+    }
+
+    /**
+     * Sizes the ring for frames of a new size. The pixel arrays are only allocated as frames are stored.
+     */
+    private void allocate(int width, int height)
+    {
+        int frames = (int) Math.max(MIN_FRAMES, Math.min(MAX_FRAMES, MAX_BYTES / (4L * width * height)));
+
+        this.width = width;
+        this.height = height;
+        pixels = new int[frames][];
+        frameNumbers = new int[frames];
+        next = 0;
+        clear();
+    }
+}
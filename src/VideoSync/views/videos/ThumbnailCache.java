@@ -0,0 +1,288 @@
+package VideoSync.views.videos;
+
+import VideoSync.views.modals.convert_video.FFmpeg;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Small frames of a video sampled at a fixed interval, shown while the playback slider is dragged so scrubbing
+ * doesn't make VLC seek on every movement of the mouse. The thumbnails are extracted once in the background with
+ * ffmpeg, decoding only keyframes, into a sidecar next to the video. The sidecar is memory-mapped, so a thumbnail is
+ * copied straight from the page cache into the image that is drawn. A single mapping can't exceed 2 GB, which a long
+ * video's thumbnails can, so the thumbnails are mapped in windows of as many whole thumbnails as fit in one.
+ * <p>
+ * Cache layout (big-endian header): magic, version, video size, video modification time, interval in milliseconds,
+ * thumbnail width, thumbnail height, thumbnail count, followed by the thumbnails as BGRA pixels in time order.
+ */
+class ThumbnailCache
+{
+    /**
+     * Extension appended to the name of the video to get the name of its thumbnail cache
+     */
+    static final String EXTENSION = ".thumbs";
+
+    /**
+     * Marks the start of a thumbnail cache file ("VSTC")
+     */
+    private static final int MAGIC = 0x56535443;
+
+    /**
+     * Version of the cache layout. Must be increased whenever it changes so that older caches are rebuilt.
+     */
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 40;
+
+    /**
+     * Width of the thumbnails in pixels, unless the video is smaller
+     */
+    private static final int THUMBNAIL_WIDTH = 320;
+
+    private final File videoFile;
+    private final File cacheFile;
+    private final int intervalMillis;
+    private final int width;
+    private final int height;
+
+    /**
+     * Mapped windows of the cache file's thumbnails, or null until the thumbnails have been extracted
+     */
+    private volatile MappedByteBuffer[] thumbnails;
+    private int thumbnailsPerWindow;
+    private int thumbnailCount;
+
+    /**
+     * Image the thumbnails are copied into for drawing. Only used on the event dispatch thread.
+     */
+    private BufferedImage thumbnailImage;
+
+    /**
+     * Creates the thumbnail cache of a video. Nothing is read or extracted until start is called.
+     *
+     * @param videoFile      video to sample
+     * @param intervalMillis time between thumbnails in milliseconds
+     * @param videoWidth     width of the video in pixels
+     * @param videoHeight    height of the video in pixels
+     */
+    ThumbnailCache(File videoFile, int intervalMillis, int videoWidth, int videoHeight)
+    {
+        this.videoFile = videoFile;
+        this.cacheFile = new File(videoFile.getPath() + EXTENSION);
+        this.intervalMillis = Math.max(intervalMillis, 100);
+
+        // Keep the aspect ratio of the video, with an even height as ffmpeg's scaler requires
+        this.width = Math.min(THUMBNAIL_WIDTH, videoWidth);
+        this.height = Math.max(2, (int) Math.round((double) width * videoHeight / videoWidth / 2) * 2);
+    }
+
+    /**
+     * Maps the cached thumbnails in the background, extracting them first if there is no valid cache
+     */
+    void start()
+    {
+        Thread thread = new Thread(() ->
+        {
+            if(!map())
+            {
+                long extractStart = System.currentTimeMillis();
+                if(extract() && map())
+                {
+                    System.out.println("Extracted " + thumbnailCount + " thumbnails of " + videoFile.getName() + " in "
+                            + (System.currentTimeMillis() - extractStart) + " ms");
+                }
+            }
+        }, "Thumbnails: " + videoFile.getName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Returns the thumbnail closest to the given time. The returned image is reused by the next call.
+     *
+     * @param time video time in milliseconds
+     * @return thumbnail image, or null if the thumbnails aren't ready or the time is outside the video
+     */
+    BufferedImage getThumbnail(long time)
+    {
+        MappedByteBuffer[] windows = thumbnails;
+        if(windows == null || time < 0)
+            return null;
+
+        int thumbnail = (int) Math.round((double) time / intervalMillis);
+        if(thumbnail >= thumbnailCount)
+            return null;
+
+        if(thumbnailImage == null)
+            thumbnailImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+
+        // BGRA bytes read as little-endian ints are the ARGB values TYPE_INT_RGB expects
+        int[] pixels = ((DataBufferInt) thumbnailImage.getRaster().getDataBuffer()).getData();
+        ByteBuffer source = windows[thumbnail / thumbnailsPerWindow].duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        source.position((thumbnail % thumbnailsPerWindow) * 4 * width * height);
+        source.asIntBuffer().get(pixels, 0, width * height);
+
+        return thumbnailImage;
+    }
+
+    /**
+     * Maps the cache file if it exists and matches the video and the current settings
+     *
+     * @return true if the thumbnails are ready
+     */
+    private boolean map()
+    {
+        if(!cacheFile.isFile())
+            return false;
+
+        try(FileChannel fileChannel = FileChannel.open(cacheFile.toPath(), StandardOpenOption.READ))
+        {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            if(fileChannel.read(header, 0) != HEADER_SIZE)
+                return false;
+            header.flip();
+
+            if(header.getInt() != MAGIC || header.getInt() != VERSION)
+                return false;
+
+            if(header.getLong() != videoFile.length() || header.getLong() != videoFile.lastModified())
+                return false;
+
+            if(header.getInt() != intervalMillis || header.getInt() != width || header.getInt() != height)
+                return false;
+
+            long frameBytes = 4L * width * height;
+            int count = header.getInt();
+            if(count <= 0 || count * frameBytes != fileChannel.size() - HEADER_SIZE)
+                return false;
+
+            // Map as many whole thumbnails as fit in each window
+            int perWindow = (int) (Integer.MAX_VALUE / frameBytes);
+            MappedByteBuffer[] windows = new MappedByteBuffer[(count + perWindow - 1) / perWindow];
+            for(int w = 0; w < windows.length; w++)
+            {
+                long first = (long) w * perWindow;
+                long windowCount = Math.min(perWindow, count - first);
+                windows[w] = fileChannel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * frameBytes, windowCount * frameBytes);
+            }
+
+            thumbnailsPerWindow = perWindow;
+            thumbnailCount = count;
+            thumbnails = windows;
+            return true;
+        }
+        catch(IOException | RuntimeException e)
+        {
+            System.out.println("Ignoring unreadable thumbnail cache " + cacheFile.getName() + ": " + e);
+            return false;
+        }
+    }
+
+    /**
+     * Extracts one thumbnail per interval with ffmpeg into the cache file. Only keyframes are decoded, which is much
+     * faster than decoding the whole video and close enough for scrubbing. The thumbnails are written to a temporary
+     * file first so an interrupted extraction never leaves a partial cache behind.
+     *
+     * @return true if the cache was written
+     */
+    private boolean extract()
+    {
+        String[] cmd = {FFmpeg.checkInstalled() ? FFmpeg.getFfmpegPath() : "ffmpeg", "-v", "error",
+                "-skip_frame", "nokey", "-i", videoFile.getAbsolutePath(), "-an",
+                "-vf", "fps=1000/" + intervalMillis + ",scale=" + width + ":" + height,
+                "-f", "rawvideo", "-pix_fmt", "bgra", "-"};
+
+        File tempFile = new File(cacheFile.getPath() + ".tmp");
+        try(FileChannel out = FileChannel.open(tempFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+        {
+            Process process = new ProcessBuilder(cmd).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+
+            // Leave room for the header, which can only be written once the number of thumbnails is known
+            out.position(HEADER_SIZE);
+
+            int frameBytes = 4 * width * height;
+            byte[] frame = new byte[frameBytes];
+            int count = 0;
+            try(InputStream in = new BufferedInputStream(process.getInputStream(), 1 << 16))
+            {
+                while(readFully(in, frame))
+                {
+                    out.write(ByteBuffer.wrap(frame));
+                    count++;
+                }
+            }
+
+            if(process.waitFor() != 0 || count == 0)
+            {
+                System.out.println("Unable to extract thumbnails of " + videoFile.getName() + ": ffmpeg exited with " + process.exitValue());
+                tempFile.delete();
+                return false;
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putLong(videoFile.length()).putLong(videoFile.lastModified())
+                    .putInt(intervalMillis).putInt(width).putInt(height).putInt(count);
+            header.flip();
+            out.write(header, 0);
+        }
+        catch(IOException e)
+        {
+            System.out.println("Unable to extract thumbnails of " + videoFile.getName() + ": " + e.getMessage());
+            tempFile.delete();
+            return false;
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            tempFile.delete();
+            return false;
+        }
+
+        try
+        {
+            try
+            {
+                Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch(AtomicMoveNotSupportedException e)
+            {
+                Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        }
+        catch(IOException e)
+        {
+            System.out.println("Unable to write thumbnail cache " + cacheFile.getName() + ": " + e);
+            tempFile.delete();
+            return false;
+        }
+    }
+
+    /**
+     * Reads exactly one frame, returning false at the end of the stream
+     */
+    private static boolean readFully(InputStream in, byte[] frame) throws IOException
+    {
+        int read = 0;
+        while(read < frame.length)
+        {
+            int n = in.read(frame, read, frame.length - read);
+            if(n < 0)
+                return false;
+            read += n;
+        }
+        return true;
+    }
+}
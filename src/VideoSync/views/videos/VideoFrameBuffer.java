@@ -0,0 +1,166 @@
+package VideoSync.views.videos;
+
+import com.sun.jna.Memory;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * Triple buffer passing decoded frames from the VLC render callback to the DirectVideoRenderPanel. The decoder copies
+ * each frame from VLC's native buffer straight into the pixel array of the image it owns, then swaps it with the
+ * ready image. The panel swaps the ready image with the one it draws from whenever a new frame is waiting, so neither
+ * side ever writes to an image the other is reading and no frame is copied again on the way to the screen.
+ * <p>
+ * A frame that is replaced by a newer one before the panel draws it counts as dropped.
+ */
+class VideoFrameBuffer
+{
+    /**
+     * Image the decoder writes the next frame into. Only used while holding decodeLock.
+     */
+    private BufferedImage decodeFrame;
+
+    /**
+     * Most recently completed frame, waiting to be drawn
+     */
+    private BufferedImage readyFrame;
+
+    /**
+     * Image the panel draws from. Only used by the painting thread.
+     */
+    private BufferedImage displayFrame;
+
+    /**
+     * True when readyFrame holds a frame the panel hasn't drawn yet
+     */
+    private boolean frameWaiting;
+
+    /**
+     * True once displayFrame holds a decoded frame of the current size
+     */
+    private boolean frameDisplayable;
+
+    /**
+     * Held while writing into decodeFrame, since frames can come from VLC or from the frames kept for stepping
+     */
+    private final Object decodeLock = new Object();
+
+    private long framesRendered;
+    private long framesDropped;
+
+    /**
+     * Copies a frame from the native buffer filled by VLC into the decoder's image and makes it the ready frame.
+     * Called on the VLC render thread.
+     *
+     * @param nativeBuffer RV32 frame data from VLC
+     * @param width        width of the frame in pixels
+     * @param height       height of the frame in pixels
+     */
+    void writeFrame(Memory nativeBuffer, int width, int height)
+    {
+        synchronized(decodeLock)
+        {
+            // Writing into the raster's own array is what removes the setRGB copy. It also stops Java2D from caching
+            // the image in video memory, which wouldn't help since the image changes every frame anyway.
+            int[] pixels = getDecodePixels(width, height);
+            nativeBuffer.getByteBuffer(0, 4L * width * height).asIntBuffer().get(pixels, 0, width * height);
+            publishDecodeFrame();
+        }
+    }
+
+    /**
+     * Copies a frame that was decoded earlier into the decoder's image and makes it the ready frame. Used to show
+     * frames kept in memory without asking VLC to decode them again.
+     *
+     * @param frame  pixels of the frame in the same layout as VLC's RV32 buffers
+     * @param width  width of the frame in pixels
+     * @param height height of the frame in pixels
+     */
+    void writeFrame(int[] frame, int width, int height)
+    {
+        synchronized(decodeLock)
+        {
+            System.arraycopy(frame, 0, getDecodePixels(width, height), 0, width * height);
+            publishDecodeFrame();
+        }
+    }
+
+    /**
+     * Returns the pixel array of the decoder's image, replacing the images first if the size of the video changed
+     */
+    private int[] getDecodePixels(int width, int height)
+    {
+        if(decodeFrame == null || decodeFrame.getWidth() != width || decodeFrame.getHeight() != height)
+            allocate(width, height);
+
+        return ((DataBufferInt) decodeFrame.getRaster().getDataBuffer()).getData();
+    }
+
+    /**
+     * Swaps the completed decoder's image with the ready image
+     */
+    private synchronized void publishDecodeFrame()
+    {
+        BufferedImage completed = decodeFrame;
+        decodeFrame = readyFrame;
+        readyFrame = completed;
+
+        if(frameWaiting)
+            framesDropped++;
+        frameWaiting = true;
+    }
+
+    /**
+     * Returns the image to draw, switching to the newest frame if one has been decoded since the last call. Called
+     * on the painting thread.
+     *
+     * @return newest frame, or null if no frame has been decoded yet
+     */
+    synchronized BufferedImage acquireFrame()
+    {
+        if(frameWaiting)
+        {
+            BufferedImage waiting = readyFrame;
+            readyFrame = displayFrame;
+            displayFrame = waiting;
+
+            frameWaiting = false;
+            frameDisplayable = true;
+            framesRendered++;
+        }
+        return frameDisplayable ? displayFrame : null;
+    }
+
+    /**
+     * Replaces all three images when the size of the video changes
+     */
+    private synchronized void allocate(int width, int height)
+    {
+        // RV32 frames are read as one int per pixel in the same layout as TYPE_INT_RGB, with the unused alpha ignored
+        decodeFrame = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        readyFrame = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        displayFrame = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        frameWaiting = false;
+        frameDisplayable = false;
+    }
+
+    /**
+     * Returns the number of decoded frames that were drawn
+     *
+     * @return frames drawn
+     */
+    synchronized long getFramesRendered()
+    {
+        return framesRendered;
+    }
+
+    /**
+     * Returns the number of decoded frames that were replaced by a newer frame before they could be drawn
+     *
+     * @return frames dropped
+     */
+    synchronized long getFramesDropped()
+    {
+        return framesDropped;
+    }
+}
@@ -21,16 +21,18 @@ package VideoSync.views.videos;
 
 import VideoSync.models.DataModelProxy;
 import VideoSync.objects.graphs.Region;
+import VideoSync.threads.ContinuousSkip;
+import com.sun.jna.Memory;
 import com.sun.jna.NativeLibrary;
 import uk.co.caprica.vlcj.binding.internal.libvlc_media_t;
 import uk.co.caprica.vlcj.component.DirectMediaPlayerComponent;
 import uk.co.caprica.vlcj.component.EmbeddedMediaPlayerComponent;
 import uk.co.caprica.vlcj.player.MediaPlayer;
 import uk.co.caprica.vlcj.player.MediaPlayerEventListener;
+import uk.co.caprica.vlcj.player.direct.BufferFormat;
 import uk.co.caprica.vlcj.player.direct.BufferFormatCallback;
 import uk.co.caprica.vlcj.player.direct.DirectMediaPlayer;
 import uk.co.caprica.vlcj.player.direct.RenderCallback;
-import uk.co.caprica.vlcj.player.direct.RenderCallbackAdapter;
 import uk.co.caprica.vlcj.player.direct.format.RV32BufferFormat;
 import uk.co.caprica.vlcj.player.embedded.EmbeddedMediaPlayer;
 import uk.co.caprica.vlcj.runtime.RuntimeUtil;
@@ -46,6 +48,9 @@ import java.io.File;
 import java.util.Observable;
 import java.util.Observer;
 import java.util.Vector;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.prefs.Preferences;
 
 
 public class VideoPlayer extends JFrame implements KeyListener, MediaPlayerEventListener, ComponentListener, ChangeListener, WindowListener, Observer, MouseMotionListener, MouseWheelListener, MouseListener
@@ -60,8 +65,14 @@ public class VideoPlayer extends JFrame implements KeyListener, MediaPlayerEvent
     /*** Use direct rendering even on Windows/Linux. Needed for drawing on frames. ***/
     static final private boolean ALWAYS_USE_DIRECT_RENDERING = true;
 
-    /*** tells java when the video is buffered and ready to be queried ***/
-    private boolean vlc_is_ready;
+    /*** Time between scrubbing thumbnails unless set in the thumbnailIntervalMillis preference ***/
+    static final private int DEFAULT_THUMBNAIL_INTERVAL = 2000;
+
+    /*** released when the video is buffered and ready to be queried ***/
+    private volatile CountDownLatch vlcReadyLatch = new CountDownLatch(1);
+
+    /*** longest time to wait for VLC to get a video ready ***/
+    static final private int VLC_READY_TIMEOUT_SECONDS = 30;
 
     private boolean mediaPlayerReadyFired;
 
@@ -120,8 +131,79 @@ public class VideoPlayer extends JFrame implements KeyListener, MediaPlayerEvent
      * Stores the width and height of the video so it can be referenced by the direct playback component upon
      * creation of callback.
      */
-    private int videoWidth;
-    private int videoHeight;
+    private volatile int videoWidth;
+    private volatile int videoHeight;
+
+    /**
+     * System.nanoTime() when the video was opened, and how long it took until its first frame was rendered or -1
+     * until then
+     */
+    private volatile long openNanos;
+    private volatile long firstFrameMillis = -1;
+
+    /**
+     * Time of every frame in the video, used to step one exact frame at a time. Null until the index has been loaded
+     * in the background or if the video couldn't be indexed, in which case VLC's own stepping is used.
+     */
+    private volatile FrameIndex frameIndex;
+
+    /**
+     * Copies of the frames most recently stepped to, so stepping back and forth around an event doesn't have to seek
+     */
+    private final FrameRingBuffer recentFrames = new FrameRingBuffer();
+
+    /**
+     * Frame of the frame index shown by the last step, or -1 if the video has played or jumped since
+     */
+    private int steppedFrame = -1;
+
+    /**
+     * Time of the frame the last step put on screen, or -1 if the video has played, skipped or jumped since. While
+     * stepping, a frame VLC renders is only drawn if it is from the seek to this time, so a late frame from the seek
+     * of an earlier step can't replace the frame that was stepped to. Guarded by seekLock.
+     */
+    private long stepDisplayTime = -1;
+
+    /**
+     * Frame that VLC was asked to seek to by the last step, whose decoded frame is kept in recentFrames once it is
+     * rendered, or -1 if the step was served from memory or its frame has been rendered. Guarded by seekLock.
+     */
+    private int pendingCaptureFrame = -1;
+
+    /**
+     * Thumbnails shown while the playback slider is dragged. Null when using the embedded media player.
+     */
+    private ThumbnailCache thumbnails;
+
+    /**
+     * Set when the video jumps after showing a thumbnail, so the thumbnail is replaced once VLC renders the new frame
+     */
+    private volatile boolean clearPreviewOnFrame;
+
+    /**
+     * Longest a skip waits for VLC to finish the previous seek before seeking again, in milliseconds
+     */
+    private static final long SEEK_TIMEOUT = 250;
+
+    /**
+     * Guards the skip seek state below
+     */
+    private final Object seekLock = new Object();
+
+    /**
+     * Time the latest skip or step asked for, or -1 once the video has caught up with it. While VLC is seeking, skips
+     * and steps only move this target and the video is seeked to it once the current seek completes, so holding skip
+     * never queues up seeks VLC can't keep up with.
+     */
+    private long skipTarget = -1;
+
+    /**
+     * Time of the seek VLC is working on, or -1 if none. Set once the seek has been issued, so a frame or time change
+     * from before it doesn't count as its completion.
+     */
+    private long seekingTo = -1;
+    private boolean seekIssued;
+    private long seekSerial;
 
     /**
      * Used for displaying the current time on the video player.
@@ -215,6 +297,24 @@ public class VideoPlayer extends JFrame implements KeyListener, MediaPlayerEvent
         // Set the video file so it can be used with VLC
         setVideoFile();
 
+        // Index the frames in the background so frame stepping can move by exact frames once it is ready.
+        Thread indexThread = new Thread(() -> frameIndex = FrameIndex.load(videoFile), "Frame index: " + file.getName());
+        indexThread.setDaemon(true);
+        indexThread.start();
+
+        // Sample thumbnails in the background so the playback slider can be dragged without seeking.
+        // They can't be sized if VLC never reported the video's size, in which case the slider seeks instead.
+        if(useDirectMediaPlayer && (videoWidth <= 0 || videoHeight <= 0))
+        {
+            System.out.println(" - Video size of " + videoFile.getName() + " is unknown, not extracting thumbnails");
+        }
+        else if(useDirectMediaPlayer)
+        {
+            int interval = Preferences.userRoot().node(VideoPlayer.class.getName()).getInt("thumbnailIntervalMillis", DEFAULT_THUMBNAIL_INTERVAL);
+            thumbnails = new ThumbnailCache(videoFile, interval, videoWidth, videoHeight);
+            thumbnails.start();
+        }
+
         // Create the Video Controller and Key listener only for the standalone version.
         //createVideoController();
         lastSystemTime = System.currentTimeMillis();
@@ -241,76 +341,73 @@ public class VideoPlayer extends JFrame implements KeyListener, MediaPlayerEvent
         //Initialize the appropriate Media Player Component
         if(useDirectMediaPlayer)
         {
-            //Direct Media Player requires a buffer format callback
-            //RV32 is included in VLCJ
-            BufferFormatCallback buffFormatCallback = RV32BufferFormat::new;
-
-            //Create a temp component to load video with so we can get frame size.
-            directMediaPlayerComponent = new DirectMediaPlayerComponent(buffFormatCallback);
-            mediaPlayer = directMediaPlayerComponent.getMediaPlayer();
-            mediaPlayer.setVolume(0);
-            mediaPlayer.addMediaPlayerEventListener(this);
-
-            String[] options = {"quiet=true"};
-
-            // Tell the instantiate with the video file and use the options included
-            mediaPlayer.playMedia(videoFile.getAbsolutePath(), options);
-
-            // FIXME: Busy waiting?
-            while(!isVLCReady())
+            //Direct Media Player requires a buffer format callback.
+            //VLC calls it with the size of the video before the first frame, so the media only has to be opened once.
+            BufferFormatCallback buffFormatCallback = (sourceWidth, sourceHeight) ->
             {
-                try
-                {
-                    Thread.sleep(500);
-                }
-                catch(InterruptedException e)
-                {
-                    e.printStackTrace();
-                }
-            }
-
-            //Reset VLCReadyFlag so that it can be used when reloading video after getting frame size
-            setVLCReadyFlag(false);
+                videoWidth = sourceWidth;
+                videoHeight = sourceHeight;
+                System.out.println("Video format of " + videoFile.getName() + ": " + sourceWidth + "x" + sourceHeight);
 
-            videoWidth = mediaPlayer.getVideoDimension().width;
-            videoHeight = mediaPlayer.getVideoDimension().height;
-
-            //Free temp components
-            mediaPlayer.release();
-            directMediaPlayerComponent.release();
+                //RV32 is included in VLCJ
+                return new RV32BufferFormat(sourceWidth, sourceHeight);
+            };
 
-            //Create the actual media player component
             directMediaPlayerComponent = new DirectMediaPlayerComponent(buffFormatCallback)
             {
 
                 @Override
                 protected RenderCallback onGetRenderCallback()
                 {
-                    System.out.println("Created render callback size: " + videoWidth + "x" + videoHeight);
-                    return new RenderCallbackAdapter(new int[videoWidth * videoHeight * 4])
+                    return new RenderCallback()
                     {
                         @Override
-                        protected void onDisplay(DirectMediaPlayer displayingPlayer, int[] rgb)
+                        public void display(DirectMediaPlayer displayingPlayer, Memory[] nativeBuffers, BufferFormat bufferFormat)
                         {
-
-                            if((displayingPlayer != null) && (displayingPlayer.isPlayable()) && (displayingPlayer.getVideoDimension() != null))
+                            //Copy the frame straight from VLC's buffer into the image the render panel will draw next.
+                            if(nativeBuffers != null && nativeBuffers.length > 0 && bufferFormat != null)
                             {
-                                int videoWidth = displayingPlayer.getVideoDimension().width;
-                                int videoHeight = displayingPlayer.getVideoDimension().height;
-                                BufferedImage directFrameBuffer = directRenderPanel.getVideoFrame();
+                                //While stepping, only show the frame of the seek to the frame that was stepped to.
+                                //Decided before seekCompleted, which may start the seek to a later step.
+                                int captureFrame = -1;
+                                boolean showFrame = true;
+                                synchronized(seekLock)
+                                {
+                                    if(stepDisplayTime >= 0)
+                                    {
+                                        showFrame = pendingCaptureFrame >= 0 && (seekingTo < 0 || (seekingTo == stepDisplayTime && seekIssued));
+                                        if(showFrame)
+                                        {
+                                            captureFrame = pendingCaptureFrame;
+                                            pendingCaptureFrame = -1;
+                                        }
+                                    }
+                                }
 
-                                //Ensures that the image is instantiated and properly sized for the buffer
-                                if(directFrameBuffer == null || directFrameBuffer.getWidth() != videoWidth || directFrameBuffer.getHeight() != videoHeight)
+                                seekCompleted(0);
+                                if(!showFrame)
                                 {
-                                    //Even though we don't need alpha channel, using ARGB is fastest since Java converts to ARGB internally upon rendering.
-                                    directFrameBuffer = new BufferedImage(videoWidth, videoHeight, BufferedImage.TYPE_INT_ARGB);
-                                    directFrameBuffer.setAccelerationPriority(1);
-                                    directRenderPanel.setVideoFrame(directFrameBuffer);
+                                    return;
                                 }
 
-                                directFrameBuffer.flush();
+                                directRenderPanel.getFrameBuffer().writeFrame(nativeBuffers[0], bufferFormat.getWidth(), bufferFormat.getHeight());
+                                if(firstFrameMillis < 0)
+                                {
+                                    firstFrameMillis = (System.nanoTime() - openNanos) / 1_000_000;
+                                    System.out.println(" - Time to first frame of " + videoFile.getName() + ": " + firstFrameMillis + " ms");
+                                }
+                                if(clearPreviewOnFrame)
+                                {
+                                    clearPreviewOnFrame = false;
+                                    directRenderPanel.setPreviewFrame(null);
+                                }
+                                directRenderPanel.requestRepaint();
 
-                                directFrameBuffer.setRGB(0, 0, videoWidth, videoHeight, rgb, 0, videoWidth);
+                                //Keep the frame a step seeked to so stepping back to it later is served from memory.
+                                if(captureFrame >= 0)
+                                {
+                                    recentFrames.put(captureFrame, nativeBuffers[0], bufferFormat.getWidth(), bufferFormat.getHeight());
+                                }
                             }
                         }
                     };
@@ -366,33 +463,19 @@ public class VideoPlayer extends JFrame implements KeyListener, MediaPlayerEvent
      */
     public void setVideoFile()
     {
-        //Count time slices until the media is ready for statistics.
-        int time_quanta = 0;
         // Set the player to quite mode and not print out any information as it plays.
         String[] options = {"quiet=true"};
 
         // Tell the instantiate with the video file and use the options included
+        openNanos = System.nanoTime();
         mediaPlayer.playMedia(videoFile.getAbsolutePath(), options);
         //mediaPlayer.prepareMedia(videoFile.getAbsolutePath(), options);
         //mediaPlayer.play();
 
-        // This gives the player enough time to startup and get ready to go
-        // and also give enough time for "pause" to take effect. 400ms to 500ms
-        // is enough during most load sequences but it could take an extra second
-        // if the vlc drivers are completely unloaded.
-        // FIXME: Busy waiting?
-        while(!isVLCReady())
-        {
-            try
-            {
-                Thread.sleep(100);
-                time_quanta++;    //used to debugging how long a video takes to prepare
-            }
-            catch(InterruptedException e)
-            {
-                e.printStackTrace();
-            }
-        }
+        // Wait for the player to start up and get ready to go. This is usually 400ms to 500ms but it could take an
+        // extra second if the vlc drivers are completely unloaded.
+        waitForVLCReady();
+        long setupMillis = (System.nanoTime() - openNanos) / 1_000_000;
 
         videoLength = mediaPlayer.getLength();
 
@@ -414,7 +497,7 @@ public class VideoPlayer extends JFrame implements KeyListener, MediaPlayerEvent
         {
             // Display the video information for debugging information.
             System.out.println("-------------------------------- VIDEO INFORMATION --------------------------------");
-            System.out.println(" - Video Setup time: " + time_quanta * 100 + " ms");
+            System.out.println(" - Video Setup time: " + setupMillis + " ms");
             System.out.println(" - Video File: " + videoFile.getName());
             System.out.println(" - Video Path: " + videoFile.getPath());
             System.out.println(" - Video Length: " + mediaPlayer.getLength() + " ms");
@@ -536,6 +619,13 @@ public class VideoPlayer extends JFrame implements KeyListener, MediaPlayerEvent
      */
     public void playVideo()
     {
+        steppedFrame = -1;
+        synchronized(seekLock)
+        {
+            stepDisplayTime = -1;
+            pendingCaptureFrame = -1;
+        }
+        hidePreview(true);
         //System.out.println("VP: " + dmp.getCurrentPosition());
         mediaPlayer.play();
         //System.out.println("VP: " + dmp.getCurrentPosition());
@@ -576,7 +666,87 @@ public class VideoPlayer extends JFrame implements KeyListener, MediaPlayerEvent
      */
     public void skipVideo(int amount)
     {
-        mediaPlayer.skip(amount);
+        steppedFrame = -1;
+
+        synchronized(seekLock)
+        {
+            stepDisplayTime = -1;
+            pendingCaptureFrame = -1;
+
+            // Skip on from where the last skip asked for, the video may not have got there yet
+            long from = (skipTarget >= 0) ? skipTarget : Math.max(mediaPlayer.getTime(), 0);
+            long target = Math.max(from + amount, 0);
+            if(videoLength > 0)
+            {
+                target = Math.min(target, videoLength);
+            }
+            skipTarget = target;
+
+            if(seekingTo < 0)
+            {
+                issueSeek();
+            }
+        }
+    }
+
+    /**
+     * Seeks VLC to the skip target on the skip executor. The seek counts as complete when VLC renders a frame or
+     * reports a time after it, or after SEEK_TIMEOUT if it reports neither. Must be called holding seekLock.
+     */
+    private void issueSeek()
+    {
+        long target = skipTarget;
+        long serial = ++seekSerial;
+        seekingTo = target;
+        seekIssued = false;
+
+        ContinuousSkip.execute(() ->
+        {
+            // Skip the seek if the video jumped somewhere else since it was requested
+            synchronized(seekLock)
+            {
+                if(seekSerial != serial)
+                {
+                    return;
+                }
+            }
+
+            mediaPlayer.setTime(target);
+            synchronized(seekLock)
+            {
+                if(seekSerial == serial)
+                {
+                    seekIssued = true;
+                }
+            }
+        });
+        ContinuousSkip.schedule(() -> seekCompleted(serial), SEEK_TIMEOUT);
+    }
+
+    /**
+     * Called when VLC shows progress after a seek. Seeks to the latest skip target if it moved while seeking.
+     *
+     * @param serial serial of the seek that completed, or 0 for whichever seek has been issued
+     */
+    private void seekCompleted(long serial)
+    {
+        synchronized(seekLock)
+        {
+            if(seekingTo < 0 || (serial == 0 && !seekIssued) || (serial != 0 && serial != seekSerial))
+            {
+                return;
+            }
+
+            if(skipTarget != seekingTo)
+            {
+                issueSeek();
+            }
+            else
+            {
+                seekingTo = -1;
+                skipTarget = -1;
+            }
+        }
     }
 
     /**
@@ -586,6 +756,12 @@ public class VideoPlayer extends JFrame implements KeyListener, MediaPlayerEvent
      */
     public long nextFrame()
     {
+        FrameIndex index = frameIndex;
+        if(index != null)
+        {
+            return stepFrame(index, 1);
+        }
+
         long currTime = System.currentTimeMillis();
 
         //If it's been half a second since the last advance, go ahead and advance.
@@ -616,6 +792,12 @@ public class VideoPlayer extends JFrame implements KeyListener, MediaPlayerEvent
      */
     public long previousFrame()
     {
+        FrameIndex index = frameIndex;
+        if(index != null)
+        {
+            return stepFrame(index, -1);
+        }
+
         long currentTime = mediaPlayer.getTime();
 
         // Frame timing is calculated using 1000 / mediaPlayer.getFps() and done when the video loads.
@@ -632,6 +814,110 @@ public class VideoPlayer extends JFrame implements KeyListener, MediaPlayerEvent
         return newTime;
     }
 
+    /**
+     * Shows the thumbnail closest to the given time in place of the video frame without seeking the video.
+     *
+     * @param time Time since the beginning in milliseconds
+     * @return Returns false if there is no thumbnail for the time, in which case the video should be seeked instead
+     */
+    public boolean showThumbnail(long time)
+    {
+        if(thumbnails == null)
+        {
+            return false;
+        }
+
+        BufferedImage thumbnail = thumbnails.getThumbnail(time);
+        if(thumbnail == null)
+        {
+            return false;
+        }
+
+        clearPreviewOnFrame = false;
+        directRenderPanel.setPreviewFrame(thumbnail);
+        this.setVideoTimeLabel(time);
+        return true;
+    }
+
+    /**
+     * Replaces a thumbnail shown while scrubbing with the real frame
+     *
+     * @param frameComing true if VLC is about to render a frame, which then replaces the thumbnail, false to remove
+     *                    the thumbnail straight away
+     */
+    private void hidePreview(boolean frameComing)
+    {
+        if(useDirectMediaPlayer)
+        {
+            clearPreviewOnFrame = frameComing;
+            if(!frameComing)
+            {
+                directRenderPanel.setPreviewFrame(null);
+            }
+        }
+    }
+
+    /**
+     * Moves the video by exactly one frame using the frame index. Frames stepped to recently are shown from memory,
+     * others are seeked to at their exact time and kept once VLC has decoded them.
+     *
+     * @param index     frame index of the video
+     * @param direction 1 to step forward, -1 to step backward
+     * @return Returns the time of the frame stepped to
+     */
+    private long stepFrame(FrameIndex index, int direction)
+    {
+        // Stepping pauses the video, as VLC's own frame stepping does
+        if(mediaPlayer.isPlaying())
+        {
+            mediaPlayer.pause();
+            steppedFrame = -1;
+        }
+
+        // While stepping, VLC may still be on an older frame if the last steps were served from memory
+        int current = (steppedFrame >= 0) ? steppedFrame : index.getFrameAt(mediaPlayer.getTime());
+        int target = Math.max(0, Math.min(current + direction, index.getFrameCount() - 1));
+        long time = index.getFrameTime(target);
+        steppedFrame = target;
+
+        if(useDirectMediaPlayer && recentFrames.show(target, directRenderPanel.getFrameBuffer()))
+        {
+            // A seek for an earlier step may still be running, its frame must not replace this one
+            synchronized(seekLock)
+            {
+                stepDisplayTime = time;
+                pendingCaptureFrame = -1;
+            }
+            hidePreview(false);
+            directRenderPanel.requestRepaint();
+        }
+        else if(useDirectMediaPlayer)
+        {
+            hidePreview(true);
+
+            // Seek the same way skips do, so a step waits for the seek of an earlier step instead of overlapping it
+            synchronized(seekLock)
+            {
+                stepDisplayTime = time;
+                pendingCaptureFrame = target;
+                skipTarget = time;
+                if(seekingTo < 0)
+                {
+                    issueSeek();
+                }
+            }
+        }
+        else
+        {
+            hidePreview(true);
+            mediaPlayer.setTime(time);
+        }
+
+        this.setVideoTimeLabel(time);
+
+        return time;
+    }
+
     /**
      * Jumps the video to a specific point in the video time.
      *
@@ -639,6 +925,9 @@ public class VideoPlayer extends JFrame implements KeyListener, MediaPlayerEvent
      */
     public void jumpToTime(long time)
     {
+        steppedFrame = -1;
+        hidePreview(time < videoLength);
+
         System.out.println("\n **** jumpToTime(long time) ****");
 
         //Restart media player if it has previously stopped.
@@ -664,6 +953,16 @@ public class VideoPlayer extends JFrame implements KeyListener, MediaPlayerEvent
 
         System.out.println(playerID + ") Jumping Video To Time (ms): " + time + " on " + videoFile.getName());
 
+        // Drop any skip or step still waiting to seek, the jump replaces it
+        synchronized(seekLock)
+        {
+            stepDisplayTime = -1;
+            pendingCaptureFrame = -1;
+            skipTarget = -1;
+            seekingTo = -1;
+            seekSerial++;
+        }
+
         mediaPlayer.setTime(time);
     }
 
@@ -725,8 +1024,9 @@ public class VideoPlayer extends JFrame implements KeyListener, MediaPlayerEvent
         // If the player ID is 1, it gets to update the model with the current video time.
         if(playerID == 1)
         {
-            // Perform notification to model of time change.
-            dmp.setCurrentTime(this.mediaPlayer.getTime());
+            // Perform notification to model of time change. While playing this only re-anchors the media clock,
+            // which moves the graphs between these reports.
+            dmp.reportMediaTime(this.mediaPlayer.getTime());
         }
     }
 
@@ -758,6 +1058,12 @@ public class VideoPlayer extends JFrame implements KeyListener, MediaPlayerEvent
 
     public void update(Observable arg0, Object arg1)
     {
+        // The position, graph offset or regions may have changed, which changes how the data regions are drawn
+        if(directRenderPanel != null)
+        {
+            directRenderPanel.requestRepaint();
+        }
+
         if(arg1 instanceof String)
         {
             if(arg1.equals("Present"))
@@ -860,6 +1166,9 @@ public class VideoPlayer extends JFrame implements KeyListener, MediaPlayerEvent
         if(vlc_debug)
             System.out.println("Time Change Detected " + time);
 
+        // A skip may be waiting for this seek to finish before seeking again.
+        seekCompleted(0);
+
         // Notifies the model that the time has changed.
         notifyModelOfTimeChange();
 
@@ -943,6 +1252,13 @@ public class VideoPlayer extends JFrame implements KeyListener, MediaPlayerEvent
             // Hide the video player
             this.setVisible(false);
 
+            if(useDirectMediaPlayer)
+            {
+                System.out.printf("%s: rendered %d frames, dropped %d, painted %d times (average %.2f ms, longest %.2f ms)\n",
+                        videoFile.getName(), getFramesRendered(), getFramesDropped(), directRenderPanel.getPaintCount(),
+                        directRenderPanel.getAveragePaintMillis(), directRenderPanel.getMaxPaintMillis());
+            }
+
             // Release the Media Player & Media Player Components
             this.mediaPlayer.release();
 
@@ -1350,12 +1666,47 @@ public class VideoPlayer extends JFrame implements KeyListener, MediaPlayerEvent
     /***  ***/
     private void setVLCReadyFlag(boolean state)
     {
-        vlc_is_ready = state;
+        if(state)
+        {
+            vlcReadyLatch.countDown();
+        }
+        else if(isVLCReady())
+        {
+            vlcReadyLatch = new CountDownLatch(1);
+        }
     }
 
     public boolean isVLCReady()
     {
-        return vlc_is_ready;
+        return vlcReadyLatch.getCount() == 0;
+    }
+
+    /**
+     * Blocks until VLC reports the video is ready, or until VLC_READY_TIMEOUT_SECONDS have passed
+     */
+    private void waitForVLCReady()
+    {
+        try
+        {
+            if(!vlcReadyLatch.await(VLC_READY_TIMEOUT_SECONDS, TimeUnit.SECONDS))
+            {
+                System.err.println(" -- " + videoFile.getName() + " was not ready after " + VLC_READY_TIMEOUT_SECONDS + " seconds");
+            }
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns how long the video took to show its first frame after it was opened
+     *
+     * @return time to first frame in milliseconds, or -1 if no frame has been rendered yet
+     */
+    public long getTimeToFirstFrame()
+    {
+        return firstFrameMillis;
     }
 
     public void setVideoPanel(VideoPanel vp)
@@ -1434,4 +1785,24 @@ public class VideoPlayer extends JFrame implements KeyListener, MediaPlayerEvent
     {
         isSaved = b;
     }
+
+    /**
+     * Returns the number of decoded frames drawn by this VideoPlayer
+     *
+     * @return frames drawn, or 0 if the video isn't rendered by a direct media player
+     */
+    public long getFramesRendered()
+    {
+        return directRenderPanel != null ? directRenderPanel.getFrameBuffer().getFramesRendered() : 0;
+    }
+
+    /**
+     * Returns the number of decoded frames that were replaced by newer frames before this VideoPlayer drew them
+     *
+     * @return frames dropped, or 0 if the video isn't rendered by a direct media player
+     */
+    public long getFramesDropped()
+    {
+        return directRenderPanel != null ? directRenderPanel.getFrameBuffer().getFramesDropped() : 0;
+    }
 }